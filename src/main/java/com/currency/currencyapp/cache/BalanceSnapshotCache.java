@@ -0,0 +1,70 @@
+package com.currency.currencyapp.cache;
+
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache of per-user balance snapshots, so balance reads do not have to load the accounts
+ * of the user.
+ * Snapshots are only cached from complete reloads of the store. Every mutation evicts the
+ * snapshot of the user instead of merging into it, since a read-merge-put on the shared
+ * cache is not atomic across nodes and a lost merge would be served, and its ETag answered
+ * with 304, until the TTL expires. A reload that read the store just before a mutation on
+ * another node can still cache the older balances; the next mutation or the TTL drops it.
+ * Cache failures never fail the balance operation: reads fall back to the store and a
+ * failed write drops the cached snapshot.
+ */
+@Component
+@Slf4j
+public class BalanceSnapshotCache {
+
+    public static final String CACHE_NAME = "balance_snapshots";
+
+    private final Cache cache;
+
+    public BalanceSnapshotCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(CACHE_NAME);
+    }
+
+    /**
+     * Get the cached snapshot of a user.
+     *
+     * @return the complete snapshot, or null if none is cached
+     */
+    public BalanceSnapshot get(String userId) {
+        try {
+            BalanceSnapshot snapshot = cache.get(userId, BalanceSnapshot.class);
+            return snapshot != null && snapshot.isComplete() ? snapshot : null;
+        } catch (RuntimeException e) {
+            log.warn("Failed to read balance snapshot of user: {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Cache a complete snapshot reloaded from the store.
+     */
+    public void put(BalanceSnapshot snapshot) {
+        String userId = snapshot.getUserId();
+        try {
+            cache.put(userId, snapshot);
+        } catch (RuntimeException e) {
+            log.warn("Failed to cache balance snapshot of user: {}: {}", userId, e.getMessage());
+            evict(userId);
+        }
+    }
+
+    /**
+     * Drop the cached snapshot of a user.
+     */
+    public void evict(String userId) {
+        try {
+            cache.evict(userId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to evict balance snapshot of user: {}: {}", userId, e.getMessage());
+        }
+    }
+}
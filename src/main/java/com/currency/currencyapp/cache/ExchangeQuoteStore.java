@@ -0,0 +1,100 @@
+package com.currency.currencyapp.cache;
+
+import com.currency.currencyapp.domain.ExchangeQuote;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Store for exchange quotes: a bounded in-process cache, backed by Redis when available so
+ * that a quote can be executed on any node.
+ * Redis is authoritative for quotes written to it; the local copy only answers for quotes
+ * whose Redis write failed, so a quote can never be taken twice across nodes.
+ */
+@Component
+@Slf4j
+public class ExchangeQuoteStore {
+
+    static final String KEY_PREFIX = "quote:";
+
+    private final Cache<String, StoredQuote> local;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExchangeQuoteStore(ObjectProvider<StringRedisTemplate> redisTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${exchange-rate.quote.max-quotes:10000}") long maxQuotes,
+                              @Value("${exchange-rate.quote.ttl-seconds:30}") long ttlSeconds) {
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.local = Caffeine.newBuilder()
+            .maximumSize(maxQuotes)
+            .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+            .build();
+    }
+
+    /**
+     * Store a quote until it expires.
+     *
+     * @param quote the quote
+     */
+    public void put(ExchangeQuote quote) {
+        boolean remote = false;
+        if (redisTemplate != null) {
+            try {
+                Duration ttl = Duration.between(Instant.now(), quote.getExpiresAt());
+                redisTemplate.opsForValue().set(KEY_PREFIX + quote.getQuoteId(), objectMapper.writeValueAsString(quote), ttl);
+                remote = true;
+            } catch (Exception e) {
+                log.warn("Failed to store quote {} in Redis, keeping it local: {}", quote.getQuoteId(), e.getMessage());
+            }
+        }
+        local.put(quote.getQuoteId(), new StoredQuote(quote, remote));
+    }
+
+    /**
+     * Remove a quote and return it, so that it can be executed exactly once.
+     *
+     * @param quoteId the quote ID
+     * @return the quote, or null if it is unknown, expired or already taken
+     */
+    public ExchangeQuote take(String quoteId) {
+        StoredQuote stored = local.asMap().remove(quoteId);
+        if (stored != null && !stored.remote()) {
+            return stored.quote();
+        }
+        if (redisTemplate == null) {
+            return null;
+        }
+
+        String json;
+        try {
+            json = redisTemplate.opsForValue().getAndDelete(KEY_PREFIX + quoteId);
+        } catch (Exception e) {
+            log.warn("Failed to take quote {} from Redis: {}", quoteId, e.getMessage());
+            return null;
+        }
+        if (json == null) {
+            return null;
+        }
+
+        try {
+            return objectMapper.readValue(json, ExchangeQuote.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable quote {}: {}", quoteId, e.getMessage());
+            return null;
+        }
+    }
+
+    private record StoredQuote(ExchangeQuote quote, boolean remote) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.currency.currencyapp.cache;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compact binary serializer for the exchange_rates cache.
+ * A rate is written as its scale and unscaled value, a rate table as its base, fetch time
+ * (millisecond precision), degraded flag and the rates keyed by currency code; no class
+ * metadata is stored.
+ * Values not written by this serializer (e.g. entries left over from the previous JSON
+ * encoding) read as a cache miss.
+ */
+public class ExchangeRateRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte DECIMAL = 1;
+    static final byte TABLE = 2;
+
+    private static final int DEGRADED = 1;
+    private static final int HAS_FETCHED_AT = 1 << 1;
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return null;
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            if (value instanceof BigDecimal decimal) {
+                out.writeByte(DECIMAL);
+                writeDecimal(out, decimal);
+            } else if (value instanceof ExchangeRateTable table) {
+                out.writeByte(TABLE);
+                writeTable(out, table);
+            } else {
+                throw new SerializationException("Cannot serialize " + value.getClass().getName());
+            }
+        } catch (IOException e) {
+            throw new SerializationException("Failed to serialize exchange rate cache value", e);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+            return switch (in.readByte()) {
+                case DECIMAL -> readDecimal(in);
+                case TABLE -> readTable(in);
+                default -> null;
+            };
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException("Failed to deserialize exchange rate cache value", e);
+        }
+    }
+
+    private static void writeTable(DataOutputStream out, ExchangeRateTable table) throws IOException {
+        writeCurrency(out, table.getBase());
+        out.writeByte((table.isDegraded() ? DEGRADED : 0) | (table.getFetchedAt() != null ? HAS_FETCHED_AT : 0));
+        if (table.getFetchedAt() != null) {
+            writeVarLong(out, zigZag(table.getFetchedAt().toEpochMilli()));
+        }
+
+        Map<Currency, BigDecimal> rates = table.getRates() != null ? table.getRates() : Map.of();
+        writeVarLong(out, rates.size());
+        for (Map.Entry<Currency, BigDecimal> rate : rates.entrySet()) {
+            writeCurrency(out, rate.getKey());
+            writeDecimal(out, rate.getValue());
+        }
+    }
+
+    private static ExchangeRateTable readTable(DataInputStream in) throws IOException {
+        Currency base = readCurrency(in);
+        int flags = in.readUnsignedByte();
+        Instant fetchedAt = (flags & HAS_FETCHED_AT) != 0 ? Instant.ofEpochMilli(unZigZag(readVarLong(in))) : null;
+
+        int size = (int) readVarLong(in);
+        Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+        for (int i = 0; i < size; i++) {
+            Currency currency = readCurrency(in);
+            BigDecimal rate = readDecimal(in);
+            if (currency != null) {
+                // Currencies dropped since the entry was written are skipped
+                rates.put(currency, rate);
+            }
+        }
+        if (base == null) {
+            return null;
+        }
+
+        return ExchangeRateTable.builder()
+            .base(base)
+            .rates(rates)
+            .fetchedAt(fetchedAt)
+            .degraded((flags & DEGRADED) != 0)
+            .build();
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        writeVarLong(out, zigZag(value.scale()));
+        writeVarLong(out, unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = (int) unZigZag(readVarLong(in));
+        byte[] unscaled = new byte[(int) readVarLong(in)];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static void writeCurrency(DataOutputStream out, Currency currency) throws IOException {
+        // Currency codes instead of ordinals keep entries readable when the enum is reordered
+        byte[] code = currency.name().getBytes(StandardCharsets.US_ASCII);
+        out.writeByte(code.length);
+        out.write(code);
+    }
+
+    private static Currency readCurrency(DataInputStream in) throws IOException {
+        byte[] code = new byte[in.readUnsignedByte()];
+        in.readFully(code);
+        try {
+            return Currency.valueOf(new String(code, StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,215 @@
+package com.currency.currencyapp.cache;
+
+import com.currency.currencyapp.dto.TransactionResponse;
+import com.currency.currencyapp.exception.IdempotencyConflictException;
+import com.currency.currencyapp.exception.IdempotencyKeyMismatchException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Remembers the response of each request carrying an idempotency key, so that a retried
+ * request gets the original response instead of moving money again.
+ * Each key is claimed with a single insert into a bounded in-process map, so a duplicate
+ * reaching the same node costs one hash lookup and waits for the original if it is still
+ * running. Keys are also claimed in Redis with {@code SET NX} when available, so that a
+ * duplicate reaching another node is answered from the stored response, or rejected while
+ * the original is still running there. The Redis claim only lives about as long as a request
+ * may run, so a key whose node died mid-request can be retried soon; the response is then
+ * kept for the full TTL.
+ * Each key remembers a hash of its request, and a request reusing a key with a different
+ * body is rejected instead of being answered with the original response.
+ * Failed requests are forgotten, so that they can be retried with the same key.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+    static final String KEY_PREFIX = "idempotency:";
+    static final String IN_PROGRESS = "in-progress:";
+
+    private final Cache<String, Claim> local;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inProgressTtl;
+
+    public IdempotencyStore(ObjectProvider<StringRedisTemplate> redisTemplate,
+                            ObjectMapper objectMapper,
+                            @Value("${idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            @Value("${idempotency.in-progress-ttl-seconds:30}") long inProgressTtlSeconds) {
+        this.redisTemplate = redisTemplate.getIfAvailable();
+        this.objectMapper = objectMapper;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.inProgressTtl = Duration.ofSeconds(inProgressTtlSeconds);
+        this.local = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterWrite(ttl)
+            .build();
+    }
+
+    /**
+     * Run an operation once per idempotency key.
+     *
+     * @param userId         the user sending the request, keys are only unique per user
+     * @param operation      the operation name, so a key reused for another operation does not match
+     * @param idempotencyKey the key sent by the client
+     * @param body           the request body, which a retry with the same key must repeat
+     * @param request        the operation to run if the key is new
+     * @return the response of the first request with this key
+     * @throws IdempotencyConflictException     if the first request is still running on another node
+     * @throws IdempotencyKeyMismatchException if the key was used for a request with another body
+     */
+    public TransactionResponse execute(String userId, String operation, String idempotencyKey, Object body,
+                                       Supplier<TransactionResponse> request) {
+        String key = userId + ":" + operation + ":" + idempotencyKey;
+        Claim claim = new Claim(hash(body), new CompletableFuture<>());
+        Claim original = local.asMap().putIfAbsent(key, claim);
+        if (original != null) {
+            checkSameRequest(original.requestHash(), claim.requestHash());
+            return await(original.response());
+        }
+
+        boolean remote = false;
+        if (redisTemplate != null) {
+            try {
+                remote = claimRemote(key, claim);
+            } catch (RuntimeException e) {
+                local.asMap().remove(key, claim);
+                claim.response().completeExceptionally(e);
+                throw e;
+            }
+            if (claim.response().isDone()) {
+                return claim.response().join();
+            }
+        }
+
+        TransactionResponse response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            forget(key, claim, remote);
+            claim.response().completeExceptionally(e);
+            throw e;
+        }
+        if (remote) {
+            storeRemote(key, claim.requestHash(), response);
+        }
+        claim.response().complete(response);
+        return response;
+    }
+
+    /**
+     * Claim a key in Redis for as long as a request may run, or complete the local claim with
+     * the response stored by another node.
+     *
+     * @return true if the key was claimed in Redis
+     */
+    private boolean claimRemote(String key, Claim claim) {
+        String stored;
+        try {
+            if (Boolean.TRUE.equals(redisTemplate.opsForValue()
+                    .setIfAbsent(KEY_PREFIX + key, IN_PROGRESS + claim.requestHash(), inProgressTtl))) {
+                return true;
+            }
+            stored = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+        } catch (Exception e) {
+            log.warn("Failed to claim idempotency key {} in Redis, deduplicating locally: {}", key, e.getMessage());
+            return false;
+        }
+
+        if (stored == null) {
+            // Forgotten after a failure meanwhile, the next retry can claim it
+            throw new IdempotencyConflictException("A request with this idempotency key just failed, please retry");
+        }
+        if (stored.startsWith(IN_PROGRESS)) {
+            checkSameRequest(stored.substring(IN_PROGRESS.length()), claim.requestHash());
+            throw new IdempotencyConflictException("A request with this idempotency key is still being processed");
+        }
+        StoredResponse response;
+        try {
+            response = objectMapper.readValue(stored, StoredResponse.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable response for idempotency key {}: {}", key, e.getMessage());
+            throw new IdempotencyConflictException("A request with this idempotency key was already processed");
+        }
+        checkSameRequest(response.requestHash(), claim.requestHash());
+        claim.response().complete(response.response());
+        return false;
+    }
+
+    private void storeRemote(String key, String requestHash, TransactionResponse response) {
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key,
+                objectMapper.writeValueAsString(new StoredResponse(requestHash, response)), ttl);
+        } catch (Exception e) {
+            // The claim expires shortly, after which a duplicate on another node would run again
+            log.warn("Failed to store response for idempotency key {} in Redis: {}", key, e.getMessage());
+        }
+    }
+
+    private void forget(String key, Claim claim, boolean remote) {
+        local.asMap().remove(key, claim);
+        if (remote) {
+            try {
+                redisTemplate.delete(KEY_PREFIX + key);
+            } catch (Exception e) {
+                log.warn("Failed to release idempotency key {} in Redis: {}", key, e.getMessage());
+            }
+        }
+    }
+
+    private static void checkSameRequest(String originalHash, String requestHash) {
+        if (!originalHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException(
+                "This idempotency key was already used for a request with a different body");
+        }
+    }
+
+    /**
+     * SHA-256 of the JSON form of a request body.
+     */
+    String hash(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to hash request for idempotency check", e);
+        }
+    }
+
+    /**
+     * Wait for the original request, failing like it did.
+     */
+    private static TransactionResponse await(CompletableFuture<TransactionResponse> original) {
+        try {
+            return original.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private record Claim(String requestHash, CompletableFuture<TransactionResponse> response) {
+    }
+
+    record StoredResponse(String requestHash, TransactionResponse response) {
+    }
+}
@@ -0,0 +1,154 @@
+package com.currency.currencyapp.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.lang.NonNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Two-level cache: a bounded in-process (L1) cache in front of a shared remote (L2) cache.
+ * Reads are served from the heap when possible and fall back to the remote cache;
+ * writes go to both levels and are broadcast so other nodes drop their L1 copy.
+ */
+public class NearCache implements org.springframework.cache.Cache {
+
+    private final org.springframework.cache.Cache remote;
+    private final Cache<Object, Object> local;
+    private final Consumer<Object> invalidationPublisher;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    public NearCache(org.springframework.cache.Cache remote, Cache<Object, Object> local,
+                     Consumer<Object> invalidationPublisher) {
+        this.remote = remote;
+        this.local = local;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    /**
+     * Register hit/miss counters and hit ratio gauges for both cache levels.
+     */
+    public void bindMetrics(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, local, getName(), "level", "l1");
+        Gauge.builder("cache.hit.ratio", local, cache -> cache.stats().hitRate())
+            .tags("cache", getName(), "level", "l1")
+            .register(registry);
+
+        FunctionCounter.builder("cache.gets", remoteHits, LongAdder::sum)
+            .tags("cache", getName(), "level", "l2", "result", "hit")
+            .register(registry);
+        FunctionCounter.builder("cache.gets", remoteMisses, LongAdder::sum)
+            .tags("cache", getName(), "level", "l2", "result", "miss")
+            .register(registry);
+        Gauge.builder("cache.hit.ratio", this, NearCache::remoteHitRatio)
+            .tags("cache", getName(), "level", "l2")
+            .register(registry);
+    }
+
+    @Override
+    @NonNull
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    @NonNull
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(@NonNull Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            local.put(key, wrapper.get());
+        } else {
+            remoteMisses.increment();
+        }
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(@NonNull Object key, @NonNull Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            return (T) wrapper.get();
+        }
+        try {
+            T value = valueLoader.call();
+            put(key, value);
+            return value;
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(@NonNull Object key, Object value) {
+        remote.put(key, value);
+        if (value != null) {
+            local.put(key, value);
+        }
+        invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void evict(@NonNull Object key) {
+        remote.evict(key);
+        local.invalidate(key);
+        invalidationPublisher.accept(key);
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        invalidationPublisher.accept(null);
+    }
+
+    /**
+     * Drop an entry from the local level only, in reaction to a change made by another node.
+     *
+     * @param key the cache key or null to drop every local entry
+     */
+    public void evictLocal(Object key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    private double remoteHitRatio() {
+        long hits = remoteHits.sum();
+        long total = hits + remoteMisses.sum();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
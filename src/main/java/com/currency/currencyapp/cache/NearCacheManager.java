@@ -0,0 +1,115 @@
+package com.currency.currencyapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.lang.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache manager that puts an in-process {@link NearCache} in front of selected caches of a
+ * remote cache manager. Nodes notify each other through a Redis channel whenever an entry
+ * changes, so stale L1 copies are dropped cluster-wide.
+ * Messages have the form {@code nodeId|cacheName|key}; an empty key clears the whole cache.
+ */
+@Slf4j
+public class NearCacheManager implements CacheManager, MessageListener {
+
+    public static final String INVALIDATION_CHANNEL = "cache:near:invalidate";
+
+    private static final char SEPARATOR = '|';
+
+    private final CacheManager remoteCacheManager;
+    private final Set<String> nearCacheNames;
+    private final long maximumSize;
+    private final Duration localTtl;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, NearCache> nearCaches = new ConcurrentHashMap<>();
+
+    public NearCacheManager(CacheManager remoteCacheManager, Set<String> nearCacheNames, long maximumSize,
+                            Duration localTtl, StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.nearCacheNames = nearCacheNames;
+        this.maximumSize = maximumSize;
+        this.localTtl = localTtl;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(@NonNull String name) {
+        if (!nearCacheNames.contains(name)) {
+            return remoteCacheManager.getCache(name);
+        }
+        return nearCaches.computeIfAbsent(name, this::createNearCache);
+    }
+
+    @Override
+    @NonNull
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    @Override
+    public void onMessage(@NonNull Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int first = body.indexOf(SEPARATOR);
+        int second = body.indexOf(SEPARATOR, first + 1);
+        if (first < 0 || second < 0) {
+            log.warn("Ignoring malformed cache invalidation message: {}", body);
+            return;
+        }
+
+        String sender = body.substring(0, first);
+        if (nodeId.equals(sender)) {
+            return;
+        }
+
+        NearCache cache = nearCaches.get(body.substring(first + 1, second));
+        if (cache != null) {
+            String key = body.substring(second + 1);
+            cache.evictLocal(key.isEmpty() ? null : key);
+        }
+    }
+
+    private NearCache createNearCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalStateException("No remote cache configured for name: " + name);
+        }
+
+        NearCache cache = new NearCache(remote,
+            Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(localTtl)
+                .recordStats()
+                .build(),
+            key -> publishInvalidation(name, key));
+        cache.bindMetrics(meterRegistry);
+        return cache;
+    }
+
+    private void publishInvalidation(String cacheName, Object key) {
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL,
+                nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : ""));
+        } catch (Exception e) {
+            // Other nodes fall back to the L1 TTL
+            log.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
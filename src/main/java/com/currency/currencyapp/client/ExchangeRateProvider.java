@@ -0,0 +1,28 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Source of exchange rate tables.
+ */
+public interface ExchangeRateProvider {
+
+    /**
+     * Get the provider name used in logs and metrics.
+     *
+     * @return the provider name
+     */
+    String getName();
+
+    /**
+     * Fetch the rate table of a base currency off the caller's thread.
+     *
+     * @param base the base currency
+     * @return future completed with the provider response, or exceptionally with
+     * {@link RateProviderException} when the provider fails
+     */
+    CompletableFuture<ExternalExchangeRateResponse> fetchAsync(Currency base);
+}
@@ -0,0 +1,51 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Offline provider reading rate tables from {@code {directory}/{base}.json} files in the
+ * provider API format, answering after a fixed simulated latency.
+ * Meant for local runs and for exercising hedging without network access.
+ */
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+
+    private final String name;
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Duration latency;
+
+    public FileExchangeRateProvider(String name, Path directory, ObjectMapper objectMapper, Duration latency) {
+        this.name = name;
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.latency = latency;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<ExternalExchangeRateResponse> fetchAsync(Currency base) {
+        return CompletableFuture.supplyAsync(() -> read(base),
+            CompletableFuture.delayedExecutor(latency.toMillis(), TimeUnit.MILLISECONDS));
+    }
+
+    private ExternalExchangeRateResponse read(Currency base) {
+        Path file = directory.resolve(base.name() + ".json");
+        try {
+            return objectMapper.readValue(file.toFile(), ExternalExchangeRateResponse.class);
+        } catch (IOException e) {
+            throw new RateProviderException("Failed to read rate table: " + file, e);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+import com.currency.currencyapp.util.LatencyWindow;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Provider fanning out to an ordered list of providers with hedged requests.
+ * The first provider is asked first; if it has not answered within its recent p95
+ * latency (clamped to the configured bounds), or as soon as it fails, the next provider
+ * is asked as well, and so on. The first valid answer wins.
+ * Answers arriving after the winner are compared with it and providers disagreeing
+ * beyond the tolerance are flagged in the logs and metrics.
+ */
+@Slf4j
+public class HedgedExchangeRateProvider implements ExchangeRateProvider {
+
+    private static final int LATENCY_WINDOW = 128;
+    // Below this many samples the p95 is not trusted and the maximum delay is used
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private final List<ExchangeRateProvider> providers;
+    private final List<LatencyWindow> latencies; // Per provider position, names need not be unique
+    private final MeterRegistry meterRegistry;
+    private final Duration minHedgeDelay;
+    private final Duration maxHedgeDelay;
+    private final BigDecimal tolerance;
+
+    public HedgedExchangeRateProvider(List<ExchangeRateProvider> providers, MeterRegistry meterRegistry,
+                                      Duration minHedgeDelay, Duration maxHedgeDelay, BigDecimal tolerance) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("At least one rate provider is required");
+        }
+        this.providers = List.copyOf(providers);
+        this.latencies = providers.stream()
+            .map(provider -> new LatencyWindow(LATENCY_WINDOW))
+            .toList();
+        this.meterRegistry = meterRegistry;
+        this.minHedgeDelay = minHedgeDelay;
+        this.maxHedgeDelay = maxHedgeDelay;
+        this.tolerance = tolerance;
+    }
+
+    @Override
+    public String getName() {
+        return "hedged";
+    }
+
+    @Override
+    public CompletableFuture<ExternalExchangeRateResponse> fetchAsync(Currency base) {
+        Attempt attempt = new Attempt(base);
+        attempt.launch(0);
+        return attempt.result;
+    }
+
+    /**
+     * Get the delay after which the next provider is asked when a provider has not answered.
+     *
+     * @param index position of the provider waited for
+     * @return its recent p95 latency within the configured bounds
+     */
+    Duration hedgeDelay(int index) {
+        LatencyWindow window = latencies.get(index);
+        if (window.size() < MIN_LATENCY_SAMPLES) {
+            return maxHedgeDelay;
+        }
+        Duration p95 = window.percentile(0.95);
+        if (p95.compareTo(minHedgeDelay) < 0) {
+            return minHedgeDelay;
+        }
+        return p95.compareTo(maxHedgeDelay) > 0 ? maxHedgeDelay : p95;
+    }
+
+    /**
+     * Compare a late answer with the winning one.
+     *
+     * @return the largest relative difference over the currencies quoted by both, if beyond the tolerance
+     */
+    BigDecimal disagreement(ExternalExchangeRateResponse winner, ExternalExchangeRateResponse other) {
+        BigDecimal largest = BigDecimal.ZERO;
+        for (Map.Entry<String, BigDecimal> rate : winner.getRates().entrySet()) {
+            BigDecimal otherRate = other.getRates().get(rate.getKey());
+            if (otherRate == null || rate.getValue().signum() == 0) {
+                continue;
+            }
+            BigDecimal difference = rate.getValue().subtract(otherRate).abs()
+                .divide(rate.getValue().abs(), MathContext.DECIMAL64);
+            if (difference.compareTo(largest) > 0) {
+                largest = difference;
+            }
+        }
+        return largest.compareTo(tolerance) > 0 ? largest : null;
+    }
+
+    private static boolean isValid(ExternalExchangeRateResponse response) {
+        return response != null && response.getRates() != null && !response.getRates().isEmpty();
+    }
+
+    /**
+     * State of one hedged fetch.
+     */
+    private final class Attempt {
+
+        private final Currency base;
+        private final CompletableFuture<ExternalExchangeRateResponse> result = new CompletableFuture<>();
+        private final AtomicInteger launched = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicReference<Answer> winner = new AtomicReference<>();
+
+        private Attempt(Currency base) {
+            this.base = base;
+        }
+
+        /**
+         * Ask the provider at the index, unless it was already asked or an answer was received.
+         */
+        private void launch(int index) {
+            if (index >= providers.size() || result.isDone() || !launched.compareAndSet(index, index + 1)) {
+                return;
+            }
+
+            ExchangeRateProvider provider = providers.get(index);
+            if (index > 0) {
+                meterRegistry.counter("exchange_rate.provider.hedged", "provider", provider.getName()).increment();
+                log.info("Hedging exchange rate fetch for base {} to provider {}", base, provider.getName());
+            }
+
+            long start = System.nanoTime();
+            provider.fetchAsync(base).whenComplete((response, error) -> {
+                if (error == null && isValid(response)) {
+                    latencies.get(index).record(Duration.ofNanos(System.nanoTime() - start));
+                    onAnswer(new Answer(provider.getName(), response));
+                } else {
+                    onFailure(index, provider, error != null ? error
+                        : new RateProviderException("Invalid rate table from provider " + provider.getName()));
+                }
+            });
+
+            if (index + 1 < providers.size()) {
+                CompletableFuture.delayedExecutor(hedgeDelay(index).toNanos(), TimeUnit.NANOSECONDS)
+                    .execute(() -> launch(index + 1));
+            }
+        }
+
+        private void onAnswer(Answer answer) {
+            if (winner.compareAndSet(null, answer)) {
+                meterRegistry.counter("exchange_rate.provider.wins", "provider", answer.provider()).increment();
+                result.complete(answer.response());
+                return;
+            }
+
+            Answer first = winner.get();
+            BigDecimal difference = disagreement(first.response(), answer.response());
+            if (difference != null) {
+                meterRegistry.counter("exchange_rate.provider.disagreement", "provider", answer.provider()).increment();
+                log.warn("Rate providers {} and {} disagree on base {} by up to {}",
+                    first.provider(), answer.provider(), base, difference);
+            }
+        }
+
+        private void onFailure(int index, ExchangeRateProvider provider, Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            log.warn("Rate provider {} failed for base {}: {}", provider.getName(), base, cause.getMessage());
+
+            if (failed.incrementAndGet() == providers.size()) {
+                result.completeExceptionally(cause instanceof RateProviderException
+                    ? cause : new RateProviderException("All rate providers failed for base " + base, cause));
+                return;
+            }
+            // Do not wait for the hedge delay once the provider is known to have failed
+            launch(index + 1);
+        }
+    }
+
+    private record Answer(String provider, ExternalExchangeRateResponse response) {
+    }
+}
@@ -0,0 +1,37 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+import com.currency.currencyapp.util.CircuitBreaker;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Provider serving rate tables from an HTTP API at {@code {url}/{base}}, with its own
+ * circuit breaker on top of the shared {@link RateProviderClient}.
+ */
+public class HttpExchangeRateProvider implements ExchangeRateProvider {
+
+    private final String name;
+    private final String url;
+    private final RateProviderClient rateProviderClient;
+    private final CircuitBreaker circuitBreaker;
+
+    public HttpExchangeRateProvider(String name, String url, RateProviderClient rateProviderClient,
+                                    CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.url = url;
+        this.rateProviderClient = rateProviderClient;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public CompletableFuture<ExternalExchangeRateResponse> fetchAsync(Currency base) {
+        return rateProviderClient.fetchAsync(url + "/" + base.name(), circuitBreaker);
+    }
+}
@@ -0,0 +1,33 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.domain.Transaction;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * External payment gateway moving money in and out of the platform.
+ * Calls return immediately; the gateway completes the future once it has settled the
+ * payment, so no thread waits on it in the meantime.
+ * A redelivered work item may call again for the same transaction; the gateway moves money
+ * at most once per transaction ID and answers repeated calls with the original outcome.
+ */
+public interface PaymentGateway {
+
+    /**
+     * Collect a deposit from the user's payment method.
+     *
+     * @param transaction the pending deposit transaction
+     * @return future completed once the money is collected, or exceptionally with
+     * {@link PaymentGatewayException}
+     */
+    CompletableFuture<Void> collect(Transaction transaction);
+
+    /**
+     * Pay out a withdrawal to the user's payment method.
+     *
+     * @param transaction the pending withdraw transaction
+     * @return future completed once the money is paid out, or exceptionally with
+     * {@link PaymentGatewayException}
+     */
+    CompletableFuture<Void> payOut(Transaction transaction);
+}
@@ -0,0 +1,15 @@
+package com.currency.currencyapp.client;
+
+/**
+ * Exception thrown when the payment gateway declines or fails a payment.
+ */
+public class PaymentGatewayException extends RuntimeException {
+
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+
+    public PaymentGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
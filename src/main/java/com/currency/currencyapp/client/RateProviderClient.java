@@ -0,0 +1,86 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+import com.currency.currencyapp.util.CircuitBreaker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * HTTP client for exchange rate providers.
+ * Every call is bounded by a total deadline on top of the connect/read timeouts of the
+ * underlying pooled client, and its latency is recorded per outcome.
+ * Calls go through the circuit breaker of their provider so an unavailable provider is
+ * failed fast instead of costing every caller a full timeout.
+ */
+@Component
+public class RateProviderClient {
+
+    private final RestTemplate restTemplate;
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final Duration totalTimeout;
+
+    public RateProviderClient(@Qualifier("rateProviderRestTemplate") RestTemplate restTemplate,
+                              @Qualifier("rateProviderExecutor") Executor executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${exchange-rate.http.total-timeout-ms:3000}") long totalTimeoutMs) {
+        this.restTemplate = restTemplate;
+        this.executor = executor;
+        this.meterRegistry = meterRegistry;
+        this.totalTimeout = Duration.ofMillis(totalTimeoutMs);
+    }
+
+    /**
+     * Fetch a rate table off the caller's thread, guarded by a provider specific circuit breaker.
+     *
+     * @param url            the provider URL
+     * @param circuitBreaker the circuit breaker of the provider
+     * @return future completed with the provider response, or exceptionally with
+     * {@link RateProviderException} on failure or when the circuit breaker is open, or with
+     * {@link TimeoutException} once the total timeout has elapsed
+     */
+    public CompletableFuture<ExternalExchangeRateResponse> fetchAsync(String url, CircuitBreaker circuitBreaker) {
+        if (!circuitBreaker.tryAcquire()) {
+            meterRegistry.counter("exchange_rate.provider.rejected").increment();
+            return CompletableFuture.failedFuture(
+                new RateProviderException("Circuit breaker open, rate provider call rejected: " + url));
+        }
+
+        return CompletableFuture.supplyAsync(() -> call(url), executor)
+            .orTimeout(totalTimeout.toMillis(), TimeUnit.MILLISECONDS)
+            .whenComplete((response, error) -> {
+                if (error == null) {
+                    circuitBreaker.recordSuccess();
+                } else {
+                    circuitBreaker.recordFailure();
+                }
+            });
+    }
+
+    private ExternalExchangeRateResponse call(String url) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            return restTemplate.getForObject(url, ExternalExchangeRateResponse.class);
+        } catch (RuntimeException e) {
+            outcome = "error";
+            throw new RateProviderException("Rate provider call failed: " + url, e);
+        } finally {
+            sample.stop(Timer.builder("exchange_rate.provider.requests")
+                .description("Latency of exchange rate provider calls")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        }
+    }
+}
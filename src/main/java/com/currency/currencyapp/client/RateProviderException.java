@@ -0,0 +1,15 @@
+package com.currency.currencyapp.client;
+
+/**
+ * Exception thrown when a call to an exchange rate provider fails or times out.
+ */
+public class RateProviderException extends RuntimeException {
+
+    public RateProviderException(String message) {
+        super(message);
+    }
+
+    public RateProviderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
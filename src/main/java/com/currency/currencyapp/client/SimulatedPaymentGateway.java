@@ -0,0 +1,92 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.domain.Transaction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local stand-in for the payment gateway, settling payments after a simulated latency
+ * and failing a configurable share of them, e.g. for load tests.
+ * Futures are completed by a timer, so a pending payment holds no thread.
+ */
+@Component
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final long collectLatencyMs;
+    private final long payOutLatencyMs;
+    private final LatencyDistribution latencyDistribution;
+    private final double failureRate;
+
+    public SimulatedPaymentGateway(@Value("${payment.gateway.collect-latency-ms:1000}") long collectLatencyMs,
+                                   @Value("${payment.gateway.pay-out-latency-ms:1500}") long payOutLatencyMs,
+                                   @Value("${payment.gateway.latency-distribution:FIXED}") LatencyDistribution latencyDistribution,
+                                   @Value("${payment.gateway.failure-rate:0.0}") double failureRate) {
+        this.collectLatencyMs = collectLatencyMs;
+        this.payOutLatencyMs = payOutLatencyMs;
+        this.latencyDistribution = latencyDistribution;
+        this.failureRate = failureRate;
+    }
+
+    @Override
+    public CompletableFuture<Void> collect(Transaction transaction) {
+        return settle(transaction, collectLatencyMs);
+    }
+
+    @Override
+    public CompletableFuture<Void> payOut(Transaction transaction) {
+        return settle(transaction, payOutLatencyMs);
+    }
+
+    private CompletableFuture<Void> settle(Transaction transaction, long meanLatencyMs) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latencyMs = latencyDistribution.sample(meanLatencyMs, random.nextDouble());
+        boolean fails = random.nextDouble() < failureRate;
+        return CompletableFuture.runAsync(() -> {
+            if (fails) {
+                throw new PaymentGatewayException("Payment gateway declined transaction " + transaction.getId());
+            }
+            log.debug("Payment gateway settled transaction {} after {} ms", transaction.getId(), latencyMs);
+        }, CompletableFuture.delayedExecutor(latencyMs, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Shape of the simulated latency around its configured mean.
+     */
+    public enum LatencyDistribution {
+
+        /** Always the mean. */
+        FIXED {
+            @Override
+            long sample(long meanMs, double uniform) {
+                return meanMs;
+            }
+        },
+
+        /** Uniform between zero and twice the mean. */
+        UNIFORM {
+            @Override
+            long sample(long meanMs, double uniform) {
+                return Math.round(2 * meanMs * uniform);
+            }
+        },
+
+        /** Exponential with the mean, mostly fast with a long tail. */
+        EXPONENTIAL {
+            @Override
+            long sample(long meanMs, double uniform) {
+                return Math.round(-meanMs * Math.log(1 - uniform));
+            }
+        };
+
+        /**
+         * Latency for a uniformly distributed random number in [0, 1).
+         */
+        abstract long sample(long meanMs, double uniform);
+    }
+}
@@ -1,10 +1,15 @@
 package com.currency.currencyapp.config;
 
+import com.currency.currencyapp.util.PartitionedExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
 /**
  * Async configuration for handling asynchronous operations.
@@ -12,13 +17,71 @@ import java.util.concurrent.Executor;
 @Configuration
 public class AsyncConfig {
 
-    @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    /**
+     * Lanes running deposits and withdrawals. Operations of one user are hashed onto the
+     * same single-threaded lane and run strictly in order, while different users proceed
+     * in parallel, so no database locking is needed to keep a user's operations apart.
+     */
+    @Bean(name = "transactionExecutor", destroyMethod = "shutdown")
+    public PartitionedExecutor transactionExecutor(MeterRegistry meterRegistry,
+                                                   @Value("${transaction.lanes.count:8}") int laneCount,
+                                                   @Value("${transaction.lanes.queue-capacity:100}") int queueCapacity) {
+        PartitionedExecutor executor = new PartitionedExecutor("TransactionLane-", laneCount, queueCapacity);
+        for (int lane = 0; lane < laneCount; lane++) {
+            int index = lane;
+            Gauge.builder("transaction.lane.queue.depth", executor, e -> e.getQueueDepth(index))
+                .tag("lane", String.valueOf(lane))
+                .register(meterRegistry);
+        }
+        return executor;
+    }
+
+    /**
+     * Pool running the stages of deposits and withdrawals after the payment gateway settles.
+     * When it is saturated the settling thread runs the stage itself, so a settled payment
+     * is never dropped.
+     */
+    @Bean(name = "paymentCallbackExecutor")
+    public Executor paymentCallbackExecutor(@Value("${payment.callback.pool-size:8}") int poolSize) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(1000);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("PaymentCallback-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Small dedicated pool for background exchange rate reloads, kept apart from
+     * transaction processing so a slow rate provider cannot starve it.
+     */
+    @Bean(name = "rateRefreshExecutor")
+    public Executor rateRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(10);
+        executor.setThreadNamePrefix("RateRefresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Pool running rate provider HTTP calls, one thread per provider connection so
+     * callers can enforce a total deadline without blocking on the socket themselves.
+     * A thread pool only grows past its core size once its queue is full, so the core is
+     * the full size and idle threads time out instead.
+     */
+    @Bean(name = "rateProviderExecutor")
+    public Executor rateProviderExecutor(@Value("${exchange-rate.http.max-connections:20}") int maxConnections) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(25);
-        executor.setThreadNamePrefix("CurrencyApp-");
+        executor.setCorePoolSize(maxConnections);
+        executor.setMaxPoolSize(maxConnections);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("RateProvider-");
         executor.initialize();
         return executor;
     }
@@ -1,21 +1,30 @@
 package com.currency.currencyapp.config;
 
+import com.currency.currencyapp.cache.BalanceSnapshotCache;
+import com.currency.currencyapp.cache.ExchangeRateRedisSerializer;
+import com.currency.currencyapp.cache.NearCacheManager;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.Set;
 
 /**
  * Redis configuration for caching and data storage.
@@ -24,29 +33,73 @@ import java.time.Duration;
 @Profile("!test")
 public class RedisConfig {
 
+    @Value("${exchange-rate.cache.ttl:60}")
+    private long exchangeRateTtlSeconds;
+
+    @Value("${exchange-rate.cache.near.max-size:1000}")
+    private long nearCacheMaxSize;
+
+    @Value("${exchange-rate.cache.near.ttl:10}")
+    private long nearCacheTtlSeconds;
+
+    @Value("${balance.snapshot.ttl-seconds:300}")
+    private long balanceSnapshotTtlSeconds;
 
     /**
-     * Configure Redis cache manager with TTL for exchange rates.
+     * Configure two-level cache manager: Redis with TTL for exchange rates, fronted by
+     * an in-process near cache for the hot exchange_rates entries.
+     * Exchange rates use a compact binary encoding, other caches JSON.
+     * Balance snapshots are near cached as well, so that balance polling is served from
+     * memory and mutations on other nodes still reach it through invalidations.
      */
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+    public NearCacheManager cacheManager(RedisConnectionFactory connectionFactory, StringRedisTemplate redisTemplate,
+                                         MeterRegistry meterRegistry) {
         // JSON serializer for cache values
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
-        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
-        objectMapper.registerModule(new JavaTimeModule());
-
-        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(objectMapper, Object.class);
+        Jackson2JsonRedisSerializer<Object> jackson2JsonRedisSerializer = new Jackson2JsonRedisSerializer<>(cacheObjectMapper(), Object.class);
 
         // Cache configuration with 60-second TTL for exchange rates
         RedisCacheConfiguration cacheConfiguration = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofSeconds(60)) // 1 minute TTL as per requirements
+            .entryTtl(Duration.ofSeconds(exchangeRateTtlSeconds)) // 1 minute TTL as per requirements
             .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
             .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jackson2JsonRedisSerializer))
             .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
+        RedisCacheConfiguration exchangeRateCacheConfiguration = cacheConfiguration
+            .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new ExchangeRateRedisSerializer()));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
             .cacheDefaults(cacheConfiguration)
+            .withCacheConfiguration("exchange_rates", exchangeRateCacheConfiguration)
+            .withCacheConfiguration(BalanceSnapshotCache.CACHE_NAME,
+                cacheConfiguration.entryTtl(Duration.ofSeconds(balanceSnapshotTtlSeconds)))
             .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new NearCacheManager(redisCacheManager, Set.of("exchange_rates", BalanceSnapshotCache.CACHE_NAME), nearCacheMaxSize,
+            Duration.ofSeconds(nearCacheTtlSeconds), redisTemplate, meterRegistry);
+    }
+
+    /**
+     * Subscribe to near cache invalidations published by other nodes.
+     */
+    @Bean
+    public RedisMessageListenerContainer nearCacheInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                        NearCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(NearCacheManager.INVALIDATION_CHANNEL));
+        return container;
+    }
+
+    /**
+     * Object mapper for JSON cache values, recording the value type in the payload.
+     */
+    public static ObjectMapper cacheObjectMapper() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
+        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,145 @@
 package com.currency.currencyapp.config;
 
+import com.currency.currencyapp.client.ExchangeRateProvider;
+import com.currency.currencyapp.client.FileExchangeRateProvider;
+import com.currency.currencyapp.client.HedgedExchangeRateProvider;
+import com.currency.currencyapp.client.HttpExchangeRateProvider;
+import com.currency.currencyapp.client.RateProviderClient;
+import com.currency.currencyapp.util.CircuitBreaker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Web configuration including RestTemplate for external API calls.
+ * Web configuration including the HTTP client used for exchange rate provider calls.
  */
 @Configuration
 public class WebConfig {
 
+    @Value("${exchange-rate.http.max-connections:20}")
+    private int maxConnections;
+
+    @Value("${exchange-rate.http.connect-timeout-ms:1000}")
+    private long connectTimeoutMs;
+
+    @Value("${exchange-rate.http.read-timeout-ms:2000}")
+    private long readTimeoutMs;
+
+    @Value("${exchange-rate.http.connection-request-timeout-ms:500}")
+    private long connectionRequestTimeoutMs;
+
+    @Value("${exchange-rate.http.keep-alive-ms:30000}")
+    private long keepAliveMs;
+
+    @Value("${exchange-rate.circuit-breaker.failure-threshold:5}")
+    private int circuitFailureThreshold;
+
+    @Value("${exchange-rate.circuit-breaker.open-duration-ms:30000}")
+    private long circuitOpenDurationMs;
+
+    @Value("${exchange-rate.providers:${exchange-rate.api.url}}")
+    private String[] providerLocations;
+
+    @Value("${exchange-rate.hedge.min-delay-ms:50}")
+    private long hedgeMinDelayMs;
+
+    @Value("${exchange-rate.hedge.max-delay-ms:1000}")
+    private long hedgeMaxDelayMs;
+
+    @Value("${exchange-rate.hedge.disagreement-tolerance:0.01}")
+    private BigDecimal disagreementTolerance;
+
+    @Value("${exchange-rate.stub.latency-ms:0}")
+    private long stubLatencyMs;
+
+    /**
+     * Connection pool for the rate provider, with pool usage published as metrics.
+     */
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager rateProviderConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxConnections)
+            .setMaxConnPerRoute(maxConnections)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "rate-provider").bindTo(meterRegistry);
+        return connectionManager;
+    }
+
+    /**
+     * RestTemplate for the rate provider: pooled keep-alive connections and bounded
+     * connect, pool lease and read timeouts so a slow provider cannot pin threads.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate rateProviderRestTemplate(PoolingHttpClientConnectionManager rateProviderConnectionManager) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+            .setConnectionManager(rateProviderConnectionManager)
+            .setKeepAliveStrategy((response, context) -> TimeValue.ofMilliseconds(keepAliveMs))
+            .setDefaultRequestConfig(RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMs))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .build())
+            .evictExpiredConnections()
+            .evictIdleConnections(TimeValue.ofMilliseconds(keepAliveMs))
+            .build();
+
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+    }
+
+    /**
+     * Rate providers in order of preference, hedged against each other.
+     * Each entry of {@code exchange-rate.providers} is an HTTP API base URL, or a
+     * {@code file:} directory of stub rate tables for offline runs. Every HTTP provider
+     * gets its own circuit breaker and is named by its host, port and path.
+     */
+    @Bean
+    public ExchangeRateProvider exchangeRateProvider(RateProviderClient rateProviderClient,
+                                                     ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        List<ExchangeRateProvider> providers = new ArrayList<>();
+        for (String location : providerLocations) {
+            URI uri = URI.create(location.trim());
+            if ("file".equals(uri.getScheme())) {
+                providers.add(new FileExchangeRateProvider("file:" + uri.getPath(), Path.of(uri),
+                    objectMapper, Duration.ofMillis(stubLatencyMs)));
+            } else {
+                String name = uri.getAuthority() + uri.getPath();
+                CircuitBreaker circuitBreaker = new CircuitBreaker(circuitFailureThreshold, Duration.ofMillis(circuitOpenDurationMs));
+                Gauge.builder("exchange_rate.provider.circuit.open", circuitBreaker,
+                        breaker -> breaker.getState() == CircuitBreaker.State.CLOSED ? 0 : 1)
+                    .description("Whether the rate provider circuit breaker is open or half-open")
+                    .tag("provider", name)
+                    .register(meterRegistry);
+                providers.add(new HttpExchangeRateProvider(name, uri.toString(), rateProviderClient, circuitBreaker));
+            }
+        }
+
+        return new HedgedExchangeRateProvider(providers, meterRegistry, Duration.ofMillis(hedgeMinDelayMs),
+            Duration.ofMillis(hedgeMaxDelayMs), disagreementTolerance);
     }
 }
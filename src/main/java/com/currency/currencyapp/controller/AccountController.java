@@ -1,12 +1,17 @@
 package com.currency.currencyapp.controller;
 
+import com.currency.currencyapp.cache.IdempotencyStore;
 import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.Transaction;
 import com.currency.currencyapp.dto.BalanceResponse;
 import com.currency.currencyapp.dto.DepositRequest;
+import com.currency.currencyapp.dto.ExchangeQuoteRequest;
+import com.currency.currencyapp.dto.ExchangeQuoteResponse;
 import com.currency.currencyapp.dto.ExchangeRequest;
 import com.currency.currencyapp.dto.TransactionResponse;
 import com.currency.currencyapp.dto.WithdrawRequest;
 import com.currency.currencyapp.service.AccountService;
+import com.currency.currencyapp.service.ExchangeQuoteService;
 import com.currency.currencyapp.service.TransactionService;
 import com.currency.currencyapp.util.SecurityUtils;
 import jakarta.validation.Valid;
@@ -18,9 +23,13 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
 
 /**
  * REST controller for account and transaction operations.
@@ -31,69 +40,139 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 public class AccountController {
 
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     private final AccountService accountService;
     private final TransactionService transactionService;
+    private final ExchangeQuoteService exchangeQuoteService;
+    private final IdempotencyStore idempotencyStore;
 
     /**
      * Deposit money to user's account.
      *
-     * @param request deposit request
+     * @param request        deposit request
+     * @param idempotencyKey optional key, a retry with the same key is accepted again without a second deposit
      * @return transaction response
      */
     @PostMapping("/deposit")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<String> deposit(@Valid @RequestBody DepositRequest request) {
+    public ResponseEntity<String> deposit(@Valid @RequestBody DepositRequest request,
+                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         String userId = SecurityUtils.getCurrentUserId();
         log.info("Deposit request received for user {}, amount: {} {}", userId, request.getAmount(), request.getCurrency());
-        transactionService.processDeposit(userId, request);
-        return ResponseEntity.status(HttpStatus.ACCEPTED).body("Deposit request accepted. You will be notified once processing is complete.");
+        TransactionResponse response = idempotent(userId, "deposit", idempotencyKey, request, () -> accepted(
+            transactionService.processDeposit(userId, request),
+            "Deposit request accepted. You will be notified once processing is complete."));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response.getMessage());
     }
 
     /**
      * Withdraw money from user's account.
      *
-     * @param request withdraw request
+     * @param request        withdraw request
+     * @param idempotencyKey optional key, a retry with the same key is accepted again without a second withdrawal
      * @return transaction response
      */
     @PostMapping("/withdraw")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<String> withdraw(@Valid @RequestBody WithdrawRequest request) {
+    public ResponseEntity<String> withdraw(@Valid @RequestBody WithdrawRequest request,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         String userId = SecurityUtils.getCurrentUserId();
         log.info("Withdraw request received for user {}, amount: {} {}", userId, request.getAmount(), request.getCurrency());
-        transactionService.processWithdraw(userId, request);
-        return ResponseEntity.status(HttpStatus.ACCEPTED).body("Withdraw request accepted. You will be notified once processing is complete.");
+        TransactionResponse response = idempotent(userId, "withdraw", idempotencyKey, request, () -> accepted(
+            transactionService.processWithdraw(userId, request),
+            "Withdraw request accepted. You will be notified once processing is complete."));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response.getMessage());
+    }
+
+    private static TransactionResponse accepted(Transaction transaction, String message) {
+        return TransactionResponse.builder()
+            .transactionId(transaction.getId())
+            .status(transaction.getStatus())
+            .message(message)
+            .timestamp(transaction.getCreatedAt())
+            .build();
+    }
+
+    /**
+     * Run a request once per idempotency key, or every time if the client sent none.
+     */
+    private TransactionResponse idempotent(String userId, String operation, String idempotencyKey, Object body,
+                                           Supplier<TransactionResponse> request) {
+        if (idempotencyKey == null) {
+            return request.get();
+        }
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new IllegalArgumentException(IDEMPOTENCY_KEY_HEADER + " must be 1 to "
+                + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        return idempotencyStore.execute(userId, operation, idempotencyKey, body, request);
     }
 
     /**
      * Get user's balance in requested currency.
+     * The response carries an ETag of the balance version, requested currency and total, so
+     * a polling client sending it back in {@code If-None-Match} gets 304 until something changes.
      *
      * @param currency the requested currency (optional, defaults to USD)
-     * @return balance response
+     * @return balance response, or 304 if the client's copy is current
      */
     @GetMapping("/balance")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<BalanceResponse> getBalance(@RequestParam(defaultValue = "USD") Currency currency) {
+    public ResponseEntity<BalanceResponse> getBalance(@RequestParam(defaultValue = "USD") Currency currency,
+                                                      WebRequest webRequest) {
         String userId = SecurityUtils.getCurrentUserId();
         log.info("Balance request from user: {} in currency: {}", userId, currency);
 
         BalanceResponse balance = accountService.getBalance(userId, currency);
-        return ResponseEntity.ok(balance);
+        String eTag = balanceETag(balance);
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).body(balance);
+    }
+
+    /**
+     * The total is part of the tag because it also moves with exchange rates.
+     */
+    private static String balanceETag(BalanceResponse balance) {
+        return "\"" + balance.getVersion() + "-" + balance.getRequestedCurrency() + "-"
+            + Integer.toHexString(balance.getTotalBalance().hashCode()) + "\"";
     }
 
     /**
      * Exchange between currencies.
      *
-     * @param request exchange request
+     * @param request        exchange request
+     * @param idempotencyKey optional key, a retry with the same key gets the original response without a second exchange
      * @return transaction response
      */
     @PostMapping("/exchange")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<TransactionResponse> exchange(@Valid @RequestBody ExchangeRequest request) {
+    public ResponseEntity<TransactionResponse> exchange(@Valid @RequestBody ExchangeRequest request,
+                                                        @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         String userId = SecurityUtils.getCurrentUserId();
         log.info("Exchange request from user: {}, from: {} to: {}, amount: {}", userId, request.getFromCurrency(), request.getToCurrency(), request.getAmount());
 
-        TransactionResponse response = transactionService.processExchange(userId, request);
+        TransactionResponse response = idempotent(userId, "exchange", idempotencyKey, request,
+            () -> transactionService.processExchange(userId, request));
         return ResponseEntity.ok(response);
     }
-}
 
+    /**
+     * Lock an exchange rate for a short time.
+     *
+     * @param request quote request
+     * @return quote response
+     */
+    @PostMapping("/exchange/quote")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ExchangeQuoteResponse> quote(@Valid @RequestBody ExchangeQuoteRequest request) {
+        String userId = SecurityUtils.getCurrentUserId();
+        log.info("Quote request from user: {}, from: {} to: {}, amount: {}", userId, request.getFromCurrency(), request.getToCurrency(), request.getAmount());
+
+        ExchangeQuoteResponse response = exchangeQuoteService.createQuote(userId, request);
+        return ResponseEntity.ok(response);
+    }
+}
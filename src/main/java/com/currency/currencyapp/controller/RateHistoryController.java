@@ -0,0 +1,70 @@
+package com.currency.currencyapp.controller;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.HistoricalRateResponse;
+import com.currency.currencyapp.dto.OhlcSeriesResponse;
+import com.currency.currencyapp.service.RateHistoryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * REST controller for historical exchange rates.
+ */
+@RestController
+@RequestMapping("/api/v1/rates/history")
+@RequiredArgsConstructor
+@Slf4j
+public class RateHistoryController {
+
+    private final RateHistoryService rateHistoryService;
+
+    /**
+     * Get the exchange rate in effect at an instant.
+     *
+     * @param from source currency
+     * @param to   target currency
+     * @param at   the instant (ISO-8601)
+     * @return historical rate response
+     */
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<HistoricalRateResponse> getRateAt(
+        @RequestParam Currency from,
+        @RequestParam Currency to,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at) {
+        log.info("Historical rate request from {} to {} at {}", from, to, at);
+        return ResponseEntity.ok(rateHistoryService.getRateAt(from, to, at));
+    }
+
+    /**
+     * Get the OHLC series of a currency pair over a window.
+     *
+     * @param from     source currency
+     * @param to       target currency
+     * @param start    window start (ISO-8601, inclusive)
+     * @param end      window end (ISO-8601, exclusive)
+     * @param interval candle length (ISO-8601 duration, defaults to one hour)
+     * @return OHLC series response
+     */
+    @GetMapping("/ohlc")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<OhlcSeriesResponse> getOhlc(
+        @RequestParam Currency from,
+        @RequestParam Currency to,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant start,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant end,
+        @RequestParam(defaultValue = "PT1H") Duration interval) {
+        log.info("OHLC request from {} to {} between {} and {} per {}", from, to, start, end, interval);
+        return ResponseEntity.ok(rateHistoryService.getOhlc(from, to, start, end, interval));
+    }
+}
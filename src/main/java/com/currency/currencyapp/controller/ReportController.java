@@ -0,0 +1,41 @@
+package com.currency.currencyapp.controller;
+
+import com.currency.currencyapp.dto.BalanceReportRequest;
+import com.currency.currencyapp.dto.BalanceResponse;
+import com.currency.currencyapp.service.AccountService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * REST controller for reports across users.
+ */
+@RestController
+@RequestMapping("/api/v1/reports")
+@RequiredArgsConstructor
+@Slf4j
+public class ReportController {
+
+    private final AccountService accountService;
+
+    /**
+     * Get the balances of many users in one currency.
+     *
+     * @param request report request
+     * @return one balance per user with accounts
+     */
+    @PostMapping("/balances")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<BalanceResponse>> getBalances(@Valid @RequestBody BalanceReportRequest request) {
+        log.info("Balance report request for {} users in currency: {}", request.getUserIds().size(), request.getCurrency());
+        return ResponseEntity.ok(accountService.getBalances(request.getUserIds(), request.getCurrency()));
+    }
+}
@@ -9,8 +9,8 @@ import org.springframework.data.annotation.Version;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * Entity representing a user account for a specific currency.
@@ -22,6 +22,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Document(collection = "accounts")
 @CompoundIndex(name = "user_currency_idx", def = "{'userId': 1, 'currency': 1}", unique = true)
+@CompoundIndex(name = "pending_entries_idx", def = "{'pendingEntries._id': 1}", sparse = true)
 public class Account {
 
     @Id
@@ -34,8 +35,9 @@ public class Account {
     
     private Currency currency; // The currency this account handles (USD or TRY)
     
-    @Builder.Default
-    private BigDecimal balance = BigDecimal.ZERO;
+    private long balanceMinor; // Balance in minor units of the currency, see Money
+
+    private List<LedgerEntry> pendingEntries; // Recorded with each mutation until appended to the ledger
 
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,70 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Balances of a user in minor units together with the stored version of each balance.
+ * A snapshot is complete when it holds every account of the user; the result of a single
+ * mutation may only hold the balances it changed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceSnapshot {
+
+    private String userId;
+    private Map<Currency, Long> balances;
+    private Map<Currency, Long> versions; // Document version each balance was read at
+    private boolean complete;
+
+    /**
+     * Sum of the balance versions. Every mutation increments the version of at least one
+     * balance, so this grows with every change of the user's balances.
+     */
+    public long totalVersion() {
+        long total = 0;
+        for (long version : versions.values()) {
+            total += version;
+        }
+        return total;
+    }
+
+    /**
+     * Combine with another snapshot of the same user, keeping the newer version of every
+     * balance, so snapshots can be merged in any order.
+     *
+     * @param other the other snapshot
+     * @return the merged snapshot
+     */
+    public BalanceSnapshot merge(BalanceSnapshot other) {
+        Map<Currency, Long> mergedBalances = new HashMap<>(balances);
+        Map<Currency, Long> mergedVersions = new HashMap<>(versions);
+        other.versions.forEach((currency, version) -> {
+            Long current = mergedVersions.get(currency);
+            if (current == null || version > current) {
+                mergedBalances.put(currency, other.balances.get(currency));
+                mergedVersions.put(currency, version);
+            }
+        });
+        return new BalanceSnapshot(userId, mergedBalances, mergedVersions, complete || other.complete);
+    }
+
+    /**
+     * Snapshot of a single balance.
+     */
+    public static BalanceSnapshot of(String userId, Currency currency, long balanceMinor, Long version,
+                                     boolean complete) {
+        Map<Currency, Long> balances = new HashMap<>();
+        Map<Currency, Long> versions = new HashMap<>();
+        balances.put(currency, balanceMinor);
+        versions.put(currency, version != null ? version : 0L);
+        return new BalanceSnapshot(userId, balances, versions, complete);
+    }
+}
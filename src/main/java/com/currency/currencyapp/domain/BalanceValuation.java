@@ -0,0 +1,24 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Balances of a user valued in one currency, as computed by the database.
+ * All amounts are in minor units.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceValuation {
+
+    private String userId;
+    private Map<Currency, Long> balances;
+    private long totalMinor; // Sum of all balances converted to the valuation currency
+    private long version; // Sum of the balance versions, as in BalanceSnapshot#totalVersion
+}
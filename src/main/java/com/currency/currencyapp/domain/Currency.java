@@ -7,13 +7,15 @@ import lombok.Getter;
  */
 @Getter
 public enum Currency {
-    USD("United States Dollar"),
-    TRY("Turkish Lira");
+    USD("United States Dollar", 2),
+    TRY("Turkish Lira", 2);
 
     private final String displayName;
+    private final int minorUnitDigits; // ISO 4217 minor unit, e.g. 2 for cents
 
-    Currency(String displayName) {
+    Currency(String displayName, int minorUnitDigits) {
         this.displayName = displayName;
+        this.minorUnitDigits = minorUnitDigits;
     }
 
 }
@@ -0,0 +1,33 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Exchange rate locked for a user and amount until the quote expires.
+ * A quote can be executed once.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeQuote {
+
+    private String quoteId;
+    private String userId; // Keycloak user ID
+
+    private Currency fromCurrency;
+    private Currency toCurrency;
+    private BigDecimal amount;
+    private BigDecimal exchangeRate;
+    private BigDecimal convertedAmount;
+    private boolean degraded; // Priced from the last known good rates
+
+    private Instant createdAt;
+    private Instant expiresAt;
+}
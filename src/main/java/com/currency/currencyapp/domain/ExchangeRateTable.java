@@ -0,0 +1,66 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Snapshot of all exchange rates quoted against a single base currency.
+ * Rates between any two currencies of the table are derived as cross rates,
+ * so one table per base is enough to serve every currency pair.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeRateTable {
+
+    private Currency base;
+    private Map<Currency, BigDecimal> rates; // 1 unit of base = rate units of the key currency
+    private Instant fetchedAt;
+    private boolean degraded; // Served from the last known good snapshot while the provider is unavailable
+
+    /**
+     * Get the rate of a currency against the base of this table.
+     *
+     * @param currency the quote currency
+     * @return the rate or null if the table has no quote for the currency
+     */
+    public BigDecimal rateOf(Currency currency) {
+        if (currency == base) {
+            return BigDecimal.ONE;
+        }
+        return rates != null ? rates.get(currency) : null;
+    }
+
+    /**
+     * Derive the rate between two currencies from this table.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @return the cross rate or null if either currency is missing from the table
+     */
+    public BigDecimal crossRate(Currency fromCurrency, Currency toCurrency) {
+        if (fromCurrency == toCurrency) {
+            return BigDecimal.ONE;
+        }
+
+        BigDecimal fromRate = rateOf(fromCurrency);
+        BigDecimal toRate = rateOf(toCurrency);
+        if (fromRate == null || toRate == null || fromRate.signum() == 0) {
+            return null;
+        }
+
+        // Direct quote, no division needed
+        if (fromCurrency == base) {
+            return toRate;
+        }
+        return toRate.divide(fromRate, MathContext.DECIMAL64);
+    }
+}
@@ -0,0 +1,55 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Append-only record of one balance mutation, the source of truth for balances.
+ * Each balance document is a ledger stream: a mutation records its entry as pending on the
+ * document in the same atomic update that changes the balance, and
+ * {@link com.currency.currencyapp.service.LedgerAppender} moves pending entries here.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "ledger_entries")
+@CompoundIndex(name = "stream_sequence_idx", def = "{'streamId': 1, 'sequence': 1}", unique = true)
+@CompoundIndex(name = "transaction_idx", def = "{'transactionId': 1}")
+public class LedgerEntry {
+
+    @Id
+    private String id; // Assigned when the mutation is recorded, so appending twice is harmless
+
+    private String streamId; // Balance document the entry belongs to
+    private String userId;
+    private Long sequence; // Version of the balance document after the mutation, set when appended
+
+    private Map<Currency, Long> amounts; // Signed change per currency in minor units
+    private String transactionId;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * Entry for a mutation about to be applied, before it has a sequence.
+     */
+    public static LedgerEntry pending(String streamId, String userId, Map<Currency, Long> amounts, String transactionId) {
+        return LedgerEntry.builder()
+            .id(UUID.randomUUID().toString())
+            .streamId(streamId)
+            .userId(userId)
+            .amounts(amounts)
+            .transactionId(transactionId)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+}
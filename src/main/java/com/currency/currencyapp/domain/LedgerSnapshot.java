@@ -0,0 +1,55 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Balances of a ledger stream after all entries up to a sequence, so a rebuild only has to
+ * replay the entries after it. Only the latest snapshot of each stream is kept.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "ledger_snapshots")
+public class LedgerSnapshot {
+
+    @Id
+    private String streamId;
+
+    private String userId;
+    private long sequence;
+    private Map<Currency, Long> balances;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * Apply entries following this snapshot in sequence order.
+     *
+     * @param entries entries of this stream, sorted by sequence
+     * @return the snapshot after the last entry
+     * @throws IllegalStateException if the entries do not continue the sequence without gaps
+     */
+    public LedgerSnapshot replay(List<LedgerEntry> entries) {
+        Map<Currency, Long> replayed = new HashMap<>(balances);
+        long replayedSequence = sequence;
+        for (LedgerEntry entry : entries) {
+            if (entry.getSequence() != replayedSequence + 1) {
+                throw new IllegalStateException("Ledger stream " + streamId + " expected sequence "
+                    + (replayedSequence + 1) + " but found " + entry.getSequence());
+            }
+            entry.getAmounts().forEach((currency, amount) -> replayed.merge(currency, amount, Money::add));
+            replayedSequence = entry.getSequence();
+        }
+        return new LedgerSnapshot(streamId, userId, replayedSequence, replayed, LocalDateTime.now());
+    }
+}
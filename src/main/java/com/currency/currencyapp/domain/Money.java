@@ -0,0 +1,127 @@
+package com.currency.currencyapp.domain;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on amounts held as {@code long} minor units of a currency
+ * (e.g. cents), scaled by {@link Currency#getMinorUnitDigits()}.
+ * Adding, subtracting and comparing work on primitives and never allocate; exchange rates
+ * are applied as fixed-point longs with {@link #RATE_DIGITS} decimal digits.
+ * {@link BigDecimal} is only used at the edges, to parse and format amounts.
+ */
+public final class Money {
+
+    public static final int RATE_DIGITS = 10;
+
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+        1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L
+    };
+    private static final long RATE_ONE = POWERS_OF_TEN[RATE_DIGITS];
+
+    private Money() {
+    }
+
+    /**
+     * Convert a decimal amount to minor units.
+     *
+     * @param amount   the amount
+     * @param currency the currency of the amount
+     * @return the amount in minor units
+     * @throws IllegalArgumentException if the amount has more decimals than the currency allows
+     *                                  or does not fit into a long
+     */
+    public static long toMinor(BigDecimal amount, Currency currency) {
+        try {
+            return amount.movePointRight(currency.getMinorUnitDigits()).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount.toPlainString() + " cannot be represented in "
+                + currency + " with " + currency.getMinorUnitDigits() + " decimal places");
+        }
+    }
+
+    /**
+     * Convert minor units to a decimal amount with the scale of the currency.
+     *
+     * @param minor    the amount in minor units
+     * @param currency the currency of the amount
+     * @return the decimal amount
+     */
+    public static BigDecimal toDecimal(long minor, Currency currency) {
+        return BigDecimal.valueOf(minor, currency.getMinorUnitDigits());
+    }
+
+    /**
+     * Add two amounts in minor units.
+     *
+     * @throws ArithmeticException on overflow
+     */
+    public static long add(long minor, long otherMinor) {
+        return Math.addExact(minor, otherMinor);
+    }
+
+    /**
+     * Subtract an amount in minor units.
+     *
+     * @throws ArithmeticException on overflow
+     */
+    public static long subtract(long minor, long otherMinor) {
+        return Math.subtractExact(minor, otherMinor);
+    }
+
+    /**
+     * Check whether a balance covers an amount.
+     *
+     * @param balanceMinor the balance in minor units
+     * @param amountMinor  the amount in minor units
+     * @return true if the balance is at least the amount
+     */
+    public static boolean covers(long balanceMinor, long amountMinor) {
+        return balanceMinor >= amountMinor;
+    }
+
+    /**
+     * Convert an exchange rate to fixed-point with {@link #RATE_DIGITS} decimal digits.
+     *
+     * @param rate the exchange rate
+     * @return the rate multiplied by 10^RATE_DIGITS, rounded half up
+     */
+    public static long toFixedRate(BigDecimal rate) {
+        return rate.movePointRight(RATE_DIGITS).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Convert an amount between currencies at a fixed-point rate, rounding half up to the
+     * minor unit of the target currency.
+     *
+     * @param minor     the amount in minor units of the source currency
+     * @param fixedRate the rate from {@link #toFixedRate(BigDecimal)}
+     * @param from      the source currency
+     * @param to        the target currency
+     * @return the converted amount in minor units of the target currency
+     */
+    public static long convert(long minor, long fixedRate, Currency from, Currency to) {
+        if (minor < 0) {
+            return Math.negateExact(convert(Math.negateExact(minor), fixedRate, from, to));
+        }
+
+        int digitShift = to.getMinorUnitDigits() - from.getMinorUnitDigits();
+        try {
+            long rate = digitShift > 0 ? Math.multiplyExact(fixedRate, POWERS_OF_TEN[digitShift]) : fixedRate;
+            long divisor = digitShift < 0 ? Math.multiplyExact(RATE_ONE, POWERS_OF_TEN[-digitShift]) : RATE_ONE;
+
+            // Split the rate so that minor * rate / divisor cannot overflow for realistic amounts
+            long whole = Math.multiplyExact(minor, rate / divisor);
+            long fraction = Math.multiplyExact(minor, rate % divisor);
+            return Math.addExact(whole, fraction / divisor + (fraction % divisor >= (divisor + 1) / 2 ? 1 : 0));
+        } catch (ArithmeticException e) {
+            // Amounts beyond the fast path fall back to exact decimal arithmetic
+            return BigDecimal.valueOf(minor)
+                .multiply(BigDecimal.valueOf(fixedRate, RATE_DIGITS))
+                .movePointRight(digitShift)
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+        }
+    }
+}
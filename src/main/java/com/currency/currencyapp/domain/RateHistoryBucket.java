@@ -0,0 +1,35 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Exchange rate history of a base currency for one time bucket.
+ * Every fetched rate table is appended as a tick to the bucket covering its fetch time,
+ * so the index grows with the number of buckets rather than the number of ticks.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rate_history")
+@CompoundIndex(name = "base_bucket_idx", def = "{'base': 1, 'bucketStart': 1}", unique = true)
+public class RateHistoryBucket {
+
+    @Id
+    private String id;
+
+    private Currency base;
+    private Instant bucketStart;
+    private int count;
+
+    private List<RateTick> ticks; // In fetch order
+}
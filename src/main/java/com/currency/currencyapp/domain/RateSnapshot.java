@@ -0,0 +1,31 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Last known good rate table of a base currency, persisted so it survives restarts.
+ * There is one document per base, overwritten on every successful fetch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "rate_snapshots")
+public class RateSnapshot {
+
+    @Id
+    private String base; // Base currency name
+
+    private Map<Currency, BigDecimal> rates;
+    private Instant fetchedAt;
+    private Instant savedAt;
+}
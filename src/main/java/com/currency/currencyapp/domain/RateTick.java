@@ -0,0 +1,35 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Rate table of a base currency as fetched at one instant.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateTick {
+
+    private Instant at;
+    private Map<Currency, BigDecimal> rates; // Stored as Decimal128
+
+    /**
+     * Derive the rate between two currencies from this tick.
+     *
+     * @param base         the base currency of the tick
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @return the cross rate or null if either currency is missing
+     */
+    public BigDecimal crossRate(Currency base, Currency fromCurrency, Currency toCurrency) {
+        return ExchangeRateTable.builder().base(base).rates(rates).build().crossRate(fromCurrency, toCurrency);
+    }
+}
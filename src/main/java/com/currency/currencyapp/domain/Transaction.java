@@ -6,6 +6,8 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -30,11 +32,14 @@ public class Transaction {
     private TransactionStatus status;
 
     private Currency currency;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal amount;
 
     // For exchange transactions
     private Currency targetCurrency;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal targetAmount;
+    @Field(targetType = FieldType.DECIMAL128)
     private BigDecimal exchangeRate;
 
     private String description;
@@ -0,0 +1,41 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All currency balances of a user embedded in one document, keyed by the user ID.
+ * Used instead of {@link Account} documents when {@code balance.layout=wallet}, so that
+ * exchanges, balance reads and account creation each touch a single document.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "wallets")
+@CompoundIndex(name = "pending_entries_idx", def = "{'pendingEntries._id': 1}", sparse = true)
+public class Wallet {
+
+    @Id
+    private String userId; // Keycloak user ID
+
+    @Version
+    private Long version;
+
+    private Map<Currency, Long> balances; // Balances in minor units of each currency, see Money
+
+    private List<LedgerEntry> pendingEntries; // Recorded with each mutation until appended to the ledger
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,37 @@
+package com.currency.currencyapp.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Accepted deposit or withdraw waiting in the outbox until it has been processed.
+ * Workers claim items by taking a lease on them; an item whose lease expired, e.g. because
+ * its node died, is claimed again.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "work_items")
+@CompoundIndex(name = "lease_idx", def = "{'leaseExpiresAt': 1}")
+@CompoundIndex(name = "claim_idx", def = "{'claimId': 1}", sparse = true)
+public class WorkItem {
+
+    @Id
+    private String id; // ID of the transaction to process
+
+    private Transaction transaction; // The pending transaction as accepted
+
+    private String claimId; // Claim currently holding the lease
+    private LocalDateTime leaseExpiresAt; // Claimable by anyone once passed
+    private int attempts;
+
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,29 @@
+package com.currency.currencyapp.dto;
+
+import com.currency.currencyapp.domain.Currency;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * DTO for balance report requests.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BalanceReportRequest {
+
+    @NotEmpty(message = "User IDs are required")
+    @Size(max = 1000, message = "At most 1000 users per report")
+    private List<String> userIds;
+
+    @NotNull(message = "Currency is required")
+    private Currency currency;
+}
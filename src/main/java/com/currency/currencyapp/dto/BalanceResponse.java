@@ -22,4 +22,5 @@ public class BalanceResponse {
     private Currency requestedCurrency;
     private BigDecimal totalBalance; // Total balance converted to requested currency
     private Map<Currency, BigDecimal> accountBalances; // Individual balances for USD and TRY accounts
+    private long version; // Increases with every change of the user's balances
 }
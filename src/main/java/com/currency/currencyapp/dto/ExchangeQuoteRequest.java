@@ -0,0 +1,31 @@
+package com.currency.currencyapp.dto;
+
+import com.currency.currencyapp.domain.Currency;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for exchange quote requests.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeQuoteRequest {
+
+    @NotNull(message = "From currency is required")
+    private Currency fromCurrency;
+
+    @NotNull(message = "To currency is required")
+    private Currency toCurrency;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+}
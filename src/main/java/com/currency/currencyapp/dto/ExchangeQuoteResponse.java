@@ -0,0 +1,29 @@
+package com.currency.currencyapp.dto;
+
+import com.currency.currencyapp.domain.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * DTO for exchange quote responses.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExchangeQuoteResponse {
+
+    private String quoteId;
+    private Currency fromCurrency;
+    private Currency toCurrency;
+    private BigDecimal amount;
+    private BigDecimal exchangeRate;
+    private BigDecimal convertedAmount;
+    private Instant expiresAt;
+    private boolean degraded;
+}
@@ -31,4 +31,6 @@ public class ExchangeRequest {
     private BigDecimal amount;
 
     private String description;
+
+    private String quoteId; // Optional, executes at the rate locked by the quote
 }
@@ -0,0 +1,26 @@
+package com.currency.currencyapp.dto;
+
+import com.currency.currencyapp.domain.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * DTO for the exchange rate in effect at a past instant.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoricalRateResponse {
+
+    private Currency fromCurrency;
+    private Currency toCurrency;
+    private Instant requestedAt;
+    private Instant observedAt; // Fetch time of the rate table in effect at the requested instant
+    private BigDecimal rate;
+}
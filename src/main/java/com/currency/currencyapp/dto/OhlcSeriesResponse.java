@@ -0,0 +1,28 @@
+package com.currency.currencyapp.dto;
+
+import com.currency.currencyapp.domain.Currency;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * DTO for an OHLC series of a currency pair. Intervals without recorded rates are omitted.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OhlcSeriesResponse {
+
+    private Currency fromCurrency;
+    private Currency toCurrency;
+    private Instant start;
+    private Instant end;
+    private Duration interval;
+    private List<OhlcCandle> candles;
+}
@@ -21,4 +21,5 @@ public class TransactionResponse {
     private TransactionStatus status;
     private String message;
     private LocalDateTime timestamp;
+    private boolean degraded; // Exchange priced from the last known good rates while the provider is unavailable
 }
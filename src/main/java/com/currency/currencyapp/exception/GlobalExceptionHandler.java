@@ -1,6 +1,8 @@
 package com.currency.currencyapp.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -10,6 +12,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
@@ -60,6 +63,72 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.SERVICE_UNAVAILABLE);
     }
 
+    @ExceptionHandler(RateHistoryNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleRateHistoryNotFoundException(
+        RateHistoryNotFoundException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Rate History Not Found",
+            ex.getMessage(),
+            HttpStatus.NOT_FOUND.value(),
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(QuoteNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleQuoteNotFoundException(
+        QuoteNotFoundException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Quote Not Found",
+            ex.getMessage(),
+            HttpStatus.NOT_FOUND.value(),
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
+    @ExceptionHandler(IdempotencyConflictException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyConflictException(
+        IdempotencyConflictException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Request In Progress",
+            ex.getMessage(),
+            HttpStatus.CONFLICT.value(),
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleIdempotencyKeyMismatchException(
+        IdempotencyKeyMismatchException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Idempotency Key Reused",
+            ex.getMessage(),
+            HttpStatus.UNPROCESSABLE_ENTITY.value(),
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @ExceptionHandler(OverloadedException.class)
+    public ResponseEntity<ErrorResponse> handleOverloadedException(
+        OverloadedException ex, WebRequest request) {
+        return tooManyRequests(ex.getMessage(), ex.getRetryAfter(), request);
+    }
+
+    @ExceptionHandler(TaskRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleTaskRejectedException(
+        TaskRejectedException ex, WebRequest request) {
+        log.warn("Transaction lane full: {}", ex.getMessage());
+        return tooManyRequests("Too many requests in progress for this user, please retry shortly",
+            Duration.ofSeconds(1), request);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(
         MethodArgumentNotValidException ex) {
@@ -111,4 +180,17 @@ public class GlobalExceptionHandler {
         );
         return new ResponseEntity<>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
     }
+
+    private static ResponseEntity<ErrorResponse> tooManyRequests(String message, Duration retryAfter, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Too Many Requests",
+            message,
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            LocalDateTime.now(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()))
+            .body(errorResponse);
+    }
 }
@@ -0,0 +1,12 @@
+package com.currency.currencyapp.exception;
+
+/**
+ * Exception thrown when a request arrives while another request with the same idempotency
+ * key is still being processed.
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.currency.currencyapp.exception;
+
+/**
+ * Exception thrown when an idempotency key is reused for a request with a different body.
+ */
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message);
+    }
+}
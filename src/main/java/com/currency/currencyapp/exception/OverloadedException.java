@@ -0,0 +1,19 @@
+package com.currency.currencyapp.exception;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Exception thrown when a request is not admitted because too many are already in flight.
+ */
+@Getter
+public class OverloadedException extends RuntimeException {
+
+    private final Duration retryAfter; // When the backlog is expected to have drained
+
+    public OverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
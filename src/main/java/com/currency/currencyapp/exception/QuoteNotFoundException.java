@@ -0,0 +1,11 @@
+package com.currency.currencyapp.exception;
+
+/**
+ * Exception thrown when an exchange quote is unknown, expired or already used.
+ */
+public class QuoteNotFoundException extends RuntimeException {
+
+    public QuoteNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.currency.currencyapp.exception;
+
+/**
+ * Exception thrown when no recorded exchange rate covers a requested instant.
+ */
+public class RateHistoryNotFoundException extends RuntimeException {
+
+    public RateHistoryNotFoundException(String message) {
+        super(message);
+    }
+}
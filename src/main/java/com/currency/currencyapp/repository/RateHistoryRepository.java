@@ -0,0 +1,27 @@
+package com.currency.currencyapp.repository;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.RateHistoryBucket;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Repository interface for RateHistoryBucket entities.
+ */
+@Repository
+public interface RateHistoryRepository extends MongoRepository<RateHistoryBucket, String> {
+
+    /**
+     * Find the two latest buckets of a base starting at or before an instant.
+     */
+    List<RateHistoryBucket> findTop2ByBaseAndBucketStartLessThanEqualOrderByBucketStartDesc(Currency base, Instant instant);
+
+    /**
+     * Find all buckets of a base starting at or after {@code from} and before {@code to}, oldest first.
+     */
+    List<RateHistoryBucket> findByBaseAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+        Currency base, Instant from, Instant to);
+}
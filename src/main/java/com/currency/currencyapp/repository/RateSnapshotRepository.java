@@ -0,0 +1,13 @@
+package com.currency.currencyapp.repository;
+
+import com.currency.currencyapp.domain.RateSnapshot;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for RateSnapshot entities.
+ */
+@Repository
+public interface RateSnapshotRepository extends MongoRepository<RateSnapshot, String> {
+
+}
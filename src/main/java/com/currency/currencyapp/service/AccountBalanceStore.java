@@ -0,0 +1,292 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.BalanceValuation;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import com.currency.currencyapp.domain.Money;
+import com.currency.currencyapp.exception.AccountNotFoundException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import com.currency.currencyapp.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Balances stored as one {@link Account} document per user and currency.
+ * Credits and debits are single atomic {@code $inc} updates, but an exchange touches two
+ * documents and is applied as a debit followed by a credit. Each update is retried on its
+ * own on write conflicts, so a conflict on the credit never repeats the debit.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "balance.layout", havingValue = "accounts", matchIfMissing = true)
+public class AccountBalanceStore implements BalanceStore {
+
+    // Account fields updated in place by balance mutations
+    private static final String BALANCE_FIELD = "balanceMinor";
+    private static final String VERSION_FIELD = "version";
+    private static final String PENDING_ENTRIES_FIELD = "pendingEntries";
+    private static final int DUPLICATE_KEY_CODE = 11000;
+
+    private final AccountRepository accountRepository;
+    private final MongoTemplate mongoTemplate;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+
+    @Override
+    public BalanceSnapshot getSnapshot(String userId) {
+        BalanceSnapshot snapshot = new BalanceSnapshot(userId, new HashMap<>(), new HashMap<>(), true);
+        for (Account account : accountRepository.findByUserId(userId)) {
+            snapshot = snapshot.merge(snapshotOf(account, true));
+        }
+        return snapshot;
+    }
+
+    /**
+     * One unordered bulk upsert that only sets fields on insert, so existing accounts are
+     * left untouched and repeated or concurrent calls are harmless.
+     */
+    @Override
+    public BalanceSnapshot createAccounts(String userId, Collection<Currency> currencies) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class);
+        for (Currency currency : currencies) {
+            bulk.upsert(accountQuery(userId, currency), new Update()
+                    .setOnInsert(BALANCE_FIELD, 0L)
+                    .setOnInsert(VERSION_FIELD, 0L)
+                    .setOnInsert("createdAt", now)
+                    .setOnInsert("updatedAt", now));
+        }
+
+        try {
+            bulk.execute();
+        } catch (BulkOperationException e) {
+            // A concurrent upsert inserting the same account first is all this needs
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY_CODE)) {
+                throw e;
+            }
+            log.debug("Accounts of user: {} already created concurrently", userId);
+        }
+        return getSnapshot(userId);
+    }
+
+    /**
+     * A transaction that already credited the account leaves it as is, see {@link LedgerGuard}.
+     */
+    @Override
+    public BalanceSnapshot credit(String userId, Currency currency, long amountMinor, String transactionId) {
+        if (mongoTemplate.exists(LedgerGuard.appended(streamId(userId, currency), currency, transactionId, 1), LedgerEntry.class)) {
+            return alreadyRecorded(userId, currency, transactionId);
+        }
+        return applyCredit(userId, currency, amountMinor, transactionId);
+    }
+
+    /**
+     * The filter only matches when the balance covers the amount, so the funds check and
+     * the debit cannot be interleaved with other mutations. A transaction that already
+     * debited the account leaves it as is, see {@link LedgerGuard}.
+     */
+    @Override
+    public BalanceSnapshot debit(String userId, Currency currency, long amountMinor, String transactionId) {
+        if (mongoTemplate.exists(LedgerGuard.appended(streamId(userId, currency), currency, transactionId, -1), LedgerEntry.class)) {
+            return alreadyRecorded(userId, currency, transactionId);
+        }
+        return applyDebit(userId, currency, amountMinor, transactionId);
+    }
+
+    /**
+     * Each exchange has its own transaction, so the legs skip the ledger lookup.
+     */
+    @Override
+    public BalanceSnapshot exchange(String userId, Currency from, long fromMinor, Currency to, long toMinor,
+                                    String transactionId) {
+        return applyDebit(userId, from, fromMinor, transactionId).merge(applyCredit(userId, to, toMinor, transactionId));
+    }
+
+    /**
+     * Groups the accounts of each user into one result, converting every balance on the way.
+     */
+    @Override
+    public List<BalanceValuation> valuate(Collection<String> userIds, Currency currency, Map<Currency, Long> fixedRates) {
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document("userId", new Document("$in", userIds))),
+            new Document("$group", new Document("_id", "$userId")
+                .append("balances", new Document("$push",
+                    new Document("k", "$currency").append("v", "$" + BALANCE_FIELD)))
+                .append("total", new Document("$sum",
+                    ValuationPipeline.convertedMinor("$currency", "$" + BALANCE_FIELD, currency, fixedRates)))
+                .append("unrated", new Document("$sum",
+                    ValuationPipeline.unrated("$currency", "$" + BALANCE_FIELD, fixedRates)))
+                .append("version", new Document("$sum", new Document("$ifNull", List.of("$" + VERSION_FIELD, 0L))))),
+            new Document("$project", new Document("balances", new Document("$arrayToObject", "$balances"))
+                .append("total", new Document("$toLong", "$total"))
+                .append("unrated", 1)
+                .append("version", 1)));
+
+        List<BalanceValuation> valuations = new ArrayList<>();
+        for (Document result : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class)).aggregate(pipeline)) {
+            valuations.add(ValuationPipeline.valuationOf(result, currency));
+        }
+        return valuations;
+    }
+
+    private BalanceSnapshot applyCredit(String userId, Currency currency, long amountMinor, String transactionId) {
+        LedgerEntry entry = LedgerEntry.pending(streamId(userId, currency), userId, Map.of(currency, amountMinor), transactionId);
+        Account account = conflictRetryPolicy.execute(userId, currency, () -> increment(userId, currency, amountMinor, entry));
+        return account != null ? snapshotOf(account, false) : alreadyRecorded(userId, currency, transactionId);
+    }
+
+    private BalanceSnapshot applyDebit(String userId, Currency currency, long amountMinor, String transactionId) {
+        LedgerEntry entry = LedgerEntry.pending(streamId(userId, currency), userId, Map.of(currency, -amountMinor), transactionId);
+        Account account = conflictRetryPolicy.execute(userId, currency, () -> decrement(userId, currency, amountMinor, entry));
+        return account != null ? snapshotOf(account, false) : alreadyRecorded(userId, currency, transactionId);
+    }
+
+    /**
+     * @return the updated account, or null if the transaction already credited it
+     */
+    private Account increment(String userId, Currency currency, long amountMinor, LedgerEntry entry) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .inc(BALANCE_FIELD, amountMinor)
+                .inc(VERSION_FIELD, 1)
+                .push(PENDING_ENTRIES_FIELD, entry)
+                .set("updatedAt", now)
+                .setOnInsert("createdAt", now);
+
+        Criteria notCredited = LedgerGuard.notPending(currency, entry.getTransactionId(), 1);
+        try {
+            return mongoTemplate.findAndModify(withoutPendingEntries(accountQuery(userId, currency).addCriteria(notCredited)), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Account.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent first deposit created the account, or the guard kept the upsert from matching it
+            return mongoTemplate.findAndModify(withoutPendingEntries(accountQuery(userId, currency).addCriteria(notCredited)), update,
+                    FindAndModifyOptions.options().returnNew(true), Account.class);
+        }
+    }
+
+    /**
+     * @return the updated account, or null if the transaction already debited it
+     */
+    private Account decrement(String userId, Currency currency, long amountMinor, LedgerEntry entry) {
+        Query query = withoutPendingEntries(accountQuery(userId, currency)
+                .addCriteria(Criteria.where(BALANCE_FIELD).gte(amountMinor))
+                .addCriteria(LedgerGuard.notPending(currency, entry.getTransactionId(), -1)));
+        Update update = new Update()
+                .inc(BALANCE_FIELD, -amountMinor)
+                .inc(VERSION_FIELD, 1)
+                .push(PENDING_ENTRIES_FIELD, entry)
+                .set("updatedAt", LocalDateTime.now());
+
+        Account account = mongoTemplate.findAndModify(query, update,
+                FindAndModifyOptions.options().returnNew(true), Account.class);
+        if (account != null) {
+            return account;
+        }
+        if (mongoTemplate.exists(accountQuery(userId, currency)
+                .addCriteria(LedgerGuard.pending(currency, entry.getTransactionId(), -1)), Account.class)) {
+            return null;
+        }
+
+        // Only the rejected debit pays for a second read, to report why it was rejected
+        Account current = accountRepository.findByUserIdAndCurrency(userId, currency)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for user: " + userId + " and currency: " + currency));
+        throw new InsufficientFundsException(String.format("Insufficient funds in %s account. Available: %s, Requested: %s",
+                currency, Money.toDecimal(current.getBalanceMinor(), currency), Money.toDecimal(amountMinor, currency)));
+    }
+
+    private BalanceSnapshot alreadyRecorded(String userId, Currency currency, String transactionId) {
+        log.info("Transaction {} already changed the {} balance of user: {}, leaving it as is", transactionId, currency, userId);
+        Account account = accountRepository.findByUserIdAndCurrency(userId, currency)
+                .orElseThrow(() -> new AccountNotFoundException("Account not found for user: " + userId + " and currency: " + currency));
+        return snapshotOf(account, false);
+    }
+
+    @Override
+    public List<LedgerEntry> findEntries(String userId, String transactionId) {
+        Query query = Query.query(Criteria.where("userId").is(userId).and(PENDING_ENTRIES_FIELD + ".transactionId").is(transactionId));
+        query.fields().include(PENDING_ENTRIES_FIELD);
+        Map<String, LedgerEntry> entries = new LinkedHashMap<>();
+        for (Account account : mongoTemplate.find(query, Account.class)) {
+            account.getPendingEntries().stream()
+                    .filter(entry -> transactionId.equals(entry.getTransactionId()))
+                    .forEach(entry -> entries.put(entry.getId(), entry));
+        }
+        // Read after the pending entries, since an entry is only pulled from them once appended
+        mongoTemplate.find(Query.query(Criteria.where("transactionId").is(transactionId).and("userId").is(userId)),
+                LedgerEntry.class).forEach(entry -> entries.putIfAbsent(entry.getId(), entry));
+        return new ArrayList<>(entries.values());
+    }
+
+    @Override
+    public String getLedgerStreamCollection() {
+        return mongoTemplate.getCollectionName(Account.class);
+    }
+
+    @Override
+    public List<LedgerSnapshot> getLedgerHeads(String userId) {
+        List<LedgerSnapshot> heads = new ArrayList<>();
+        for (Account account : accountRepository.findByUserId(userId)) {
+            heads.add(new LedgerSnapshot(streamId(userId, account.getCurrency()), userId,
+                    account.getVersion() != null ? account.getVersion() : 0L,
+                    Map.of(account.getCurrency(), account.getBalanceMinor()), LocalDateTime.now()));
+        }
+        return heads;
+    }
+
+    /**
+     * The version is left as is, it stays the sequence of the last entry.
+     */
+    @Override
+    public boolean restoreLedgerHead(LedgerSnapshot rebuilt) {
+        Map.Entry<Currency, Long> balance = rebuilt.getBalances().entrySet().iterator().next();
+        Query query = accountQuery(rebuilt.getUserId(), balance.getKey())
+                .addCriteria(Criteria.where(VERSION_FIELD).is(rebuilt.getSequence()));
+        Update update = new Update()
+                .set(BALANCE_FIELD, balance.getValue())
+                .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(query, update, Account.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * One ledger stream per account.
+     */
+    private static String streamId(String userId, Currency currency) {
+        return userId + ":" + currency.name();
+    }
+
+    private static Query withoutPendingEntries(Query query) {
+        query.fields().exclude(PENDING_ENTRIES_FIELD);
+        return query;
+    }
+
+    private static BalanceSnapshot snapshotOf(Account account, boolean complete) {
+        return BalanceSnapshot.of(account.getUserId(), account.getCurrency(), account.getBalanceMinor(),
+                account.getVersion(), complete);
+    }
+
+    private static Query accountQuery(String userId, Currency currency) {
+        return Query.query(Criteria.where("userId").is(userId).and("currency").is(currency));
+    }
+}
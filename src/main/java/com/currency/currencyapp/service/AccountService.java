@@ -1,17 +1,23 @@
 package com.currency.currencyapp.service;
 
-import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.cache.BalanceSnapshotCache;
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.BalanceValuation;
 import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.Money;
 import com.currency.currencyapp.dto.BalanceResponse;
 import com.currency.currencyapp.exception.AccountNotFoundException;
-import com.currency.currencyapp.repository.AccountRepository;
+import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,7 +27,8 @@ import java.util.Map;
 @Slf4j
 public class AccountService {
 
-    private final AccountRepository accountRepository;
+    private final BalanceStore balanceStore;
+    private final BalanceSnapshotCache balanceSnapshotCache;
     private final ExchangeRateService exchangeRateService;
 
     // Supported currencies according to requirements (only USD and TRY)
@@ -45,142 +52,148 @@ public class AccountService {
     }
 
     /**
-     * Get or create account for a user and specific currency.
-     * This method implements a "lazy initialization" pattern.
-     * Accounts are automatically created on their first use.
+     * Get balance in a specific currency (with conversion if needed).
+     * According to requirements, user has only USD and TRY accounts.
+     * Served from the balance snapshot cache, the store is only read on a miss.
+     *
+     * @throws ExchangeRateNotAvailableException if a non-zero balance has no rate into the currency
      */
-    public Account getOrCreateAccount(String userId, Currency currency) {
+    public BalanceResponse getBalance(String userId, Currency currency) {
         validateSupportedCurrency(currency);
-        return accountRepository.findByUserIdAndCurrency(userId, currency)
-                .orElseGet(() -> createNewAccount(userId, currency));
+        
+        BalanceSnapshot snapshot = balanceSnapshotCache.get(userId);
+        if (snapshot == null) {
+            // Missing accounts read as zero balances, the first credit creates them
+            snapshot = balanceStore.getSnapshot(userId);
+            balanceSnapshotCache.put(snapshot);
+        }
+        Map<Currency, Long> fixedRates = fixedRatesTo(currency);
+
+        long totalMinor = 0;
+        for (Map.Entry<Currency, Long> balance : snapshot.getBalances().entrySet()) {
+            if (balance.getValue() == 0) {
+                continue;
+            }
+            Long fixedRate = fixedRates.get(balance.getKey());
+            if (fixedRate == null) {
+                throw new ExchangeRateNotAvailableException(
+                        "Exchange rate not available for conversion from " + balance.getKey() + " to " + currency);
+            }
+            totalMinor = Money.add(totalMinor, Money.convert(balance.getValue(), fixedRate, balance.getKey(), currency));
+        }
+        return toBalanceResponse(userId, currency, snapshot.getBalances(), totalMinor, snapshot.totalVersion());
     }
 
     /**
-     * Get account by user ID and currency.
+     * Get the balances of many users in one currency, for reporting.
+     * Balances are converted and summed by a single database aggregation instead of one
+     * balance lookup per user.
+     *
+     * @param userIds  the users to report on
+     * @param currency the requested currency
+     * @return one balance per user with accounts
+     * @throws ExchangeRateNotAvailableException if a non-zero balance has no rate into the currency
      */
-    public Account getAccountByUserIdAndCurrency(String userId, Currency currency) {
+    public List<BalanceResponse> getBalances(Collection<String> userIds, Currency currency) {
         validateSupportedCurrency(currency);
-        return accountRepository.findByUserIdAndCurrency(userId, currency)
-                .orElseThrow(() -> new AccountNotFoundException("Account not found for user: " + userId + " and currency: " + currency));
-    }
 
-    /**
-     * Get all accounts for a user.
-     */
-    public List<Account> getAllAccountsByUserId(String userId) {
-        return accountRepository.findByUserId(userId);
+        List<BalanceResponse> responses = new ArrayList<>(userIds.size());
+        for (BalanceValuation valuation : balanceStore.valuate(userIds, currency, fixedRatesTo(currency))) {
+            responses.add(toBalanceResponse(valuation.getUserId(), currency, valuation.getBalances(),
+                    valuation.getTotalMinor(), valuation.getVersion()));
+        }
+        return responses;
     }
 
     /**
-     * Get balance in a specific currency (with conversion if needed).
-     * According to requirements, user has only USD and TRY accounts.
+     * Rates of all currencies into the requested one, from one rate table lookup.
      */
-    @Transactional(readOnly = true)
-    public BalanceResponse getBalance(String userId, Currency currency) {
-        validateSupportedCurrency(currency);
-        
-        List<Account> userAccounts = getAllAccountsByUserId(userId);
-        
-        // If no accounts exist, create them (only USD and TRY)
-        if (userAccounts.isEmpty()) {
-            createAccountsForUser(userId);
-            userAccounts = getAllAccountsByUserId(userId);
-        }
+    private Map<Currency, Long> fixedRatesTo(Currency currency) {
+        Map<Currency, Long> fixedRates = new EnumMap<>(Currency.class);
+        exchangeRateService.getExchangeRatesTo(currency)
+                .forEach((from, rate) -> fixedRates.put(from, Money.toFixedRate(rate)));
+        return fixedRates;
+    }
 
-        BigDecimal totalBalance = BigDecimal.ZERO;
+    private BalanceResponse toBalanceResponse(String userId, Currency currency, Map<Currency, Long> balances,
+                                              long totalMinor, long version) {
         Map<Currency, BigDecimal> accountBalances = new HashMap<>();
 
         // Initialize balances for both required currencies
-        accountBalances.put(Currency.USD, BigDecimal.ZERO);
-        accountBalances.put(Currency.TRY, BigDecimal.ZERO);
-
-        // Calculate total balance in requested currency
-        for (Account account : userAccounts) {
-            BigDecimal balance = account.getBalance();
-            accountBalances.put(account.getCurrency(), balance);
-
-            if (balance == null || balance.compareTo(BigDecimal.ZERO) == 0) {
-                continue;
-            }
-
-            if (account.getCurrency().equals(currency)) {
-                totalBalance = totalBalance.add(balance);
-            } else {
-                BigDecimal rate = exchangeRateService.getExchangeRate(account.getCurrency(), currency);
-                if (rate != null) {
-                    BigDecimal convertedAmount = balance.multiply(rate);
-                    totalBalance = totalBalance.add(convertedAmount);
-                }
-            }
-        }
+        accountBalances.put(Currency.USD, Money.toDecimal(0, Currency.USD));
+        accountBalances.put(Currency.TRY, Money.toDecimal(0, Currency.TRY));
+        balances.forEach((accountCurrency, balanceMinor) ->
+                accountBalances.put(accountCurrency, Money.toDecimal(balanceMinor, accountCurrency)));
 
         return BalanceResponse.builder()
                 .userId(userId)
                 .requestedCurrency(currency)
-                .totalBalance(totalBalance.setScale(2, java.math.RoundingMode.HALF_UP))
+                .totalBalance(Money.toDecimal(totalMinor, currency))
                 .accountBalances(accountBalances)
+                .version(version)
                 .build();
     }
 
     /**
-     * Add amount to existing balance.
+     * Add amount to the balance, creating the account on first use.
+     *
+     * @param transactionId transaction recorded in the ledger with the change
+     * @return the new balance
      */
-    @Transactional
-    public Account addToBalance(String userId, Currency currency, BigDecimal amount) {
+    public BigDecimal addToBalance(String userId, Currency currency, BigDecimal amount, String transactionId) {
         validateSupportedCurrency(currency);
-        Account account = getOrCreateAccount(userId, currency);
-        BigDecimal newBalance = account.getBalance().add(amount);
-        account.setBalance(newBalance);
-        account.setUpdatedAt(LocalDateTime.now());
-        return accountRepository.save(account);
+        BalanceSnapshot written = balanceStore.credit(userId, currency, Money.toMinor(amount, currency), transactionId);
+        balanceSnapshotCache.evict(userId);
+        return Money.toDecimal(written.getBalances().get(currency), currency);
     }
 
     /**
-     * Subtract amount from existing balance.
+     * Subtract amount from the balance, failing if the balance does not cover it.
+     *
+     * @param transactionId transaction recorded in the ledger with the change
+     * @return the new balance
+     * @throws InsufficientFundsException if the balance does not cover the amount
+     * @throws AccountNotFoundException   if the account does not exist
      */
-    @Transactional
-    public Account subtractFromBalance(String userId, Currency currency, BigDecimal amount) {
+    public BigDecimal subtractFromBalance(String userId, Currency currency, BigDecimal amount, String transactionId) {
         validateSupportedCurrency(currency);
-        Account account = getAccountByUserIdAndCurrency(userId, currency);
-        BigDecimal currentBalance = account.getBalance();
-        BigDecimal newBalance = currentBalance.subtract(amount);
-        
-        if (newBalance.compareTo(BigDecimal.ZERO) < 0) {
-            throw new IllegalArgumentException("Insufficient balance. Current balance: " + currentBalance + ", Requested: " + amount);
-        }
-        
-        account.setBalance(newBalance);
-        account.setUpdatedAt(LocalDateTime.now());
-        return accountRepository.save(account);
+        BalanceSnapshot written = balanceStore.debit(userId, currency, Money.toMinor(amount, currency), transactionId);
+        balanceSnapshotCache.evict(userId);
+        return Money.toDecimal(written.getBalances().get(currency), currency);
     }
 
     /**
-     * Create accounts for all supported currencies for a user.
-     * According to requirements, user should have only USD and TRY accounts.
+     * Move funds between two currency accounts of a user at an already converted amount.
+     * With the wallet layout both legs are applied in one atomic write.
+     *
+     * @param transactionId transaction recorded in the ledger with the change
+     * @throws InsufficientFundsException if the from balance does not cover the amount
+     * @throws AccountNotFoundException   if the from account does not exist
      */
-    @Transactional
-    public void createAccountsForUser(String userId) {
-        // Create only USD and TRY accounts as per requirements
-        for (Currency currency : SUPPORTED_CURRENCIES) {
-            if (accountRepository.findByUserIdAndCurrency(userId, currency).isEmpty()) {
-                createNewAccount(userId, currency);
-            }
-        }
+    public void exchange(String userId, Currency fromCurrency, BigDecimal fromAmount,
+                         Currency toCurrency, BigDecimal toAmount, String transactionId) {
+        validateSupportedCurrency(fromCurrency);
+        validateSupportedCurrency(toCurrency);
+        balanceStore.exchange(userId, fromCurrency, Money.toMinor(fromAmount, fromCurrency),
+                toCurrency, Money.toMinor(toAmount, toCurrency), transactionId);
+        balanceSnapshotCache.evict(userId);
     }
 
     /**
-     * Create a new account for a user and specific currency.
+     * Ledger entries a transaction recorded on the balances of a user, e.g. to tell whether
+     * an earlier attempt of the transaction already moved money.
      */
-    private Account createNewAccount(String userId, Currency currency) {
-        Account account = Account.builder()
-                .userId(userId)
-                .currency(currency)
-                .balance(BigDecimal.ZERO)
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
+    public List<LedgerEntry> getLedgerEntries(String userId, String transactionId) {
+        return balanceStore.findEntries(userId, transactionId);
+    }
 
-        log.info("Created new {} account for user: {}", currency, userId);
-        return accountRepository.save(account);
+    /**
+     * Create accounts for all supported currencies for a user.
+     * According to requirements, user should have only USD and TRY accounts.
+     */
+    public void createAccountsForUser(String userId) {
+        // Create only USD and TRY accounts as per requirements
+        balanceStore.createAccounts(userId, List.of(SUPPORTED_CURRENCIES));
+        balanceSnapshotCache.evict(userId);
     }
 }
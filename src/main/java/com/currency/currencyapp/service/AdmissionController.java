@@ -0,0 +1,182 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.TransactionType;
+import com.currency.currencyapp.exception.OverloadedException;
+import com.currency.currencyapp.util.RingBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounds the deposits and withdrawals this node has in flight, from claiming their work
+ * item until the payment gateway settled them, with a separate capacity per operation type.
+ * While a type is at capacity new requests of that type are rejected up front with the
+ * time the backlog needs to drain at the recent completion rate, instead of piling up.
+ */
+@Component
+public class AdmissionController {
+
+    private static final int DRAIN_WINDOW = 200;
+
+    private final Map<TransactionType, Queue> queues = new EnumMap<>(TransactionType.class);
+    private final Duration maxRetryAfter;
+
+    public AdmissionController(MeterRegistry meterRegistry,
+                               @Value("${admission.deposit.capacity:1000}") int depositCapacity,
+                               @Value("${admission.withdraw.capacity:1000}") int withdrawCapacity,
+                               @Value("${admission.retry-after.max-seconds:60}") long maxRetryAfterSeconds) {
+        this.maxRetryAfter = Duration.ofSeconds(maxRetryAfterSeconds);
+        queues.put(TransactionType.DEPOSIT, new Queue(TransactionType.DEPOSIT, depositCapacity, meterRegistry));
+        queues.put(TransactionType.WITHDRAW, new Queue(TransactionType.WITHDRAW, withdrawCapacity, meterRegistry));
+    }
+
+    /**
+     * Admit an operation.
+     *
+     * @param type DEPOSIT or WITHDRAW
+     * @return permit to release once the operation completed
+     * @throws OverloadedException if the operation type is at capacity
+     */
+    public Permit admit(TransactionType type) {
+        Queue queue = queueOf(type);
+        int inFlight;
+        do {
+            inFlight = queue.inFlight.get();
+            if (inFlight >= queue.capacity) {
+                throw overloaded(type, queue, inFlight);
+            }
+        } while (!queue.inFlight.compareAndSet(inFlight, inFlight + 1));
+        return new Permit(queue);
+    }
+
+    /**
+     * Check that an operation type is not at capacity, without admitting anything.
+     * Used when accepting requests whose processing is admitted later.
+     *
+     * @param type DEPOSIT or WITHDRAW
+     * @throws OverloadedException if the operation type is at capacity
+     */
+    public void checkAccepting(TransactionType type) {
+        Queue queue = queueOf(type);
+        int inFlight = queue.inFlight.get();
+        if (inFlight >= queue.capacity) {
+            throw overloaded(type, queue, inFlight);
+        }
+    }
+
+    /**
+     * Number of operations of a type admitted and not yet completed.
+     */
+    public int getInFlight(TransactionType type) {
+        return queues.get(type).inFlight.get();
+    }
+
+    private Queue queueOf(TransactionType type) {
+        Queue queue = queues.get(type);
+        if (queue == null) {
+            throw new IllegalArgumentException("No admission control for " + type);
+        }
+        return queue;
+    }
+
+    private OverloadedException overloaded(TransactionType type, Queue queue, int inFlight) {
+        queue.rejected.increment();
+        Duration retryAfter = retryAfter(queue, inFlight);
+        return new OverloadedException("Too many " + type.name().toLowerCase() + " requests in progress, retry in "
+            + retryAfter.toSeconds() + " s", retryAfter);
+    }
+
+    /**
+     * Time to drain the backlog at the completion rate over the recent window, between one
+     * second and the configured maximum.
+     */
+    Duration retryAfter(Queue queue, int backlog) {
+        List<Long> completions = queue.completions.toList();
+        if (completions.isEmpty()) {
+            return maxRetryAfter;
+        }
+        long windowNanos = Math.max(System.nanoTime() - completions.get(0), 1);
+        double completionsPerSecond = completions.size() * 1_000_000_000d / windowNanos;
+        long seconds = (long) Math.ceil(backlog / completionsPerSecond);
+        return Duration.ofSeconds(Math.max(1, Math.min(seconds, maxRetryAfter.toSeconds())));
+    }
+
+    /**
+     * Bounded queue of one operation type.
+     */
+    static class Queue {
+
+        private final int capacity;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final RingBuffer<Long> completions = new RingBuffer<>(DRAIN_WINDOW); // nanoTime of recent completions
+        private final Counter rejected;
+        private final Timer waitTime;
+
+        Queue(TransactionType type, int capacity, MeterRegistry meterRegistry) {
+            this.capacity = capacity;
+            String operation = type.name().toLowerCase();
+            Gauge.builder("admission.queue.depth", inFlight, AtomicInteger::get)
+                .description("Operations admitted and not yet completed")
+                .tag("operation", operation)
+                .register(meterRegistry);
+            this.rejected = Counter.builder("admission.rejected")
+                .description("Operations rejected because their queue was full")
+                .tag("operation", operation)
+                .register(meterRegistry);
+            this.waitTime = Timer.builder("admission.wait")
+                .description("Time from admission until processing started")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Slot of an admitted operation.
+     */
+    public static class Permit {
+
+        private final Queue queue;
+        private final long admittedAt = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Permit(Queue queue) {
+            this.queue = queue;
+        }
+
+        /**
+         * Record that processing started.
+         */
+        public void started() {
+            queue.waitTime.record(Duration.ofNanos(System.nanoTime() - admittedAt));
+        }
+
+        /**
+         * Free the slot once the operation completed, successfully or not. Only the first call counts.
+         */
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                queue.inFlight.decrementAndGet();
+                queue.completions.add(System.nanoTime());
+            }
+        }
+
+        /**
+         * Free the slot of an operation that never ran, without counting it as drained.
+         */
+        public void cancel() {
+            if (released.compareAndSet(false, true)) {
+                queue.inFlight.decrementAndGet();
+            }
+        }
+    }
+}
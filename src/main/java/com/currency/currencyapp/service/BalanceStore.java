@@ -0,0 +1,110 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.BalanceValuation;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import com.currency.currencyapp.exception.AccountNotFoundException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage layout of user balances, selected with {@code balance.layout}.
+ * All amounts are in minor units of their currency, see {@link com.currency.currencyapp.domain.Money}.
+ * Mutations return the balances they wrote, at the versions they wrote them.
+ * Every mutation records a {@link LedgerEntry} on the document it changes, in the same atomic
+ * update; each balance document is one ledger stream whose version is the ledger sequence.
+ * A transaction credits or debits a balance at most once: repeating it returns the balance
+ * without changing it again.
+ */
+public interface BalanceStore {
+
+    /**
+     * Get the balances of all accounts of a user.
+     *
+     * @return complete snapshot, without balances if the user has no accounts
+     */
+    BalanceSnapshot getSnapshot(String userId);
+
+    /**
+     * Create zero-balance accounts for the given currencies, keeping existing ones.
+     *
+     * @return complete snapshot after the creation
+     */
+    BalanceSnapshot createAccounts(String userId, Collection<Currency> currencies);
+
+    /**
+     * Add an amount to a balance, creating the account on first use.
+     *
+     * @param transactionId transaction recorded with the ledger entry
+     * @return snapshot holding at least the new balance
+     */
+    BalanceSnapshot credit(String userId, Currency currency, long amountMinor, String transactionId);
+
+    /**
+     * Subtract an amount from a balance.
+     *
+     * @param transactionId transaction recorded with the ledger entry
+     * @return snapshot holding at least the new balance
+     * @throws InsufficientFundsException if the balance does not cover the amount
+     * @throws AccountNotFoundException   if the account does not exist
+     */
+    BalanceSnapshot debit(String userId, Currency currency, long amountMinor, String transactionId);
+
+    /**
+     * Debit one currency and credit another.
+     *
+     * @param transactionId transaction recorded with the ledger entry
+     * @return snapshot holding at least both new balances
+     * @throws InsufficientFundsException if the from balance does not cover the amount
+     * @throws AccountNotFoundException   if the from account does not exist
+     */
+    BalanceSnapshot exchange(String userId, Currency from, long fromMinor, Currency to, long toMinor,
+                             String transactionId);
+
+    /**
+     * Value the balances of many users in one currency with a single aggregation, converting
+     * and summing in the database.
+     *
+     * @param userIds    the users to value
+     * @param currency   the valuation currency
+     * @param fixedRates rate into the valuation currency per currency, see
+     *                   {@link com.currency.currencyapp.domain.Money#toFixedRate(java.math.BigDecimal)}
+     * @return one valuation per user with accounts, in no particular order
+     * @throws com.currency.currencyapp.exception.ExchangeRateNotAvailableException if a non-zero
+     *         balance has no rate
+     */
+    List<BalanceValuation> valuate(Collection<String> userIds, Currency currency, Map<Currency, Long> fixedRates);
+
+    /**
+     * Find the ledger entries a transaction recorded on the balances of a user, whether
+     * still pending on the balance documents or already appended to the ledger.
+     *
+     * @return the entries of the transaction, empty if it never changed a balance
+     */
+    List<LedgerEntry> findEntries(String userId, String transactionId);
+
+    /**
+     * Name of the collection holding the balance documents, which are the ledger streams.
+     */
+    String getLedgerStreamCollection();
+
+    /**
+     * Read the current state of every ledger stream of a user from the balance documents.
+     *
+     * @return one snapshot per stream, at the document version
+     */
+    List<LedgerSnapshot> getLedgerHeads(String userId);
+
+    /**
+     * Overwrite the balances of a ledger stream with balances rebuilt from the ledger.
+     *
+     * @param rebuilt the rebuilt state of the stream
+     * @return false if the document has moved past the sequence of the rebuilt state
+     */
+    boolean restoreLedgerHead(LedgerSnapshot rebuilt);
+}
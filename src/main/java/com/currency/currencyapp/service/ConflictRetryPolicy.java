@@ -0,0 +1,96 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Retries balance mutations that lost a write conflict, such as an optimistic-lock version
+ * mismatch or a transient write conflict reported by MongoDB.
+ * Backoff is exponential with full jitter so that colliding writers spread out instead of
+ * colliding again, and attempts are bounded so a hot account cannot stall a request.
+ * Conflicts are counted per account currency as {@code balance.conflicts}, tagged with
+ * whether the conflict was retried or exhausted the attempts.
+ */
+@Component
+@Slf4j
+public class ConflictRetryPolicy {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+
+    public ConflictRetryPolicy(MeterRegistry meterRegistry,
+                               @Value("${balance.retry.max-attempts:5}") int maxAttempts,
+                               @Value("${balance.retry.initial-backoff-ms:5}") long initialBackoffMs,
+                               @Value("${balance.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("balance.retry.max-attempts must be at least 1");
+        }
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(initialBackoffMs);
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(maxBackoffMs);
+    }
+
+    /**
+     * Run a balance mutation, retrying it on write conflicts.
+     *
+     * @param userId   the user owning the account, for logging
+     * @param currency the currency of the mutated account
+     * @param mutation the mutation, must be safe to repeat after a conflict
+     * @return the result of the first attempt that did not conflict
+     * @throws TransientDataAccessException the last conflict if all attempts conflicted
+     */
+    public <T> T execute(String userId, Currency currency, Supplier<T> mutation) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return mutation.get();
+            } catch (TransientDataAccessException e) {
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("balance.conflicts", "currency", currency.name(), "outcome", "exhausted").increment();
+                    log.warn("Giving up on {} balance of user: {} after {} conflicting attempts", currency, userId, attempt);
+                    throw e;
+                }
+                meterRegistry.counter("balance.conflicts", "currency", currency.name(), "outcome", "retried").increment();
+                log.debug("Write conflict on {} balance of user: {}, attempt {}", currency, userId, attempt);
+                backoff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Run a balance mutation without a result, retrying it on write conflicts.
+     */
+    public void run(String userId, Currency currency, Runnable mutation) {
+        execute(userId, currency, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Full jitter: sleep a random time below the exponential backoff of the attempt.
+     */
+    long backoffNanos(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 30));
+        return ceiling <= 0 ? 0 : ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private void backoff(int attempt) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(backoffNanos(attempt));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a balance update", e);
+        }
+    }
+}
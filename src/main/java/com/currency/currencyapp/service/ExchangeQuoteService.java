@@ -0,0 +1,119 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.cache.ExchangeQuoteStore;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeQuote;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import com.currency.currencyapp.dto.ExchangeQuoteRequest;
+import com.currency.currencyapp.dto.ExchangeQuoteResponse;
+import com.currency.currencyapp.dto.ExchangeRequest;
+import com.currency.currencyapp.exception.QuoteNotFoundException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Service for pricing exchanges and locking the price in a quote that can be executed once
+ * before it expires.
+ */
+@Service
+@Slf4j
+public class ExchangeQuoteService {
+
+    private final ExchangeRateService exchangeRateService;
+    private final ExchangeQuoteStore exchangeQuoteStore;
+    private final Duration ttl;
+
+    public ExchangeQuoteService(ExchangeRateService exchangeRateService,
+                                ExchangeQuoteStore exchangeQuoteStore,
+                                @Value("${exchange-rate.quote.ttl-seconds:30}") long ttlSeconds) {
+        this.exchangeRateService = exchangeRateService;
+        this.exchangeQuoteStore = exchangeQuoteStore;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+    }
+
+    /**
+     * Price an exchange and lock the rate for the user.
+     *
+     * @param userId  the user ID
+     * @param request the quote request
+     * @return quote response
+     */
+    public ExchangeQuoteResponse createQuote(String userId, ExchangeQuoteRequest request) {
+        ExchangeQuote quote = priceExchange(request.getFromCurrency(), request.getToCurrency(), request.getAmount());
+        quote.setQuoteId(UUID.randomUUID().toString());
+        quote.setUserId(userId);
+        quote.setExpiresAt(quote.getCreatedAt().plus(ttl));
+        exchangeQuoteStore.put(quote);
+
+        log.info("Created quote {} for user: {}, {} {} to {} at {}", quote.getQuoteId(), userId,
+            quote.getAmount(), quote.getFromCurrency(), quote.getToCurrency(), quote.getExchangeRate());
+
+        return ExchangeQuoteResponse.builder()
+            .quoteId(quote.getQuoteId())
+            .fromCurrency(quote.getFromCurrency())
+            .toCurrency(quote.getToCurrency())
+            .amount(quote.getAmount())
+            .exchangeRate(quote.getExchangeRate())
+            .convertedAmount(quote.getConvertedAmount())
+            .expiresAt(quote.getExpiresAt())
+            .degraded(quote.isDegraded())
+            .build();
+    }
+
+    /**
+     * Price an exchange at the current rate, with a single rate lookup. The quote is degraded
+     * if the rate table that priced it is.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @param amount       amount in the source currency
+     * @return unsaved quote holding the rate and converted amount
+     */
+    public ExchangeQuote priceExchange(Currency fromCurrency, Currency toCurrency, BigDecimal amount) {
+        if (fromCurrency.equals(toCurrency)) {
+            throw new IllegalArgumentException("Cannot exchange currency to the same currency: " + fromCurrency);
+        }
+
+        ExchangeRateTable table = exchangeRateService.getCurrentRateTable();
+        BigDecimal exchangeRate = exchangeRateService.getExchangeRate(table, fromCurrency, toCurrency);
+        return ExchangeQuote.builder()
+            .fromCurrency(fromCurrency)
+            .toCurrency(toCurrency)
+            .amount(amount)
+            .exchangeRate(exchangeRate)
+            .convertedAmount(exchangeRateService.convertAmount(amount, exchangeRate))
+            .degraded(table.isDegraded())
+            .createdAt(Instant.now())
+            .build();
+    }
+
+    /**
+     * Take the quote referenced by an exchange request. The quote is consumed even if it does
+     * not match the request.
+     *
+     * @param userId  the user ID
+     * @param request the exchange request carrying the quote ID
+     * @return the quote
+     */
+    public ExchangeQuote redeemQuote(String userId, ExchangeRequest request) {
+        ExchangeQuote quote = exchangeQuoteStore.take(request.getQuoteId());
+        if (quote == null || !userId.equals(quote.getUserId())) {
+            throw new QuoteNotFoundException("Quote not found or already used: " + request.getQuoteId());
+        }
+        if (!Instant.now().isBefore(quote.getExpiresAt())) {
+            throw new QuoteNotFoundException("Quote expired: " + request.getQuoteId());
+        }
+        if (quote.getFromCurrency() != request.getFromCurrency()
+            || quote.getToCurrency() != request.getToCurrency()
+            || quote.getAmount().compareTo(request.getAmount()) != 0) {
+            throw new IllegalArgumentException("Exchange request does not match quote: " + request.getQuoteId());
+        }
+        return quote;
+    }
+}
@@ -0,0 +1,36 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reloads exchange rate tables on a fixed schedule, shorter than the cache TTL,
+ * so that requests never have to wait for the external API.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "exchange-rate.refresh.enabled", havingValue = "true", matchIfMissing = true)
+public class ExchangeRateRefresher {
+
+    private final ExchangeRateService exchangeRateService;
+
+    /**
+     * Refresh every base currency in use. A failing base does not prevent the others
+     * from being refreshed; callers keep receiving the last known table meanwhile.
+     */
+    @Scheduled(fixedDelayString = "${exchange-rate.refresh.interval-ms:45000}")
+    public void refreshAll() {
+        for (Currency base : exchangeRateService.getRefreshBases()) {
+            try {
+                exchangeRateService.refreshRateTable(base);
+            } catch (Exception e) {
+                log.warn("Scheduled refresh of exchange rates for base {} failed: {}", base, e.getMessage());
+            }
+        }
+    }
+}
@@ -1,34 +1,87 @@
 package com.currency.currencyapp.service;
 
+import com.currency.currencyapp.client.ExchangeRateProvider;
 import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
 import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
 import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for managing exchange rates with Redis caching.
+ * The whole rate table of the base currency is cached once and every
+ * currency pair is derived from it as a cross rate.
+ * Tables are reloaded ahead of expiry by {@link ExchangeRateRefresher}; when a cached
+ * table is missing the last known table is served while a reload runs in the background,
+ * as long as it is not older than the configured maximum staleness.
+ * When the provider is unavailable the last known good snapshot persisted in Mongo is
+ * served instead and marked as degraded; it also covers a cold start. The maximum
+ * staleness bounds the snapshot as well, beyond it no rates are served at all.
  */
 @Service
 @Slf4j
 public class ExchangeRateService {
 
-    private final RestTemplate restTemplate;
+    private final ExchangeRateProvider rateProvider;
+    private final RateSnapshotService rateSnapshotService;
+    private final RateHistoryService rateHistoryService;
+    private final MeterRegistry meterRegistry;
     private final ExchangeRateService self;
 
-    @Value("${exchange-rate.api.url}")
-    private String exchangeRateApiUrl;
+    // Last successfully fetched table per base, used for stale-while-revalidate
+    private final Map<Currency, ExchangeRateTable> lastKnownTables = new ConcurrentHashMap<>();
+    // Bases with a background reload submitted and not yet finished
+    private final Set<Currency> backgroundRefreshes = ConcurrentHashMap.newKeySet();
+    // Upstream fetches currently running per base, shared by concurrent cache misses
+    private final Map<Currency, CompletableFuture<ExchangeRateTable>> inFlightFetches = new ConcurrentHashMap<>();
+    // Bases this node last loaded from a snapshot because the provider was unavailable, for the gauge only
+    private final Set<Currency> degradedBases = ConcurrentHashMap.newKeySet();
 
-    public ExchangeRateService(RestTemplate restTemplate, @Lazy ExchangeRateService self) {
-        this.restTemplate = restTemplate;
+    @Value("${exchange-rate.base-currency:USD}")
+    private Currency baseCurrency = Currency.USD;
+
+    @Value("${exchange-rate.max-staleness:300}")
+    private long maxStalenessSeconds = 300;
+
+    @Value("${exchange-rate.fetch.wait-timeout-ms:5000}")
+    private long fetchWaitTimeoutMs = 5000;
+
+    public ExchangeRateService(ExchangeRateProvider rateProvider, RateSnapshotService rateSnapshotService,
+                               RateHistoryService rateHistoryService, MeterRegistry meterRegistry,
+                               @Lazy ExchangeRateService self) {
+        this.rateProvider = rateProvider;
+        this.rateSnapshotService = rateSnapshotService;
+        this.rateHistoryService = rateHistoryService;
+        this.meterRegistry = meterRegistry;
         this.self = self;
+
+        Gauge.builder("exchange_rate.degraded", degradedBases, Set::size)
+            .description("Number of base currencies this node last loaded from the last known good snapshot")
+            .register(meterRegistry);
     }
 
     /**
@@ -38,14 +91,142 @@ public class ExchangeRateService {
      * @param toCurrency   target currency
      * @return exchange rate
      */
-    @Cacheable(value = "exchange_rates", key = "#fromCurrency.name() + '_' + #toCurrency.name()")
     public BigDecimal getExchangeRate(Currency fromCurrency, Currency toCurrency) {
         if (fromCurrency == toCurrency) {
             return BigDecimal.ONE;
         }
 
+        return getExchangeRate(currentRateTable(), fromCurrency, toCurrency);
+    }
+
+    /**
+     * Get exchange rate between two currencies from a rate table already looked up.
+     *
+     * @param table        rate table from {@link #getCurrentRateTable()}
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @return exchange rate
+     */
+    public BigDecimal getExchangeRate(ExchangeRateTable table, Currency fromCurrency, Currency toCurrency) {
+        if (fromCurrency == toCurrency) {
+            return BigDecimal.ONE;
+        }
+
+        BigDecimal rate = table.crossRate(fromCurrency, toCurrency);
+        if (rate == null) {
+            throw new ExchangeRateNotAvailableException(
+                "Exchange rate not available for conversion from " + fromCurrency + " to " + toCurrency);
+        }
+        return rate;
+    }
+
+    /**
+     * Get the exchange rates of every currency into one currency, from a single rate table
+     * lookup.
+     *
+     * @param toCurrency target currency
+     * @return rate per source currency, without currencies missing from the rate table
+     */
+    public Map<Currency, BigDecimal> getExchangeRatesTo(Currency toCurrency) {
+        ExchangeRateTable table = currentRateTable();
+        Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+        for (Currency fromCurrency : Currency.values()) {
+            BigDecimal rate = table.crossRate(fromCurrency, toCurrency);
+            if (rate != null) {
+                rates.put(fromCurrency, rate);
+            }
+        }
+        return rates;
+    }
+
+    /**
+     * Get the rate table for a base currency.
+     *
+     * @param base the base currency
+     * @return rate table quoted against the base currency
+     */
+    @Cacheable(value = "exchange_rates", key = "#base.name()")
+    public ExchangeRateTable getRateTable(Currency base) {
+        ExchangeRateTable lastKnown = lastKnownTables.get(base);
+        if (lastKnown == null) {
+            // Cold start: the persisted snapshot stands in for the last fetched table
+            lastKnown = rateSnapshotService.findLatest(base).orElse(null);
+        }
+        if (lastKnown != null && !isBeyondMaxStaleness(lastKnown)) {
+            // Stale-while-revalidate: answer immediately, the reload overwrites the cache entry
+            requestBackgroundRefresh(base);
+            return lastKnown;
+        }
+
         // Fetch from external API (Spring Cache with Redis will handle caching)
-        return fetchExchangeRate(fromCurrency, toCurrency);
+        return fetchRateTable(base);
+    }
+
+    /**
+     * Reload the rate table for a base currency from the external API and store it in the cache.
+     *
+     * @param base the base currency
+     * @return the fresh rate table
+     */
+    @CachePut(value = "exchange_rates", key = "#base.name()")
+    public ExchangeRateTable refreshRateTable(Currency base) {
+        return fetchRateTable(base);
+    }
+
+    /**
+     * Reload the rate table for a base currency without blocking the caller.
+     * Submitted through {@link #requestBackgroundRefresh(Currency)}, which marks the base
+     * first; the mark is cleared once the reload ends.
+     *
+     * @param base the base currency
+     */
+    @Async("rateRefreshExecutor")
+    public void refreshRateTableInBackground(Currency base) {
+        try {
+            self.refreshRateTable(base);
+        } catch (Exception e) {
+            log.warn("Background refresh of exchange rates for base {} failed: {}", base, e.getMessage());
+        } finally {
+            backgroundRefreshes.remove(base);
+        }
+    }
+
+    /**
+     * Submit a background reload unless one is already pending for the base, so concurrent
+     * cache misses submit one task between them. A full refresh pool only skips the reload:
+     * the caller is served the last known table either way, and a later miss submits again.
+     */
+    private void requestBackgroundRefresh(Currency base) {
+        if (!backgroundRefreshes.add(base)) {
+            return;
+        }
+        try {
+            self.refreshRateTableInBackground(base);
+        } catch (TaskRejectedException e) {
+            backgroundRefreshes.remove(base);
+            log.warn("Skipped background refresh of exchange rates for base {}, refresh pool is full", base);
+        }
+    }
+
+    /**
+     * Get the rate table conversions currently use, with a single lookup. Its degraded flag
+     * tells whether its rates come from the last known good snapshot, whichever node loaded it.
+     *
+     * @return rate table quoted against the configured base currency
+     */
+    public ExchangeRateTable getCurrentRateTable() {
+        return currentRateTable();
+    }
+
+    /**
+     * Get the base currencies whose tables should be kept warm.
+     *
+     * @return the configured base currency and every base requested so far
+     */
+    public Set<Currency> getRefreshBases() {
+        Set<Currency> bases = EnumSet.of(baseCurrency);
+        bases.addAll(lastKnownTables.keySet());
+        return bases;
     }
 
     /**
@@ -61,41 +242,139 @@ public class ExchangeRateService {
             return amount;
         }
 
-        BigDecimal exchangeRate = self.getExchangeRate(fromCurrency, toCurrency);
+        return convertAmount(amount, getExchangeRate(fromCurrency, toCurrency));
+    }
+
+    /**
+     * Convert amount at an already known exchange rate.
+     *
+     * @param amount       the amount to convert
+     * @param exchangeRate the exchange rate
+     * @return converted amount
+     */
+    public BigDecimal convertAmount(BigDecimal amount, BigDecimal exchangeRate) {
         return amount.multiply(exchangeRate).setScale(2, RoundingMode.HALF_UP);
     }
 
+    private ExchangeRateTable currentRateTable() {
+        ExchangeRateTable table = self.getRateTable(baseCurrency);
+        if (isBeyondMaxStaleness(table)) {
+            // A stale table outlived its bound in the cache, only a fresh one may be used
+            table = self.refreshRateTable(baseCurrency);
+        }
+        return table;
+    }
+
+    private boolean isBeyondMaxStaleness(ExchangeRateTable table) {
+        return table.getFetchedAt() == null
+            || Duration.between(table.getFetchedAt(), Instant.now()).getSeconds() > maxStalenessSeconds;
+    }
+
     /**
-     * Fetch exchange rate from external API.
+     * Fetch the rate table of a base currency, sharing one upstream call between
+     * all concurrent callers asking for the same base. Waiters receive the result or
+     * the failure of that call and give up after the configured wait timeout.
      *
-     * @param fromCurrency source currency
-     * @param toCurrency   target currency
-     * @return exchange rate
+     * @param base the base currency
+     * @return rate table
      */
-    private BigDecimal fetchExchangeRate(Currency fromCurrency, Currency toCurrency) {
+    private ExchangeRateTable fetchRateTable(Currency base) {
+        CompletableFuture<ExchangeRateTable> fetch = new CompletableFuture<>();
+        CompletableFuture<ExchangeRateTable> inFlight = inFlightFetches.putIfAbsent(base, fetch);
+        if (inFlight != null) {
+            return awaitInFlightFetch(base, inFlight);
+        }
+
         try {
-            String url = exchangeRateApiUrl + "/" + fromCurrency.name();
-            log.info("Fetching exchange rates from: {}", url);
+            ExchangeRateTable table = loadRateTable(base);
+            fetch.complete(table);
+            return table;
+        } catch (RuntimeException e) {
+            fetch.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightFetches.remove(base, fetch);
+        }
+    }
 
-            ExternalExchangeRateResponse response = restTemplate.getForObject(url, ExternalExchangeRateResponse.class);
+    private ExchangeRateTable awaitInFlightFetch(Currency base, CompletableFuture<ExchangeRateTable> inFlight) {
+        try {
+            return inFlight.get(fetchWaitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ExchangeRateNotAvailableException cause) {
+                throw cause;
+            }
+            throw new ExchangeRateNotAvailableException(
+                "Unable to fetch exchange rates for base " + base, e.getCause());
+        } catch (TimeoutException e) {
+            throw new ExchangeRateNotAvailableException(
+                "Timed out waiting for exchange rates for base " + base, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ExchangeRateNotAvailableException(
+                "Interrupted while waiting for exchange rates for base " + base, e);
+        }
+    }
+
+    /**
+     * Load the rate table of a base currency from external API.
+     * Only currencies known to the system are kept.
+     * If the provider fails, or its circuit breaker is open, the last known good
+     * snapshot is returned as a degraded table, unless it is beyond the maximum staleness.
+     *
+     * @param base the base currency
+     * @return rate table
+     */
+    private ExchangeRateTable loadRateTable(Currency base) {
+        try {
+            log.info("Fetching exchange rates for base {} from {}", base, rateProvider.getName());
+
+            ExternalExchangeRateResponse response = rateProvider.fetchAsync(base).join();
 
             if (response == null || response.getRates() == null) {
                 throw new ExchangeRateNotAvailableException("Failed to fetch exchange rates from external API");
             }
 
-            BigDecimal rate = response.getRates().get(toCurrency.name());
-            if (rate == null) {
-                throw new ExchangeRateNotAvailableException(
-                    "Exchange rate not available for conversion from " + fromCurrency + " to " + toCurrency);
+            Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+            for (Currency currency : Currency.values()) {
+                BigDecimal rate = response.getRates().get(currency.name());
+                if (rate != null) {
+                    rates.put(currency, rate);
+                }
             }
 
-            log.info("Fetched exchange rate from {} to {}: {}", fromCurrency, toCurrency, rate);
-            return rate;
+            log.info("Fetched {} exchange rates for base {}", rates.size(), base);
+            ExchangeRateTable table = ExchangeRateTable.builder()
+                .base(base)
+                .rates(rates)
+                .fetchedAt(Instant.now())
+                .build();
+            lastKnownTables.put(base, table);
+            degradedBases.remove(base);
+            rateSnapshotService.save(table);
+            rateHistoryService.record(table);
+            return table;
 
+        } catch (CompletionException e) {
+            Exception cause = e.getCause() instanceof Exception exception ? exception : e;
+            log.error("Error fetching exchange rates for base {}: {}", base, cause.getMessage());
+            return loadSnapshot(base, cause);
         } catch (Exception e) {
-            log.error("Error fetching exchange rate from {} to {}: {}", fromCurrency, toCurrency, e.getMessage());
-            throw new ExchangeRateNotAvailableException(
-                "Unable to fetch exchange rate for " + fromCurrency + " to " + toCurrency, e);
+            log.error("Error fetching exchange rates for base {}: {}", base, e.getMessage());
+            return loadSnapshot(base, e);
+        }
+    }
+
+    private ExchangeRateTable loadSnapshot(Currency base, Exception cause) {
+        ExchangeRateTable snapshot = rateSnapshotService.findLatest(base)
+            .filter(latest -> !isBeyondMaxStaleness(latest))
+            .orElseThrow(() -> new ExchangeRateNotAvailableException(
+                "Unable to fetch exchange rates for base " + base, cause));
+
+        if (degradedBases.add(base)) {
+            log.warn("Serving exchange rates for base {} from snapshot fetched at {}", base, snapshot.getFetchedAt());
         }
+        meterRegistry.counter("exchange_rate.snapshot.served", "base", base.name()).increment();
+        return snapshot.toBuilder().degraded(true).build();
     }
 }
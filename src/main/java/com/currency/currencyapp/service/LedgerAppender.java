@@ -0,0 +1,202 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Moves ledger entries recorded on balance documents into the ledger, in batches.
+ * Every mutation increments the document version by one and records one entry, so the
+ * pending entries of a document read together with its version are exactly the entries
+ * up to that version and get consecutive sequences ending at it.
+ * Entries are inserted before they are removed from their document and keep the ID they
+ * were recorded with, so a batch interrupted half way is simply appended again.
+ * Each stream gets an opening snapshot from its balance document when its first entries
+ * are appended, which also covers balances from before the ledger, and a new snapshot
+ * every {@code ledger.snapshot.interval} entries.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "ledger.append.enabled", havingValue = "true", matchIfMissing = true)
+public class LedgerAppender {
+
+    private static final String VERSION_FIELD = "version";
+    private static final String PENDING_ENTRIES_FIELD = "pendingEntries";
+    private static final int DUPLICATE_KEY_CODE = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final BalanceStore balanceStore;
+    private final Counter appendedEntries;
+    private final int batchSize;
+    private final long snapshotInterval;
+
+    public LedgerAppender(MongoTemplate mongoTemplate, BalanceStore balanceStore, MeterRegistry meterRegistry,
+                          @Value("${ledger.append.batch-size:500}") int batchSize,
+                          @Value("${ledger.snapshot.interval:100}") long snapshotInterval) {
+        this.mongoTemplate = mongoTemplate;
+        this.balanceStore = balanceStore;
+        this.appendedEntries = Counter.builder("ledger.entries.appended")
+            .description("Ledger entries moved from balance documents into the ledger")
+            .register(meterRegistry);
+        this.batchSize = batchSize;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Append all pending entries, one batch of balance documents at a time.
+     */
+    @Scheduled(fixedDelayString = "${ledger.append.interval-ms:200}")
+    public void appendPending() {
+        try {
+            while (appendBatch() == batchSize) {
+                // A full batch means more documents may be waiting
+            }
+        } catch (RuntimeException e) {
+            log.warn("Appending pending ledger entries failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Append the pending entries of up to one batch of balance documents.
+     *
+     * @return number of balance documents appended from
+     */
+    public int appendBatch() {
+        String collection = balanceStore.getLedgerStreamCollection();
+        Query pending = Query.query(Criteria.where(PENDING_ENTRIES_FIELD + "._id").exists(true)).limit(batchSize);
+        pending.fields().include(VERSION_FIELD, PENDING_ENTRIES_FIELD);
+        List<Document> streams = mongoTemplate.find(pending, Document.class, collection);
+        if (streams.isEmpty()) {
+            return 0;
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>();
+        BulkOperations removals = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, collection);
+        for (Document stream : streams) {
+            List<LedgerEntry> streamEntries = sequence(stream);
+            entries.addAll(streamEntries);
+            List<String> entryIds = streamEntries.stream().map(LedgerEntry::getId).toList();
+            removals.updateOne(Query.query(Criteria.where("_id").is(stream.get("_id"))),
+                new Update().pull(PENDING_ENTRIES_FIELD, new Document("_id", new Document("$in", entryIds))));
+        }
+
+        insert(entries);
+        snapshot(entries);
+        removals.execute();
+        appendedEntries.increment(entries.size());
+        log.debug("Appended {} ledger entries of {} streams", entries.size(), streams.size());
+        return streams.size();
+    }
+
+    /**
+     * Number the pending entries of a balance document so that the last one carries the
+     * document version.
+     */
+    List<LedgerEntry> sequence(Document stream) {
+        long version = ((Number) stream.get(VERSION_FIELD)).longValue();
+        List<Document> pending = stream.getList(PENDING_ENTRIES_FIELD, Document.class);
+        long first = version - pending.size() + 1;
+
+        List<LedgerEntry> entries = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            LedgerEntry entry = mongoTemplate.getConverter().read(LedgerEntry.class, pending.get(i));
+            entry.setSequence(first + i);
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    private void insert(List<LedgerEntry> entries) {
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, LedgerEntry.class).insert(entries).execute();
+        } catch (BulkOperationException e) {
+            // Entries of an interrupted batch are already in the ledger
+            if (!e.getErrors().stream().allMatch(error -> error.getCode() == DUPLICATE_KEY_CODE)) {
+                throw e;
+            }
+            log.debug("{} ledger entries were already appended", e.getErrors().size());
+        }
+    }
+
+    private void snapshot(List<LedgerEntry> entries) {
+        // Last appended entry per stream, entries of a stream are in sequence order
+        Map<String, LedgerEntry> lastEntries = entries.stream()
+            .collect(Collectors.toMap(LedgerEntry::getStreamId, Function.identity(), (first, last) -> last, LinkedHashMap::new));
+        Map<String, LedgerSnapshot> snapshots = mongoTemplate
+            .find(Query.query(Criteria.where("_id").in(lastEntries.keySet())), LedgerSnapshot.class).stream()
+            .collect(Collectors.toMap(LedgerSnapshot::getStreamId, Function.identity()));
+
+        Set<String> usersWithoutSnapshots = new HashSet<>();
+        for (LedgerEntry last : lastEntries.values()) {
+            LedgerSnapshot current = snapshots.get(last.getStreamId());
+            if (current == null) {
+                usersWithoutSnapshots.add(last.getUserId());
+            } else if (last.getSequence() - current.getSequence() >= snapshotInterval) {
+                advance(current, last.getSequence());
+            }
+        }
+
+        for (String userId : usersWithoutSnapshots) {
+            for (LedgerSnapshot head : balanceStore.getLedgerHeads(userId)) {
+                if (lastEntries.containsKey(head.getStreamId()) && !snapshots.containsKey(head.getStreamId())) {
+                    open(head);
+                }
+            }
+        }
+    }
+
+    /**
+     * The balance document is read after its entries, so its state covers all of them.
+     */
+    private void open(LedgerSnapshot head) {
+        try {
+            mongoTemplate.insert(head);
+        } catch (DuplicateKeyException e) {
+            log.debug("Ledger stream {} was opened concurrently", head.getStreamId());
+        }
+    }
+
+    private void advance(LedgerSnapshot current, long sequence) {
+        Query replay = Query.query(Criteria.where("streamId").is(current.getStreamId())
+                .and("sequence").gt(current.getSequence()).lte(sequence))
+            .with(Sort.by("sequence"));
+        try {
+            LedgerSnapshot next = current.replay(mongoTemplate.find(replay, LedgerEntry.class));
+            // Only replaces the snapshot it was built from, a concurrent advance wins
+            mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(current.getStreamId()).and("sequence").is(current.getSequence())),
+                new Update()
+                    .set("sequence", next.getSequence())
+                    .set("balances", next.getBalances())
+                    .set("createdAt", LocalDateTime.now()),
+                LedgerSnapshot.class);
+        } catch (IllegalStateException e) {
+            log.warn("Not snapshotting ledger stream {}: {}", current.getStreamId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+/**
+ * Query parts shared by the balance stores that keep a transaction from changing a balance
+ * twice in the same direction, e.g. when its work item is redelivered while the first
+ * attempt is still running.
+ * A credit or debit only matches its balance document while no pending entry of the
+ * transaction changes that balance in the same direction, so the guard is part of the
+ * atomic update itself. Entries already moved into the ledger are looked up before the
+ * update; an entry appended between that lookup and the update is missed, which needs the
+ * duplicate to race the ledger appender within a single write.
+ * Directions are kept apart because a withdraw gives its reservation back with a credit
+ * under the same transaction.
+ */
+final class LedgerGuard {
+
+    private static final String PENDING_ENTRIES_FIELD = "pendingEntries";
+
+    private LedgerGuard() {
+    }
+
+    /**
+     * Matches balance documents without a pending entry of the transaction in the direction.
+     *
+     * @param signum 1 for a credit, -1 for a debit
+     */
+    static Criteria notPending(Currency currency, String transactionId, int signum) {
+        return Criteria.where(PENDING_ENTRIES_FIELD).not().elemMatch(entryOf(currency, transactionId, signum));
+    }
+
+    /**
+     * Matches balance documents holding a pending entry of the transaction in the direction.
+     *
+     * @param signum 1 for a credit, -1 for a debit
+     */
+    static Criteria pending(Currency currency, String transactionId, int signum) {
+        return Criteria.where(PENDING_ENTRIES_FIELD).elemMatch(entryOf(currency, transactionId, signum));
+    }
+
+    /**
+     * Matches the ledger entries of the transaction on a stream in the direction.
+     *
+     * @param signum 1 for a credit, -1 for a debit
+     */
+    static Query appended(String streamId, Currency currency, String transactionId, int signum) {
+        return Query.query(entryOf(currency, transactionId, signum).and("streamId").is(streamId));
+    }
+
+    private static Criteria entryOf(Currency currency, String transactionId, int signum) {
+        Criteria amount = Criteria.where("transactionId").is(transactionId).and("amounts." + currency.name());
+        return signum > 0 ? amount.gt(0L) : amount.lt(0L);
+    }
+}
@@ -0,0 +1,193 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.cache.BalanceSnapshotCache;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Rebuilds every ledger stream from its latest snapshot and the entries after it, and checks
+ * the result against the balance documents, once at startup when
+ * {@code ledger.rebuild.enabled=true}.
+ * Streams are rebuilt in parallel batches. A stream whose document has entries that are not
+ * appended yet is skipped. With {@code ledger.rebuild.repair=true} a document that disagrees
+ * with its ledger is overwritten with the rebuilt balances, unless it changed meanwhile.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "ledger.rebuild.enabled", havingValue = "true")
+public class LedgerRebuilder implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final BalanceStore balanceStore;
+    private final BalanceSnapshotCache balanceSnapshotCache;
+    private final int threads;
+    private final boolean repair;
+
+    public LedgerRebuilder(MongoTemplate mongoTemplate, BalanceStore balanceStore, BalanceSnapshotCache balanceSnapshotCache,
+                           @Value("${ledger.rebuild.threads:4}") int threads,
+                           @Value("${ledger.rebuild.repair:false}") boolean repair) {
+        this.mongoTemplate = mongoTemplate;
+        this.balanceStore = balanceStore;
+        this.balanceSnapshotCache = balanceSnapshotCache;
+        this.threads = threads;
+        this.repair = repair;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        RebuildReport report = rebuild();
+        log.info("Rebuilt {} ledger streams from {} entries in {} ms ({} entries/s): {} mismatches, {} repaired, {} skipped",
+            report.streams(), report.entries(), report.elapsed().toMillis(), report.entriesPerSecond(),
+            report.mismatches(), report.repaired(), report.skipped());
+    }
+
+    /**
+     * Rebuild all ledger streams.
+     *
+     * @return counts of the rebuild
+     */
+    public RebuildReport rebuild() throws InterruptedException {
+        long started = System.nanoTime();
+        Counts counts = new Counts();
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(threads,
+            task -> new Thread(task, "ledger-rebuild-" + threadNumber.getAndIncrement()));
+        try (Stream<LedgerSnapshot> snapshots = mongoTemplate.stream(new Query().with(Sort.by("_id")), LedgerSnapshot.class)) {
+            List<Future<?>> batches = new ArrayList<>();
+            List<LedgerSnapshot> batch = new ArrayList<>(BATCH_SIZE);
+            for (LedgerSnapshot snapshot : (Iterable<LedgerSnapshot>) snapshots::iterator) {
+                batch.add(snapshot);
+                if (batch.size() == BATCH_SIZE) {
+                    List<LedgerSnapshot> full = batch;
+                    batches.add(pool.submit(() -> rebuildBatch(full, counts)));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<LedgerSnapshot> last = batch;
+                batches.add(pool.submit(() -> rebuildBatch(last, counts)));
+            }
+            for (Future<?> future : batches) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Ledger rebuild failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new RebuildReport(counts.streams.get(), counts.entries.get(), counts.mismatches.get(),
+            counts.repaired.get(), counts.skipped.get(), Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    /**
+     * Rebuild a batch of streams with one query for all their entries after the snapshots.
+     */
+    void rebuildBatch(List<LedgerSnapshot> snapshots, Counts counts) {
+        Criteria[] afterSnapshots = snapshots.stream()
+            .map(snapshot -> Criteria.where("streamId").is(snapshot.getStreamId()).and("sequence").gt(snapshot.getSequence()))
+            .toArray(Criteria[]::new);
+        Map<String, List<LedgerEntry>> entries = mongoTemplate
+            .find(Query.query(new Criteria().orOperator(afterSnapshots)).with(Sort.by("streamId", "sequence")), LedgerEntry.class)
+            .stream()
+            .collect(Collectors.groupingBy(LedgerEntry::getStreamId));
+
+        Map<String, LedgerSnapshot> heads = new HashMap<>();
+        for (String userId : snapshots.stream().map(LedgerSnapshot::getUserId).distinct().toList()) {
+            balanceStore.getLedgerHeads(userId).forEach(head -> heads.put(head.getStreamId(), head));
+        }
+
+        for (LedgerSnapshot snapshot : snapshots) {
+            List<LedgerEntry> streamEntries = entries.getOrDefault(snapshot.getStreamId(), List.of());
+            counts.streams.incrementAndGet();
+            counts.entries.addAndGet(streamEntries.size());
+            check(snapshot, streamEntries, heads.get(snapshot.getStreamId()), counts);
+        }
+    }
+
+    private void check(LedgerSnapshot snapshot, List<LedgerEntry> entries, LedgerSnapshot head, Counts counts) {
+        LedgerSnapshot rebuilt;
+        try {
+            rebuilt = snapshot.replay(entries);
+        } catch (IllegalStateException e) {
+            log.warn("Cannot rebuild ledger stream: {}", e.getMessage());
+            counts.mismatches.incrementAndGet();
+            return;
+        }
+
+        if (head == null || head.getSequence() != rebuilt.getSequence()) {
+            // Entries still pending on the document, or written during the rebuild
+            counts.skipped.incrementAndGet();
+            return;
+        }
+        if (sameBalances(head.getBalances(), rebuilt.getBalances())) {
+            return;
+        }
+
+        counts.mismatches.incrementAndGet();
+        log.warn("Ledger stream {} at sequence {} has balances {} but its ledger gives {}",
+            rebuilt.getStreamId(), rebuilt.getSequence(), head.getBalances(), rebuilt.getBalances());
+        if (repair && balanceStore.restoreLedgerHead(rebuilt)) {
+            balanceSnapshotCache.evict(rebuilt.getUserId());
+            counts.repaired.incrementAndGet();
+        }
+    }
+
+    /**
+     * Currencies without a balance and zero balances are the same.
+     */
+    private static boolean sameBalances(Map<Currency, Long> balances, Map<Currency, Long> otherBalances) {
+        for (Currency currency : Currency.values()) {
+            if (balances.getOrDefault(currency, 0L).longValue() != otherBalances.getOrDefault(currency, 0L).longValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Outcome of a rebuild.
+     */
+    public record RebuildReport(long streams, long entries, long mismatches, long repaired, long skipped,
+                                Duration elapsed) {
+
+        public long entriesPerSecond() {
+            long nanos = Math.max(elapsed.toNanos(), 1);
+            return entries * 1_000_000_000L / nanos;
+        }
+    }
+
+    static class Counts {
+        final AtomicLong streams = new AtomicLong();
+        final AtomicLong entries = new AtomicLong();
+        final AtomicLong mismatches = new AtomicLong();
+        final AtomicLong repaired = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+    }
+}
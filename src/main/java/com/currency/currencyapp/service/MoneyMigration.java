@@ -0,0 +1,86 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.Transaction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.ArithmeticOperators;
+import org.springframework.data.mongodb.core.aggregation.ConvertOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+/**
+ * Migrates documents written before money was stored in fixed-point form, once at startup.
+ * Account balances stored as decimal strings are rewritten to {@code balanceMinor} int64
+ * minor units, transaction amounts stored as strings to Decimal128. Both updates run
+ * server side and only match unmigrated documents, so the migration is idempotent.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "money.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class MoneyMigration implements ApplicationRunner {
+
+    private static final String[] TRANSACTION_AMOUNT_FIELDS = {"amount", "targetAmount", "exchangeRate"};
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long accounts = migrateAccountBalances();
+        long transactions = migrateTransactionAmounts();
+        if (accounts > 0 || transactions > 0) {
+            log.info("Migrated {} account balances to minor units and {} transaction amounts to Decimal128",
+                accounts, transactions);
+        }
+    }
+
+    /**
+     * Rewrite legacy decimal balances as minor units of the account currency.
+     *
+     * @return number of migrated accounts
+     */
+    long migrateAccountBalances() {
+        long migrated = 0;
+        for (Currency currency : Currency.values()) {
+            Query legacy = Query.query(Criteria.where("currency").is(currency)
+                .and("balance").exists(true)
+                .and("balanceMinor").exists(false));
+            AggregationUpdate update = AggregationUpdate.update()
+                .set("balanceMinor").toValue(ConvertOperators.valueOf(
+                    ArithmeticOperators.valueOf(
+                        ArithmeticOperators.valueOf(ConvertOperators.valueOf("balance").convertToDecimal())
+                            .multiplyBy(BigDecimal.TEN.pow(currency.getMinorUnitDigits())))
+                        .round())
+                    .convertToLong())
+                .unset("balance");
+            migrated += mongoTemplate.updateMulti(legacy, update, Account.class).getModifiedCount();
+        }
+        return migrated;
+    }
+
+    /**
+     * Rewrite transaction amounts stored as strings as Decimal128.
+     *
+     * @return number of migrated amount fields
+     */
+    long migrateTransactionAmounts() {
+        long migrated = 0;
+        for (String field : TRANSACTION_AMOUNT_FIELDS) {
+            Query legacy = Query.query(Criteria.where(field).type(2)); // BSON string
+            AggregationUpdate update = AggregationUpdate.update()
+                .set(field).toValue(ConvertOperators.valueOf(field).convertToDecimal());
+            migrated += mongoTemplate.updateMulti(legacy, update, Transaction.class).getModifiedCount();
+        }
+        return migrated;
+    }
+}
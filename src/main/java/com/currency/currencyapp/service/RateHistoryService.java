@@ -0,0 +1,240 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import com.currency.currencyapp.domain.RateHistoryBucket;
+import com.currency.currencyapp.domain.RateTick;
+import com.currency.currencyapp.dto.HistoricalRateResponse;
+import com.currency.currencyapp.dto.OhlcCandle;
+import com.currency.currencyapp.dto.OhlcSeriesResponse;
+import com.currency.currencyapp.exception.RateHistoryNotFoundException;
+import com.currency.currencyapp.repository.RateHistoryRepository;
+import com.currency.currencyapp.util.RingBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time series of fetched exchange rate tables.
+ * Ticks are appended to hourly bucket documents per base currency in Mongo, and the most
+ * recent ticks are also kept in memory so that lookups of recent rates stay local.
+ * Pair rates are derived from the tables of the configured base as cross rates.
+ */
+@Service
+@Slf4j
+public class RateHistoryService {
+
+    static final Duration BUCKET_SIZE = Duration.ofHours(1);
+
+    private final MongoTemplate mongoTemplate;
+    private final RateHistoryRepository rateHistoryRepository;
+    private final int bufferSize;
+    private final int maxCandles;
+
+    private final Map<Currency, RingBuffer<RateTick>> recentTicks = new ConcurrentHashMap<>();
+
+    @Value("${exchange-rate.base-currency:USD}")
+    private Currency baseCurrency = Currency.USD;
+
+    public RateHistoryService(MongoTemplate mongoTemplate,
+                              RateHistoryRepository rateHistoryRepository,
+                              @Value("${exchange-rate.history.buffer-size:512}") int bufferSize,
+                              @Value("${exchange-rate.history.max-candles:1000}") int maxCandles) {
+        this.mongoTemplate = mongoTemplate;
+        this.rateHistoryRepository = rateHistoryRepository;
+        this.bufferSize = bufferSize;
+        this.maxCandles = maxCandles;
+    }
+
+    /**
+     * Append a fetched rate table to the history. Failing to persist it only loses
+     * the tick from Mongo, it is still served from memory while buffered.
+     *
+     * @param table the fetched rate table
+     */
+    public void record(ExchangeRateTable table) {
+        Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+        rates.putAll(table.getRates());
+        RateTick tick = RateTick.builder()
+            .at(table.getFetchedAt().truncatedTo(ChronoUnit.MILLIS)) // Mongo dates have millisecond precision
+            .rates(rates)
+            .build();
+        recentTicks.computeIfAbsent(table.getBase(), base -> new RingBuffer<>(bufferSize)).add(tick);
+
+        Document storedRates = new Document();
+        rates.forEach((currency, rate) -> storedRates.append(currency.name(), new Decimal128(rate)));
+        Query bucket = Query.query(Criteria.where("base").is(table.getBase())
+            .and("bucketStart").is(bucketStart(tick.getAt())));
+        Update append = new Update()
+            .push("ticks", new Document("at", Date.from(tick.getAt())).append("rates", storedRates))
+            .inc("count", 1);
+
+        try {
+            upsert(bucket, append);
+        } catch (Exception e) {
+            log.warn("Failed to record exchange rate history for base {}: {}", table.getBase(), e.getMessage());
+        }
+    }
+
+    /**
+     * Get the rate between two currencies in effect at an instant, that is the rate of
+     * the last table fetched at or before it.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @param at           the instant
+     * @return the historical rate
+     * @throws RateHistoryNotFoundException if no rate was recorded before the instant
+     */
+    public HistoricalRateResponse getRateAt(Currency fromCurrency, Currency toCurrency, Instant at) {
+        RateTick tick = findTickAt(at);
+        BigDecimal rate = tick != null ? tick.crossRate(baseCurrency, fromCurrency, toCurrency) : null;
+        if (rate == null) {
+            throw new RateHistoryNotFoundException(
+                "No exchange rate recorded from " + fromCurrency + " to " + toCurrency + " at or before " + at);
+        }
+
+        return HistoricalRateResponse.builder()
+            .fromCurrency(fromCurrency)
+            .toCurrency(toCurrency)
+            .requestedAt(at)
+            .observedAt(tick.getAt())
+            .rate(rate)
+            .build();
+    }
+
+    /**
+     * Get the OHLC series of a currency pair over a window.
+     *
+     * @param fromCurrency source currency
+     * @param toCurrency   target currency
+     * @param start        window start (inclusive)
+     * @param end          window end (exclusive)
+     * @param interval     candle length
+     * @return one candle per interval with recorded rates
+     */
+    public OhlcSeriesResponse getOhlc(Currency fromCurrency, Currency toCurrency,
+                                      Instant start, Instant end, Duration interval) {
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("Window start must be before its end");
+        }
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("Interval must be positive");
+        }
+        long candleCount = (Duration.between(start, end).toMillis() + interval.toMillis() - 1) / interval.toMillis();
+        if (candleCount > maxCandles) {
+            throw new IllegalArgumentException("Window spans " + candleCount + " intervals, at most " + maxCandles + " are allowed");
+        }
+
+        List<OhlcCandle> candles = new ArrayList<>();
+        OhlcCandle candle = null;
+        for (RateTick tick : findTicksBetween(start, end).values()) {
+            BigDecimal rate = tick.crossRate(baseCurrency, fromCurrency, toCurrency);
+            if (rate == null) {
+                continue;
+            }
+
+            long index = Duration.between(start, tick.getAt()).toMillis() / interval.toMillis();
+            Instant candleStart = start.plusMillis(index * interval.toMillis());
+            if (candle == null || !candle.getStart().equals(candleStart)) {
+                candle = OhlcCandle.builder()
+                    .start(candleStart)
+                    .open(rate)
+                    .high(rate)
+                    .low(rate)
+                    .build();
+                candles.add(candle);
+            }
+            candle.setHigh(candle.getHigh().max(rate));
+            candle.setLow(candle.getLow().min(rate));
+            candle.setClose(rate);
+            candle.setTicks(candle.getTicks() + 1);
+        }
+
+        return OhlcSeriesResponse.builder()
+            .fromCurrency(fromCurrency)
+            .toCurrency(toCurrency)
+            .start(start)
+            .end(end)
+            .interval(interval)
+            .candles(candles)
+            .build();
+    }
+
+    static Instant bucketStart(Instant at) {
+        long bucketMillis = BUCKET_SIZE.toMillis();
+        return Instant.ofEpochMilli(Math.floorDiv(at.toEpochMilli(), bucketMillis) * bucketMillis);
+    }
+
+    private void upsert(Query bucket, Update append) {
+        try {
+            mongoTemplate.upsert(bucket, append, RateHistoryBucket.class);
+        } catch (DuplicateKeyException e) {
+            // Lost the race to create the bucket, it exists now
+            mongoTemplate.upsert(bucket, append, RateHistoryBucket.class);
+        }
+    }
+
+    private RateTick findTickAt(Instant at) {
+        List<RateTick> buffered = bufferedTicks();
+        if (!buffered.isEmpty() && !buffered.get(0).getAt().isAfter(at)) {
+            for (int i = buffered.size() - 1; i >= 0; i--) {
+                if (!buffered.get(i).getAt().isAfter(at)) {
+                    return buffered.get(i);
+                }
+            }
+        }
+
+        // The tick may sit in the previous bucket if the instant precedes the first tick of its own
+        for (RateHistoryBucket bucket : rateHistoryRepository
+                .findTop2ByBaseAndBucketStartLessThanEqualOrderByBucketStartDesc(baseCurrency, at)) {
+            List<RateTick> ticks = bucket.getTicks() != null ? bucket.getTicks() : List.of();
+            for (int i = ticks.size() - 1; i >= 0; i--) {
+                if (!ticks.get(i).getAt().isAfter(at)) {
+                    return ticks.get(i);
+                }
+            }
+        }
+        return null;
+    }
+
+    private NavigableMap<Instant, RateTick> findTicksBetween(Instant start, Instant end) {
+        NavigableMap<Instant, RateTick> ticks = new TreeMap<>();
+        List<RateHistoryBucket> buckets = rateHistoryRepository
+            .findByBaseAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                baseCurrency, bucketStart(start), end);
+        for (RateHistoryBucket bucket : buckets) {
+            if (bucket.getTicks() != null) {
+                bucket.getTicks().forEach(tick -> ticks.put(tick.getAt(), tick));
+            }
+        }
+        // Buffered ticks cover writes that did not reach Mongo
+        bufferedTicks().forEach(tick -> ticks.putIfAbsent(tick.getAt(), tick));
+        return ticks.subMap(start, true, end, false);
+    }
+
+    private List<RateTick> bufferedTicks() {
+        RingBuffer<RateTick> buffer = recentTicks.get(baseCurrency);
+        return buffer != null ? buffer.toList() : List.of();
+    }
+}
@@ -0,0 +1,82 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import com.currency.currencyapp.domain.RateSnapshot;
+import com.currency.currencyapp.repository.RateSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last known good rate table of every base currency in Mongo.
+ * A stored snapshot is read from Mongo at most once per base and process; afterwards the
+ * in-memory copy is kept up to date by {@link #save(ExchangeRateTable)}. A missing snapshot
+ * is not remembered, so one saved later by another node is still found.
+ * Mongo failures never propagate, a missing snapshot only means there is no fallback.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RateSnapshotService {
+
+    private final RateSnapshotRepository rateSnapshotRepository;
+
+    private final Map<Currency, Optional<ExchangeRateTable>> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * Persist a freshly fetched rate table as the last known good snapshot of its base.
+     *
+     * @param table the rate table
+     */
+    public void save(ExchangeRateTable table) {
+        snapshots.put(table.getBase(), Optional.of(table));
+        try {
+            rateSnapshotRepository.save(RateSnapshot.builder()
+                .base(table.getBase().name())
+                .rates(table.getRates())
+                .fetchedAt(table.getFetchedAt())
+                .savedAt(Instant.now())
+                .build());
+        } catch (Exception e) {
+            log.warn("Failed to persist exchange rate snapshot for base {}: {}", table.getBase(), e.getMessage());
+        }
+    }
+
+    /**
+     * Get the last known good rate table of a base currency.
+     *
+     * @param base the base currency
+     * @return the snapshot, or empty if none was ever stored
+     */
+    public Optional<ExchangeRateTable> findLatest(Currency base) {
+        Optional<ExchangeRateTable> snapshot = snapshots.get(base);
+        if (snapshot != null) {
+            return snapshot;
+        }
+
+        try {
+            snapshot = rateSnapshotRepository.findById(base.name())
+                .map(stored -> ExchangeRateTable.builder()
+                    .base(base)
+                    .rates(stored.getRates())
+                    .fetchedAt(stored.getFetchedAt())
+                    .build());
+        } catch (Exception e) {
+            // Not remembered, the next lookup tries Mongo again
+            log.warn("Failed to load exchange rate snapshot for base {}: {}", base, e.getMessage());
+            return Optional.empty();
+        }
+
+        if (snapshot.isEmpty()) {
+            return snapshot;
+        }
+        snapshots.putIfAbsent(base, snapshot);
+        return snapshots.get(base);
+    }
+}
@@ -1,158 +1,336 @@
 package com.currency.currencyapp.service;
 
-import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.client.PaymentGateway;
 import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeQuote;
+import com.currency.currencyapp.domain.LedgerEntry;
 import com.currency.currencyapp.domain.Transaction;
 import com.currency.currencyapp.domain.TransactionStatus;
 import com.currency.currencyapp.domain.TransactionType;
+import com.currency.currencyapp.domain.WorkItem;
 import com.currency.currencyapp.dto.DepositRequest;
 import com.currency.currencyapp.dto.ExchangeRequest;
 import com.currency.currencyapp.dto.TransactionResponse;
 import com.currency.currencyapp.dto.WithdrawRequest;
 import com.currency.currencyapp.exception.InsufficientFundsException;
+import com.currency.currencyapp.exception.OverloadedException;
 import com.currency.currencyapp.repository.TransactionRepository;
-import lombok.RequiredArgsConstructor;
+import com.currency.currencyapp.util.PartitionedExecutor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Async;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
 
 /**
  * Service for managing transactions with separate currency accounts.
+ * An accepted deposit or withdrawal is stored as a pending transaction and a work item in
+ * the outbox before it is acknowledged, so it survives a restart. Work items run as a
+ * pipeline around the payment gateway: the first stage runs on the user's lane and hands
+ * the payment to the gateway, the remaining stages run on the payment callback pool once
+ * the gateway settles, so no thread waits on it. A user's next item waits for the whole
+ * pipeline of the previous one.
+ * Transaction records are written through {@link TransactionWriteBatcher}, sharing bulk
+ * writes with concurrent operations.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class TransactionService {
 
     private final TransactionRepository transactionRepository;
-    private final ExchangeRateService exchangeRateService;
+    private final TransactionWriteBatcher transactionWriteBatcher;
     private final NotificationService notificationService;
     private final AccountService accountService;
+    private final ExchangeQuoteService exchangeQuoteService;
+    private final PartitionedExecutor transactionExecutor;
+    private final AdmissionController admissionController;
+    private final WorkItemOutbox workItemOutbox;
+    private final PaymentGateway paymentGateway;
+    private final Executor paymentCallbackExecutor;
+    private final Map<String, CompletableFuture<Transaction>> userTails = new ConcurrentHashMap<>(); // Last pipeline per user
+
+    public TransactionService(TransactionRepository transactionRepository, TransactionWriteBatcher transactionWriteBatcher,
+                              NotificationService notificationService,
+                              AccountService accountService, ExchangeQuoteService exchangeQuoteService,
+                              PartitionedExecutor transactionExecutor, AdmissionController admissionController,
+                              WorkItemOutbox workItemOutbox, PaymentGateway paymentGateway,
+                              @Qualifier("paymentCallbackExecutor") Executor paymentCallbackExecutor) {
+        this.transactionRepository = transactionRepository;
+        this.transactionWriteBatcher = transactionWriteBatcher;
+        this.notificationService = notificationService;
+        this.accountService = accountService;
+        this.exchangeQuoteService = exchangeQuoteService;
+        this.transactionExecutor = transactionExecutor;
+        this.admissionController = admissionController;
+        this.workItemOutbox = workItemOutbox;
+        this.paymentGateway = paymentGateway;
+        this.paymentCallbackExecutor = paymentCallbackExecutor;
+    }
 
     /**
-     * Process deposit transaction asynchronously.
+     * Accept a deposit for asynchronous processing.
+     * The balance is credited once the payment gateway has collected the money.
+     *
+     * @return the pending transaction
+     * @throws OverloadedException if this node cannot keep up with deposits
      */
-    @Async("taskExecutor")
-    public void processDeposit(String userId, DepositRequest request) {
-        log.info("Processing deposit for user: {}, amount: {} {}", userId, request.getAmount(), request.getCurrency());
-
-        Transaction transaction = createTransaction(userId, TransactionType.DEPOSIT, request.getCurrency(),
-            request.getAmount(), request.getDescription());
-
-        try {
-            // Simulate processing time (e.g., payment gateway interaction)
-            Thread.sleep(1000);
-
-            // Add amount to specific currency account
-            accountService.addToBalance(userId, request.getCurrency(), request.getAmount());
-
-            // Mark transaction as successful
-            transaction.setStatus(TransactionStatus.SUCCESS);
-            transaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
-
-            // Send notification
-            notificationService.sendDepositNotification(userId, transaction, true, null);
-
-            log.info("Deposit processed successfully for user: {}, transaction: {}", userId, transaction.getId());
+    public Transaction processDeposit(String userId, DepositRequest request) {
+        admissionController.checkAccepting(TransactionType.DEPOSIT);
+        return accept(userId, TransactionType.DEPOSIT, request.getCurrency(), request.getAmount(), request.getDescription());
+    }
 
-            CompletableFuture.completedFuture(TransactionResponse.builder()
-                .transactionId(transaction.getId())
-                .status(TransactionStatus.SUCCESS)
-                .message("Deposit processed successfully")
-                .timestamp(LocalDateTime.now())
-                .build());
+    /**
+     * Accept a withdraw for asynchronous processing.
+     * The amount is reserved from the balance before the payment gateway pays it out, and
+     * credited back if the payout fails.
+     *
+     * @return the pending transaction
+     * @throws OverloadedException if this node cannot keep up with withdrawals
+     */
+    public Transaction processWithdraw(String userId, WithdrawRequest request) {
+        admissionController.checkAccepting(TransactionType.WITHDRAW);
+        return accept(userId, TransactionType.WITHDRAW, request.getCurrency(), request.getAmount(), request.getDescription());
+    }
 
-        } catch (Exception e) {
-            // Mark transaction as failed
-            transaction.setStatus(TransactionStatus.FAILED);
-            transaction.setErrorMessage(e.getMessage());
-            transaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
+    /**
+     * Process a claimed work item on its user's lane, holding an admission slot until its
+     * pipeline completes.
+     * The item starts once the pipeline of the user's previous item has completed, not just
+     * its first stage, so a withdraw never runs before the credit of an earlier deposit.
+     * If the previous pipeline failed the item fails too and is left to its lease, so that
+     * the user's items are retried in order.
+     *
+     * @return future completed with the settled transaction
+     * @throws OverloadedException    if too many operations of the type are in progress
+     * @throws TaskRejectedException if the user's lane is full
+     */
+    public CompletableFuture<Transaction> process(WorkItem item) {
+        Transaction transaction = item.getTransaction();
+        String userId = transaction.getUserId();
+        AdmissionController.Permit permit = admissionController.admit(transaction.getType());
+        CompletableFuture<Transaction> processed = new CompletableFuture<>();
+        CompletableFuture<Transaction> previous = userTails.put(userId, processed);
+        processed.whenComplete((settled, error) -> userTails.remove(userId, processed));
+
+        if (previous == null || previous.isDone() && !previous.isCompletedExceptionally()) {
+            try {
+                runOnLane(item, permit, processed);
+            } catch (TaskRejectedException e) {
+                permit.cancel();
+                processed.completeExceptionally(e);
+                throw e;
+            }
+            return processed;
+        }
 
-            // Send failure notification
-            notificationService.sendDepositNotification(userId, transaction, false, e.getMessage());
+        previous.whenComplete((ignored, previousError) -> {
+            if (previousError != null) {
+                permit.cancel();
+                processed.completeExceptionally(new IllegalStateException(
+                    "An earlier work item of user " + userId + " failed", causeOf(previousError)));
+                return;
+            }
+            try {
+                runOnLane(item, permit, processed);
+            } catch (TaskRejectedException e) {
+                permit.cancel();
+                processed.completeExceptionally(e);
+            }
+        });
+        return processed;
+    }
 
-            log.error("Deposit failed for user: {}, transaction: {}, error: {}",
-                userId, transaction.getId(), e.getMessage());
+    private void runOnLane(WorkItem item, AdmissionController.Permit permit, CompletableFuture<Transaction> processed) {
+        transactionExecutor.execute(item.getTransaction().getUserId(), () -> {
+            permit.started();
+            try {
+                pipelineOf(item).whenComplete((settled, error) -> {
+                    permit.release();
+                    if (error == null) {
+                        processed.complete(settled);
+                    } else {
+                        processed.completeExceptionally(error);
+                    }
+                });
+            } catch (RuntimeException e) {
+                permit.release();
+                processed.completeExceptionally(e);
+            }
+        });
+    }
 
-            CompletableFuture.completedFuture(TransactionResponse.builder()
-                .transactionId(transaction.getId())
-                .status(TransactionStatus.FAILED)
-                .message("Deposit failed: " + e.getMessage())
-                .timestamp(LocalDateTime.now())
-                .build());
+    private CompletableFuture<Transaction> pipelineOf(WorkItem item) {
+        Transaction transaction = item.getTransaction();
+        if (item.getAttempts() > 1) {
+            // Redelivered after a lost lease or a failed attempt, the earlier attempt may have settled it
+            Transaction stored = transactionRepository.findById(transaction.getId()).orElse(transaction);
+            if (stored.getStatus() != TransactionStatus.PENDING) {
+                log.info("Transaction {} was already settled as {}", stored.getId(), stored.getStatus());
+                return CompletableFuture.completedFuture(stored);
+            }
+            return resume(transaction);
         }
+        return transaction.getType() == TransactionType.WITHDRAW ? withdraw(transaction) : deposit(transaction);
     }
 
     /**
-     * Process withdraw transaction asynchronously.
+     * Pipeline of a redelivered transaction that is still pending. The earlier attempt may
+     * have moved the money without storing the outcome, so the ledger entries of the
+     * transaction decide where to pick up: money is never moved twice for a transaction.
      */
-    @Async("taskExecutor")
-    public void processWithdraw(String userId, WithdrawRequest request) {
-        log.info("Processing withdraw for user: {}, amount: {} {}", userId, request.getAmount(), request.getCurrency());
-
-        Transaction transaction = createTransaction(userId, TransactionType.WITHDRAW, request.getCurrency(),
-            request.getAmount(), request.getDescription());
-
-        try {
-            // Check if sufficient funds are available
-            Account account = accountService.getAccountByUserIdAndCurrency(userId, request.getCurrency());
-            if (account.getBalance().compareTo(request.getAmount()) < 0) {
-                throw new InsufficientFundsException(
-                    String.format("Insufficient funds. Available: %s, Requested: %s", account.getBalance(), request.getAmount()));
+    private CompletableFuture<Transaction> resume(Transaction transaction) {
+        List<LedgerEntry> entries = accountService.getLedgerEntries(transaction.getUserId(), transaction.getId());
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+            if (recorded(entries, transaction.getCurrency(), 1)) {
+                log.info("Deposit {} was already credited, settling it", transaction.getId());
+                return complete(transaction).thenApplyAsync(this::notifySettled, paymentCallbackExecutor);
             }
+            return deposit(transaction);
+        }
 
-            // Simulate processing time (e.g., bank transfer)
-            Thread.sleep(1500);
+        if (recorded(entries, transaction.getCurrency(), 1)) {
+            log.info("Withdraw {} was already given back after a failed payout, settling it", transaction.getId());
+            return fail(transaction, "Payout failed, the reserved amount was returned")
+                .thenApplyAsync(this::notifySettled, paymentCallbackExecutor);
+        }
+        if (recorded(entries, transaction.getCurrency(), -1)) {
+            log.info("Withdraw {} was already reserved, resuming at the payout", transaction.getId());
+            return payOutReserved(transaction);
+        }
+        return withdraw(transaction);
+    }
 
-            // Subtract amount from specific currency account
-            accountService.subtractFromBalance(userId, request.getCurrency(), request.getAmount());
+    /**
+     * Whether the entries changed a balance in a direction.
+     *
+     * @param signum 1 for a credit, -1 for a debit
+     */
+    private static boolean recorded(List<LedgerEntry> entries, Currency currency, int signum) {
+        return entries.stream()
+            .map(entry -> entry.getAmounts().get(currency))
+            .anyMatch(amount -> amount != null && Long.signum(amount) == signum);
+    }
 
-            // Mark transaction as successful
-            transaction.setStatus(TransactionStatus.SUCCESS);
-            transaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
+    /**
+     * Pipeline of a deposit, returning once the payment is handed to the gateway.
+     */
+    CompletableFuture<Transaction> deposit(Transaction transaction) {
+        String userId = transaction.getUserId();
+        log.info("Processing deposit for user: {}, amount: {} {}", userId, transaction.getAmount(), transaction.getCurrency());
+
+        return paymentGateway.collect(transaction)
+            // Add amount to specific currency account once the money is collected
+            .thenRunAsync(() -> accountService.addToBalance(userId, transaction.getCurrency(), transaction.getAmount(),
+                transaction.getId()), paymentCallbackExecutor)
+            .handle((ignored, error) -> error == null ? complete(transaction) : fail(transaction, causeOf(error).getMessage()))
+            .thenCompose(Function.identity())
+            .thenApplyAsync(this::notifySettled, paymentCallbackExecutor);
+    }
 
-            // Send notification
-            notificationService.sendWithdrawNotification(userId, transaction, true, null);
+    /**
+     * Pipeline of a withdraw, returning once the payment is handed to the gateway.
+     */
+    CompletableFuture<Transaction> withdraw(Transaction transaction) {
+        String userId = transaction.getUserId();
+        log.info("Processing withdraw for user: {}, amount: {} {}", userId, transaction.getAmount(), transaction.getCurrency());
 
-            log.info("Withdraw processed successfully for user: {}, transaction: {}", userId, transaction.getId());
+        try {
+            // Reserve the amount on the lane, failing if funds are insufficient
+            accountService.subtractFromBalance(userId, transaction.getCurrency(), transaction.getAmount(), transaction.getId());
+        } catch (Exception e) {
+            return fail(transaction, e.getMessage()).thenApplyAsync(this::notifySettled, paymentCallbackExecutor);
+        }
+        return payOutReserved(transaction);
+    }
 
-            CompletableFuture.completedFuture(TransactionResponse.builder()
-                .transactionId(transaction.getId())
-                .status(TransactionStatus.SUCCESS)
-                .message("Withdraw processed successfully")
-                .timestamp(LocalDateTime.now())
-                .build());
+    /**
+     * Pay out a withdraw whose amount is reserved, giving the amount back if the payout fails.
+     */
+    private CompletableFuture<Transaction> payOutReserved(Transaction transaction) {
+        String userId = transaction.getUserId();
+        return paymentGateway.payOut(transaction)
+            .handleAsync((ignored, error) -> {
+                if (error == null) {
+                    return complete(transaction);
+                }
+                try {
+                    // Give back the reserved amount, the money never left
+                    accountService.addToBalance(userId, transaction.getCurrency(), transaction.getAmount(), transaction.getId());
+                } catch (RuntimeException e) {
+                    // Left unsettled, so the work item is retried once its lease expires
+                    log.error("Returning reserved amount failed for user: {}, transaction: {}, error: {}",
+                        userId, transaction.getId(), e.getMessage());
+                    throw e;
+                }
+                return fail(transaction, causeOf(error).getMessage());
+            }, paymentCallbackExecutor)
+            .thenCompose(Function.identity())
+            .thenApplyAsync(this::notifySettled, paymentCallbackExecutor);
+    }
 
-        } catch (Exception e) {
-            // Mark transaction as failed
-            transaction.setStatus(TransactionStatus.FAILED);
-            transaction.setErrorMessage(e.getMessage());
-            transaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(transaction);
+    private CompletableFuture<Transaction> complete(Transaction transaction) {
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        transaction.setProcessedAt(LocalDateTime.now());
+        return transactionWriteBatcher.save(transaction);
+    }
 
-            // Send failure notification
-            notificationService.sendWithdrawNotification(userId, transaction, false, e.getMessage());
+    private CompletableFuture<Transaction> fail(Transaction transaction, String errorMessage) {
+        transaction.setStatus(TransactionStatus.FAILED);
+        transaction.setErrorMessage(errorMessage);
+        transaction.setProcessedAt(LocalDateTime.now());
+        return transactionWriteBatcher.save(transaction);
+    }
 
-            log.error("Withdraw failed for user: {}, transaction: {}, error: {}",
-                userId, transaction.getId(), e.getMessage());
+    /**
+     * Notify the user once the outcome of a deposit or withdraw is stored.
+     */
+    private Transaction notifySettled(Transaction transaction) {
+        String userId = transaction.getUserId();
+        boolean success = transaction.getStatus() == TransactionStatus.SUCCESS;
+        if (transaction.getType() == TransactionType.DEPOSIT) {
+            notificationService.sendDepositNotification(userId, transaction, success, transaction.getErrorMessage());
+        } else {
+            notificationService.sendWithdrawNotification(userId, transaction, success, transaction.getErrorMessage());
+        }
+        if (success) {
+            log.info("{} processed successfully for user: {}, transaction: {}", transaction.getType(), userId, transaction.getId());
+        } else {
+            log.error("{} failed for user: {}, transaction: {}, error: {}",
+                transaction.getType(), userId, transaction.getId(), transaction.getErrorMessage());
+        }
+        return transaction;
+    }
 
-            CompletableFuture.completedFuture(TransactionResponse.builder()
-                .transactionId(transaction.getId())
-                .status(TransactionStatus.FAILED)
-                .message("Withdraw failed: " + e.getMessage())
-                .timestamp(LocalDateTime.now())
-                .build());
+    /**
+     * Wait for writes on the synchronous paths, rethrowing what failed them.
+     */
+    @SafeVarargs
+    private static void awaitWritten(CompletableFuture<Transaction>... writes) {
+        try {
+            CompletableFuture.allOf(writes).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
         }
     }
 
+    private static Throwable causeOf(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
     /**
      * Process currency exchange transaction (SYNCHRONOUS - no notifications needed).
      */
@@ -161,101 +339,88 @@ public class TransactionService {
         log.info("Processing exchange for user: {}, {} {} to {}",
             userId, request.getAmount(), request.getFromCurrency(), request.getToCurrency());
 
-        // Validate that currencies are different
-        if (request.getFromCurrency().equals(request.getToCurrency())) {
-            throw new IllegalArgumentException("Cannot exchange currency to the same currency: " + request.getFromCurrency());
-        }
-
-        BigDecimal exchangeRate = exchangeRateService.getExchangeRate(request.getFromCurrency(), request.getToCurrency());
-        BigDecimal convertedAmount = exchangeRateService.convertAmount(request.getAmount(),
-            request.getFromCurrency(), request.getToCurrency());
+        // Execute at the quoted rate, or price the exchange now with a single rate lookup
+        ExchangeQuote quote = request.getQuoteId() != null
+            ? exchangeQuoteService.redeemQuote(userId, request)
+            : exchangeQuoteService.priceExchange(request.getFromCurrency(), request.getToCurrency(), request.getAmount());
+        BigDecimal exchangeRate = quote.getExchangeRate();
+        BigDecimal convertedAmount = quote.getConvertedAmount();
 
-        Transaction fromTransaction = createExchangeTransaction(userId, TransactionType.EXCHANGE_FROM,
+        Transaction fromTransaction = exchangeTransaction(userId, TransactionType.EXCHANGE_FROM,
             request.getFromCurrency(), request.getAmount(), request.getToCurrency(), convertedAmount,
             exchangeRate, request.getDescription());
 
-        Transaction toTransaction = createExchangeTransaction(userId, TransactionType.EXCHANGE_TO,
+        Transaction toTransaction = exchangeTransaction(userId, TransactionType.EXCHANGE_TO,
             request.getToCurrency(), convertedAmount, request.getFromCurrency(), request.getAmount(),
             exchangeRate, request.getDescription());
 
+        RuntimeException failure = null;
         try {
-            // Check if sufficient funds are available in from-currency account
-            Account fromAccount = accountService.getAccountByUserIdAndCurrency(userId, request.getFromCurrency());
-            if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
-                // Mark transactions as failed before throwing exception
-                fromTransaction.setStatus(TransactionStatus.FAILED);
-                fromTransaction.setErrorMessage("Insufficient funds");
-                fromTransaction.setProcessedAt(LocalDateTime.now());
-                transactionRepository.save(fromTransaction);
-
-                toTransaction.setStatus(TransactionStatus.FAILED);
-                toTransaction.setErrorMessage("Insufficient funds");
-                toTransaction.setProcessedAt(LocalDateTime.now());
-                transactionRepository.save(toTransaction);
-
-                throw new InsufficientFundsException(
-                    String.format("Insufficient funds in %s account. Available: %s, Requested: %s", 
-                        request.getFromCurrency(), fromAccount.getBalance(), request.getAmount()));
-            }
-
-            // Perform the exchange
-            accountService.subtractFromBalance(userId, request.getFromCurrency(), request.getAmount());
-            accountService.addToBalance(userId, request.getToCurrency(), convertedAmount);
-
-            // Mark transactions as successful
-            fromTransaction.setStatus(TransactionStatus.SUCCESS);
-            fromTransaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(fromTransaction);
-
-            toTransaction.setStatus(TransactionStatus.SUCCESS);
-            toTransaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(toTransaction);
-
-            log.info("Exchange processed successfully for user: {}, from transaction: {}, to transaction: {}",
-                userId, fromTransaction.getId(), toTransaction.getId());
-
-            return TransactionResponse.builder()
-                .transactionId(fromTransaction.getId())
-                .status(TransactionStatus.SUCCESS)
-                .message(String.format("Exchange successful: %s %s to %s %s", 
-                    request.getAmount(), request.getFromCurrency(), 
-                    convertedAmount, request.getToCurrency()))
-                .timestamp(LocalDateTime.now())
-                .build();
-
-        } catch (InsufficientFundsException e) {
-            // Re-throw InsufficientFundsException to be handled by controller/global exception handler
-            log.error("Exchange failed for user: {}, error: {}", userId, e.getMessage());
-            throw e;
-        } catch (Exception e) {
-            // Mark transactions as failed for other exceptions
-            fromTransaction.setStatus(TransactionStatus.FAILED);
-            fromTransaction.setErrorMessage(e.getMessage());
-            fromTransaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(fromTransaction);
-
-            toTransaction.setStatus(TransactionStatus.FAILED);
-            toTransaction.setErrorMessage(e.getMessage());
-            toTransaction.setProcessedAt(LocalDateTime.now());
-            transactionRepository.save(toTransaction);
+            // Perform the exchange, failing if funds in the from-currency account are insufficient
+            accountService.exchange(userId, request.getFromCurrency(), request.getAmount(),
+                request.getToCurrency(), convertedAmount, fromTransaction.getId());
+        } catch (RuntimeException e) {
+            failure = e;
+        }
 
-            log.error("Exchange failed for user: {}, error: {}", userId, e.getMessage());
+        // Both legs are written once, with their outcome, in one ordered bulk write
+        String errorMessage = failure instanceof InsufficientFundsException ? "Insufficient funds"
+            : failure != null ? failure.getMessage() : null;
+        settle(fromTransaction, errorMessage);
+        settle(toTransaction, errorMessage);
+        transactionWriteBatcher.insertTogether(List.of(fromTransaction, toTransaction));
+
+        if (failure instanceof InsufficientFundsException insufficientFunds) {
+            // Re-throw to be handled by controller/global exception handler
+            log.error("Exchange failed for user: {}, error: {}", userId, failure.getMessage());
+            throw insufficientFunds;
+        }
+        if (failure != null) {
+            log.error("Exchange failed for user: {}, error: {}", userId, failure.getMessage());
 
             return TransactionResponse.builder()
                 .transactionId(fromTransaction.getId())
                 .status(TransactionStatus.FAILED)
-                .message("Exchange failed: " + e.getMessage())
+                .message("Exchange failed: " + failure.getMessage())
                 .timestamp(LocalDateTime.now())
                 .build();
         }
+
+        log.info("Exchange processed successfully for user: {}, from transaction: {}, to transaction: {}",
+            userId, fromTransaction.getId(), toTransaction.getId());
+
+        return TransactionResponse.builder()
+            .transactionId(fromTransaction.getId())
+            .status(TransactionStatus.SUCCESS)
+            .message(String.format("Exchange successful: %s %s to %s %s",
+                request.getAmount(), request.getFromCurrency(),
+                convertedAmount, request.getToCurrency()))
+            .timestamp(LocalDateTime.now())
+            .degraded(quote.isDegraded())
+            .build();
+    }
+
+    /**
+     * Record the outcome of an exchange leg.
+     *
+     * @param errorMessage why the exchange failed, or null if it succeeded
+     */
+    private static void settle(Transaction transaction, String errorMessage) {
+        transaction.setStatus(errorMessage == null ? TransactionStatus.SUCCESS : TransactionStatus.FAILED);
+        transaction.setErrorMessage(errorMessage);
+        transaction.setProcessedAt(LocalDateTime.now());
     }
 
     /**
-     * Create a transaction record.
+     * Store a pending transaction and its work item. The work item is written first and
+     * carries the whole transaction, so it alone makes the request durable: if the pending
+     * record is not written, the request is still accepted and the record is written when
+     * the work item settles. Nothing is left behind that no work item will settle.
      */
-    private Transaction createTransaction(String userId, TransactionType type, Currency currency,
-                                       BigDecimal amount, String description) {
+    private Transaction accept(String userId, TransactionType type, Currency currency,
+                               BigDecimal amount, String description) {
         Transaction transaction = Transaction.builder()
+            .id(new ObjectId().toHexString())
             .userId(userId)
             .type(type)
             .currency(currency)
@@ -265,16 +430,25 @@ public class TransactionService {
             .createdAt(LocalDateTime.now())
             .build();
 
-        return transactionRepository.save(transaction);
+        workItemOutbox.enqueue(transaction);
+        try {
+            awaitWritten(transactionWriteBatcher.insert(transaction));
+        } catch (RuntimeException e) {
+            log.warn("Writing pending transaction {} failed, it is written once its work item settles: {}",
+                transaction.getId(), e.getMessage());
+        }
+        return transaction;
     }
 
     /**
-     * Create an exchange transaction record.
+     * Build an exchange transaction record. Its ID is assigned up front so the balance
+     * update can reference it before the record is written.
      */
-    private Transaction createExchangeTransaction(String userId, TransactionType type, Currency currency,
+    private Transaction exchangeTransaction(String userId, TransactionType type, Currency currency,
                                                 BigDecimal amount, Currency targetCurrency, BigDecimal targetAmount,
                                                 BigDecimal exchangeRate, String description) {
-        Transaction transaction = Transaction.builder()
+        return Transaction.builder()
+            .id(new ObjectId().toHexString())
             .userId(userId)
             .type(type)
             .currency(currency)
@@ -282,11 +456,8 @@ public class TransactionService {
             .targetCurrency(targetCurrency)
             .targetAmount(targetAmount)
             .exchangeRate(exchangeRate)
-            .status(TransactionStatus.PENDING)
             .description(description)
             .createdAt(LocalDateTime.now())
             .build();
-
-        return transactionRepository.save(transaction);
     }
 }
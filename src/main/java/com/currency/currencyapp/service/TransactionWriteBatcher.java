@@ -0,0 +1,239 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Transaction;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for {@link Transaction} documents.
+ * Inserts and updates from concurrent operations are queued and written by one thread as a
+ * single ordered bulk write, once the batch is full or has lingered for a few milliseconds.
+ * A caller's future completes when the bulk write containing its document is acknowledged.
+ * Writes of the same transaction are applied in the order they were queued. A queued
+ * transaction is read when its batch is written, so callers must not change it until
+ * its future completes.
+ * A write rejected by the database fails only its own caller; the writes after it, which
+ * an ordered bulk write never attempted, are written again. Errors that reject no single
+ * write, e.g. a lost connection, are retried with backoff before the callers are failed.
+ */
+@Component
+@Slf4j
+public class TransactionWriteBatcher {
+
+    private static final int DUPLICATE_KEY_CODE = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final BlockingQueue<PendingWrite> queue = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public TransactionWriteBatcher(MongoTemplate mongoTemplate, MeterRegistry meterRegistry,
+                                   @Value("${transaction.write-batch.max-size:500}") int maxBatchSize,
+                                   @Value("${transaction.write-batch.linger-ms:2}") long lingerMs,
+                                   @Value("${transaction.write-batch.max-attempts:3}") int maxAttempts,
+                                   @Value("${transaction.write-batch.retry-backoff-ms:50}") long retryBackoffMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoffMs;
+        this.batchSizes = DistributionSummary.builder("transaction.write.batch.size")
+            .description("Transaction documents written per bulk write")
+            .register(meterRegistry);
+        this.writer = new Thread(this::writeLoop, "TransactionWriter");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a new transaction for insertion, assigning its ID right away.
+     *
+     * @return future completed with the transaction once it is stored
+     */
+    public CompletableFuture<Transaction> insert(Transaction transaction) {
+        if (transaction.getId() == null) {
+            transaction.setId(new ObjectId().toHexString());
+        }
+        return enqueue(transaction, true);
+    }
+
+    /**
+     * Queue a stored transaction to be replaced with its current state.
+     *
+     * @return future completed with the transaction once it is stored
+     */
+    public CompletableFuture<Transaction> save(Transaction transaction) {
+        return enqueue(transaction, false);
+    }
+
+    /**
+     * Insert related transactions together in one ordered bulk write on the caller's thread,
+     * for synchronous paths that should not linger for a batch. Either all are stored or
+     * the write fails before any later one of them.
+     */
+    public void insertTogether(List<Transaction> transactions) {
+        for (Transaction transaction : transactions) {
+            if (transaction.getId() == null) {
+                transaction.setId(new ObjectId().toHexString());
+            }
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class).insert(transactions).execute();
+        batchSizes.record(transactions.size());
+    }
+
+    private CompletableFuture<Transaction> enqueue(Transaction transaction, boolean insert) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Transaction writer is stopped"));
+        }
+        PendingWrite write = new PendingWrite(transaction, insert);
+        queue.add(write);
+        return write.written;
+    }
+
+    private void writeLoop() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    PendingWrite next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Write a batch in ordered bulk writes until every write is stored or failed.
+     * A write rejected by the database fails alone and the writes after it are written in
+     * the next bulk write, keeping their order. Other errors are retried with the remaining
+     * writes, and fail them once the attempts are used up.
+     */
+    void write(List<PendingWrite> batch) {
+        List<PendingWrite> remaining = batch;
+        int attempt = 1;
+        while (!remaining.isEmpty()) {
+            RuntimeException failure;
+            try {
+                execute(remaining);
+                remaining.forEach(PendingWrite::complete);
+                return;
+            } catch (BulkOperationException e) {
+                failure = e;
+                if (!e.getErrors().isEmpty()) {
+                    int failedAt = e.getErrors().get(0).getIndex();
+                    remaining.subList(0, failedAt).forEach(PendingWrite::complete);
+                    PendingWrite failed = remaining.get(failedAt);
+                    if (attempt > 1 && failed.insert && e.getErrors().get(0).getCode() == DUPLICATE_KEY_CODE) {
+                        // Stored by the earlier attempt that failed without telling which writes it applied
+                        failed.complete();
+                    } else {
+                        log.error("Writing transaction {} failed: {}", failed.transaction.getId(), e.getMessage());
+                        failed.written.completeExceptionally(e);
+                    }
+                    remaining = remaining.subList(failedAt + 1, remaining.size());
+                    continue;
+                }
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+
+            if (attempt >= maxAttempts || !backOff(attempt)) {
+                log.error("Writing {} transactions failed after {} attempts: {}", remaining.size(), attempt, failure.getMessage());
+                for (PendingWrite write : remaining) {
+                    write.written.completeExceptionally(failure);
+                }
+                return;
+            }
+            log.warn("Writing {} transactions failed, retrying: {}", remaining.size(), failure.getMessage());
+            attempt++;
+        }
+    }
+
+    private void execute(List<PendingWrite> writes) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class);
+        for (PendingWrite write : writes) {
+            if (write.insert) {
+                bulk.insert(write.transaction);
+            } else {
+                bulk.replaceOne(Query.query(Criteria.where("_id").is(write.transaction.getId())), write.transaction,
+                    FindAndReplaceOptions.options().upsert());
+            }
+        }
+        batchSizes.record(writes.size());
+        bulk.execute();
+    }
+
+    /**
+     * Wait before the next attempt, doubling the backoff with each attempt.
+     *
+     * @return false if interrupted
+     */
+    private boolean backOff(int attempt) {
+        try {
+            Thread.sleep(retryBackoffMs << Math.min(attempt - 1, 10));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+            return false;
+        }
+    }
+
+    /**
+     * Stop accepting writes and wait for the queued ones to be written.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    record PendingWrite(Transaction transaction, boolean insert, CompletableFuture<Transaction> written) {
+
+        PendingWrite(Transaction transaction, boolean insert) {
+            this(transaction, insert, new CompletableFuture<>());
+        }
+
+        void complete() {
+            written.complete(transaction);
+        }
+    }
+}
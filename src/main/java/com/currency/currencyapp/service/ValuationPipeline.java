@@ -0,0 +1,102 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.BalanceValuation;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.Money;
+import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregation expressions shared by the balance store valuations.
+ * Conversions run in Decimal128 and round half up per balance, so the database arrives at
+ * the same total as {@link Money#convert(long, long, Currency, Currency)} summed in Java.
+ * Non-zero balances without a rate are counted next to the total, and reading such a result
+ * fails like the conversion in Java does.
+ */
+final class ValuationPipeline {
+
+    private static final Decimal128 HALF = new Decimal128(new BigDecimal("0.5"));
+
+    private ValuationPipeline() {
+    }
+
+    /**
+     * Expression converting a balance into minor units of the valuation currency.
+     * Balances in currencies without a rate add nothing, see {@link #unrated(Object, Object, Map)}.
+     *
+     * @param currency     expression resolving to the currency name of the balance
+     * @param balanceMinor expression resolving to the balance in minor units
+     * @param target       the valuation currency
+     * @param fixedRates   rate into the valuation currency per currency, see {@link Money#toFixedRate(BigDecimal)}
+     */
+    static Document convertedMinor(Object currency, Object balanceMinor, Currency target, Map<Currency, Long> fixedRates) {
+        List<Document> branches = new ArrayList<>();
+        fixedRates.forEach((from, fixedRate) -> {
+            // Rate from minor units to minor units, so no rescaling is left for the database
+            BigDecimal factor = BigDecimal.valueOf(fixedRate, Money.RATE_DIGITS)
+                .movePointRight(target.getMinorUnitDigits() - from.getMinorUnitDigits());
+            branches.add(new Document("case", new Document("$eq", List.of(currency, from.name())))
+                .append("then", new Decimal128(factor)));
+        });
+        Document factor = new Document("$switch", new Document("branches", branches)
+            .append("default", new Decimal128(BigDecimal.ZERO)));
+
+        Document converted = new Document("$multiply", List.of(new Document("$toDecimal", balanceMinor), factor));
+        Document roundedAbs = new Document("$floor", new Document("$add", List.of(new Document("$abs", "$$converted"), HALF)));
+        return new Document("$let", new Document("vars", new Document("converted", converted))
+            .append("in", new Document("$cond", List.of(
+                new Document("$lt", List.of("$$converted", 0)),
+                new Document("$multiply", List.of(roundedAbs, -1)),
+                roundedAbs))));
+    }
+
+    /**
+     * Expression resolving to 1 for a non-zero balance in a currency without a rate, else 0.
+     *
+     * @param currency     expression resolving to the currency name of the balance
+     * @param balanceMinor expression resolving to the balance in minor units
+     * @param fixedRates   rate into the valuation currency per currency
+     */
+    static Document unrated(Object currency, Object balanceMinor, Map<Currency, Long> fixedRates) {
+        List<String> rated = new ArrayList<>();
+        fixedRates.keySet().forEach(from -> rated.add(from.name()));
+        return new Document("$cond", List.of(
+            new Document("$and", List.of(
+                new Document("$ne", List.of(balanceMinor, 0)),
+                new Document("$not", List.of(new Document("$in", List.of(currency, rated)))))),
+            1, 0));
+    }
+
+    /**
+     * Read a valuation from a result document with {@code _id}, {@code balances},
+     * {@code total}, {@code unrated} and {@code version} fields.
+     *
+     * @param currency the valuation currency
+     * @throws ExchangeRateNotAvailableException if a non-zero balance had no rate
+     */
+    static BalanceValuation valuationOf(Document result, Currency currency) {
+        Map<Currency, Long> balances = new EnumMap<>(Currency.class);
+        Document stored = result.get("balances", Document.class);
+        if (stored != null) {
+            stored.forEach((name, balance) -> balances.put(Currency.valueOf(name), ((Number) balance).longValue()));
+        }
+        Number unrated = (Number) result.get("unrated");
+        if (unrated != null && unrated.longValue() > 0) {
+            throw new ExchangeRateNotAvailableException(
+                "Exchange rate not available for a balance of user " + result.getString("_id") + " into " + currency);
+        }
+        return BalanceValuation.builder()
+            .userId(result.getString("_id"))
+            .balances(balances)
+            .totalMinor(((Number) result.get("total")).longValue())
+            .version(((Number) result.get("version")).longValue())
+            .build();
+    }
+}
@@ -0,0 +1,276 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.BalanceValuation;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import com.currency.currencyapp.domain.Money;
+import com.currency.currencyapp.domain.Wallet;
+import com.currency.currencyapp.exception.AccountNotFoundException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Balances stored as one {@link Wallet} document per user.
+ * Every operation, including an exchange between two currencies, is a single atomic
+ * update of that document, and is retried as a whole on write conflicts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "balance.layout", havingValue = "wallet")
+public class WalletBalanceStore implements BalanceStore {
+
+    private static final String VERSION_FIELD = "version";
+    private static final String PENDING_ENTRIES_FIELD = "pendingEntries";
+
+    private final MongoTemplate mongoTemplate;
+    private final ConflictRetryPolicy conflictRetryPolicy;
+
+    @Override
+    public BalanceSnapshot getSnapshot(String userId) {
+        Wallet wallet = findWallet(userId);
+        return wallet != null ? snapshotOf(wallet) : new BalanceSnapshot(userId, new HashMap<>(), new HashMap<>(), true);
+    }
+
+    /**
+     * Incrementing by zero adds missing currencies with a zero balance and leaves existing
+     * balances untouched, so creation is one upsert regardless of what already exists.
+     */
+    @Override
+    public BalanceSnapshot createAccounts(String userId, Collection<Currency> currencies) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .setOnInsert(VERSION_FIELD, 0L)
+                .setOnInsert("createdAt", now)
+                .setOnInsert("updatedAt", now);
+        for (Currency currency : currencies) {
+            update.inc(balanceField(currency), 0L);
+        }
+
+        Wallet wallet = upsert(walletQuery(userId), update);
+        log.info("Ensured {} balances in wallet of user: {}", currencies, userId);
+        return snapshotOf(wallet);
+    }
+
+    /**
+     * A transaction that already credited the wallet leaves it as is, see {@link LedgerGuard}.
+     */
+    @Override
+    public BalanceSnapshot credit(String userId, Currency currency, long amountMinor, String transactionId) {
+        if (mongoTemplate.exists(LedgerGuard.appended(userId, currency, transactionId, 1), LedgerEntry.class)) {
+            return alreadyRecorded(userId, currency, transactionId);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+                .inc(balanceField(currency), amountMinor)
+                .inc(VERSION_FIELD, 1)
+                .push(PENDING_ENTRIES_FIELD, LedgerEntry.pending(userId, userId, Map.of(currency, amountMinor), transactionId))
+                .set("updatedAt", now)
+                .setOnInsert("createdAt", now);
+
+        Query query = walletQuery(userId).addCriteria(LedgerGuard.notPending(currency, transactionId, 1));
+        Wallet wallet = conflictRetryPolicy.execute(userId, currency, () -> upsert(query, update));
+        return wallet != null ? snapshotOf(wallet) : alreadyRecorded(userId, currency, transactionId);
+    }
+
+    /**
+     * A transaction that already debited the wallet leaves it as is, see {@link LedgerGuard}.
+     */
+    @Override
+    public BalanceSnapshot debit(String userId, Currency currency, long amountMinor, String transactionId) {
+        if (mongoTemplate.exists(LedgerGuard.appended(userId, currency, transactionId, -1), LedgerEntry.class)) {
+            return alreadyRecorded(userId, currency, transactionId);
+        }
+        Query query = walletQuery(userId)
+                .addCriteria(Criteria.where(balanceField(currency)).gte(amountMinor))
+                .addCriteria(LedgerGuard.notPending(currency, transactionId, -1));
+        Update update = new Update()
+                .inc(balanceField(currency), -amountMinor)
+                .inc(VERSION_FIELD, 1)
+                .push(PENDING_ENTRIES_FIELD, LedgerEntry.pending(userId, userId, Map.of(currency, -amountMinor), transactionId))
+                .set("updatedAt", LocalDateTime.now());
+
+        Wallet wallet = conflictRetryPolicy.execute(userId, currency, () -> mongoTemplate.findAndModify(withoutPendingEntries(query), update,
+                FindAndModifyOptions.options().returnNew(true), Wallet.class));
+        if (wallet != null) {
+            return snapshotOf(wallet);
+        }
+        if (mongoTemplate.exists(walletQuery(userId).addCriteria(LedgerGuard.pending(currency, transactionId, -1)), Wallet.class)) {
+            return alreadyRecorded(userId, currency, transactionId);
+        }
+        throw rejectedDebit(userId, currency, amountMinor);
+    }
+
+    /**
+     * Both legs are applied by one update guarded by the from balance, so an exchange is
+     * either fully applied or not at all.
+     */
+    @Override
+    public BalanceSnapshot exchange(String userId, Currency from, long fromMinor, Currency to, long toMinor,
+                                    String transactionId) {
+        Query query = walletQuery(userId).addCriteria(Criteria.where(balanceField(from)).gte(fromMinor));
+        Update update = new Update()
+                .inc(balanceField(from), -fromMinor)
+                .inc(balanceField(to), toMinor)
+                .inc(VERSION_FIELD, 1)
+                .push(PENDING_ENTRIES_FIELD, LedgerEntry.pending(userId, userId, Map.of(from, -fromMinor, to, toMinor), transactionId))
+                .set("updatedAt", LocalDateTime.now());
+
+        Wallet wallet = conflictRetryPolicy.execute(userId, from, () -> mongoTemplate.findAndModify(withoutPendingEntries(query), update,
+                FindAndModifyOptions.options().returnNew(true), Wallet.class));
+        if (wallet == null) {
+            throw rejectedDebit(userId, from, fromMinor);
+        }
+        return snapshotOf(wallet);
+    }
+
+    /**
+     * Each wallet already holds all balances of its user, so the valuation is a projection
+     * over the balances object.
+     */
+    @Override
+    public List<BalanceValuation> valuate(Collection<String> userIds, Currency currency, Map<Currency, Long> fixedRates) {
+        Document entries = new Document("$objectToArray", "$balances");
+        List<Document> pipeline = List.of(
+            new Document("$match", new Document("_id", new Document("$in", userIds))),
+            new Document("$project", new Document("balances", 1)
+                .append("total", new Document("$toLong", new Document("$sum", new Document("$map",
+                    new Document("input", entries)
+                        .append("as", "balance")
+                        .append("in", ValuationPipeline.convertedMinor("$$balance.k", "$$balance.v", currency, fixedRates))))))
+                .append("unrated", new Document("$sum", new Document("$map",
+                    new Document("input", entries)
+                        .append("as", "balance")
+                        .append("in", ValuationPipeline.unrated("$$balance.k", "$$balance.v", fixedRates)))))
+                // Every balance shares the wallet version, as in the snapshots
+                .append("version", new Document("$multiply", List.of(
+                    new Document("$ifNull", List.of("$" + VERSION_FIELD, 0L)), new Document("$size", entries))))));
+
+        List<BalanceValuation> valuations = new ArrayList<>();
+        for (Document result : mongoTemplate.getCollection(mongoTemplate.getCollectionName(Wallet.class)).aggregate(pipeline)) {
+            valuations.add(ValuationPipeline.valuationOf(result, currency));
+        }
+        return valuations;
+    }
+
+    @Override
+    public List<LedgerEntry> findEntries(String userId, String transactionId) {
+        Query query = Query.query(Criteria.where("_id").is(userId).and(PENDING_ENTRIES_FIELD + ".transactionId").is(transactionId));
+        query.fields().include(PENDING_ENTRIES_FIELD);
+        Map<String, LedgerEntry> entries = new LinkedHashMap<>();
+        for (Wallet wallet : mongoTemplate.find(query, Wallet.class)) {
+            wallet.getPendingEntries().stream()
+                    .filter(entry -> transactionId.equals(entry.getTransactionId()))
+                    .forEach(entry -> entries.put(entry.getId(), entry));
+        }
+        // Read after the pending entries, since an entry is only pulled from them once appended
+        mongoTemplate.find(Query.query(Criteria.where("transactionId").is(transactionId).and("userId").is(userId)),
+                LedgerEntry.class).forEach(entry -> entries.putIfAbsent(entry.getId(), entry));
+        return new ArrayList<>(entries.values());
+    }
+
+    @Override
+    public String getLedgerStreamCollection() {
+        return mongoTemplate.getCollectionName(Wallet.class);
+    }
+
+    /**
+     * One ledger stream per wallet, identified by the user ID.
+     */
+    @Override
+    public List<LedgerSnapshot> getLedgerHeads(String userId) {
+        Wallet wallet = findWallet(userId);
+        if (wallet == null) {
+            return List.of();
+        }
+        return List.of(new LedgerSnapshot(userId, userId, wallet.getVersion() != null ? wallet.getVersion() : 0L,
+                new HashMap<>(wallet.getBalances()), LocalDateTime.now()));
+    }
+
+    /**
+     * The version is left as is, it stays the sequence of the last entry.
+     */
+    @Override
+    public boolean restoreLedgerHead(LedgerSnapshot rebuilt) {
+        Query query = walletQuery(rebuilt.getUserId()).addCriteria(Criteria.where(VERSION_FIELD).is(rebuilt.getSequence()));
+        Update update = new Update().set("updatedAt", LocalDateTime.now());
+        rebuilt.getBalances().forEach((currency, balance) -> update.set(balanceField(currency), balance));
+        return mongoTemplate.updateFirst(query, update, Wallet.class).getMatchedCount() > 0;
+    }
+
+    private Wallet findWallet(String userId) {
+        return mongoTemplate.findOne(withoutPendingEntries(walletQuery(userId)), Wallet.class);
+    }
+
+    private Wallet upsert(Query query, Update update) {
+        try {
+            return mongoTemplate.findAndModify(withoutPendingEntries(query), update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Wallet.class);
+        } catch (DuplicateKeyException e) {
+            // A concurrent first operation created the wallet, the retry updates it
+            return mongoTemplate.findAndModify(withoutPendingEntries(query), update,
+                    FindAndModifyOptions.options().returnNew(true), Wallet.class);
+        }
+    }
+
+    private BalanceSnapshot alreadyRecorded(String userId, Currency currency, String transactionId) {
+        log.info("Transaction {} already changed the {} balance of user: {}, leaving it as is", transactionId, currency, userId);
+        return getSnapshot(userId);
+    }
+
+    /**
+     * Read the wallet after a rejected debit to report why it was rejected.
+     */
+    private RuntimeException rejectedDebit(String userId, Currency currency, long amountMinor) {
+        Long available = getSnapshot(userId).getBalances().get(currency);
+        if (available == null) {
+            return new AccountNotFoundException("Account not found for user: " + userId + " and currency: " + currency);
+        }
+        return new InsufficientFundsException(String.format("Insufficient funds in %s account. Available: %s, Requested: %s",
+                currency, Money.toDecimal(available, currency), Money.toDecimal(amountMinor, currency)));
+    }
+
+    /**
+     * Every balance of a wallet shares the wallet version.
+     */
+    private static BalanceSnapshot snapshotOf(Wallet wallet) {
+        Map<Currency, Long> balances = new HashMap<>(wallet.getBalances());
+        Map<Currency, Long> versions = new HashMap<>();
+        long version = wallet.getVersion() != null ? wallet.getVersion() : 0L;
+        balances.keySet().forEach(currency -> versions.put(currency, version));
+        return new BalanceSnapshot(wallet.getUserId(), balances, versions, true);
+    }
+
+    private static Query withoutPendingEntries(Query query) {
+        query.fields().exclude(PENDING_ENTRIES_FIELD);
+        return query;
+    }
+
+    private static Query walletQuery(String userId) {
+        return Query.query(Criteria.where("_id").is(userId));
+    }
+
+    private static String balanceField(Currency currency) {
+        return "balances." + currency.name();
+    }
+}
@@ -0,0 +1,64 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.Wallet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Copies per-currency {@link Account} documents into {@link Wallet} documents at startup
+ * when the wallet layout is enabled.
+ * The copy runs as one server-side aggregation merging into the wallets collection and
+ * never overwrites an existing wallet, so it is idempotent and safe to run on every start.
+ * The accounts collection is left untouched so the layout can be switched back.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(value = "balance.layout", havingValue = "wallet")
+@ConditionalOnProperty(value = "balance.wallet.migration.enabled", havingValue = "true", matchIfMissing = true)
+public class WalletMigration implements ApplicationRunner {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long before = mongoTemplate.estimatedCount(Wallet.class);
+        migrateAccounts();
+        long created = mongoTemplate.estimatedCount(Wallet.class) - before;
+        if (created > 0) {
+            log.info("Migrated accounts of {} users to wallets", created);
+        }
+    }
+
+    /**
+     * Group the accounts of each user into a wallet and insert the wallets that do not
+     * exist yet.
+     */
+    void migrateAccounts() {
+        List<Document> pipeline = List.of(
+            new Document("$group", new Document("_id", "$userId")
+                .append("balances", new Document("$push",
+                    new Document("k", "$currency").append("v", "$balanceMinor")))
+                .append("createdAt", new Document("$min", "$createdAt"))
+                .append("updatedAt", new Document("$max", "$updatedAt"))),
+            new Document("$set", new Document("balances", new Document("$arrayToObject", "$balances"))
+                .append("version", 0L)),
+            new Document("$merge", new Document("into", mongoTemplate.getCollectionName(Wallet.class))
+                .append("on", "_id")
+                .append("whenMatched", "keepExisting")
+                .append("whenNotMatched", "insert")));
+
+        mongoTemplate.getCollection(mongoTemplate.getCollectionName(Account.class))
+            .aggregate(pipeline)
+            .toCollection();
+    }
+}
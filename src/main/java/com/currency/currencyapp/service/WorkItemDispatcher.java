@@ -0,0 +1,123 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.WorkItem;
+import com.currency.currencyapp.exception.OverloadedException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Claims work items from the outbox in batches and hands them to the transaction lanes.
+ * Items this node has no room for are released for other nodes or a later poll, together
+ * with the later items of the same user, so a user's items are never reordered. Processed
+ * items are removed from the outbox in one write per poll.
+ * The leases of dispatched items are renewed until they are processed, including items
+ * waiting for an earlier item of their user, so no item is redelivered while it runs here.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(value = "outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class WorkItemDispatcher {
+
+    private final WorkItemOutbox workItemOutbox;
+    private final TransactionService transactionService;
+    private final int batchSize;
+    private final Queue<WorkItem> processed = new ConcurrentLinkedQueue<>();
+    private final Map<String, WorkItem> inProgress = new ConcurrentHashMap<>(); // Dispatched items by ID
+
+    public WorkItemDispatcher(WorkItemOutbox workItemOutbox, TransactionService transactionService,
+                              @Value("${outbox.batch-size:100}") int batchSize) {
+        this.workItemOutbox = workItemOutbox;
+        this.transactionService = transactionService;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Dispatch claimable items until the outbox is drained or this node is saturated.
+     */
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:100}")
+    public void dispatch() {
+        try {
+            while (dispatchBatch()) {
+                // A full batch was taken, more items may be waiting
+            }
+        } catch (RuntimeException e) {
+            log.warn("Dispatching work items failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claim and dispatch one batch, and remove items processed since the last batch.
+     *
+     * @return true if the batch was full and taken completely
+     */
+    public boolean dispatchBatch() {
+        completeProcessed();
+
+        List<WorkItem> claimed = workItemOutbox.claim(batchSize);
+        List<WorkItem> declined = new ArrayList<>();
+        Set<String> declinedUsers = new HashSet<>();
+        for (WorkItem item : claimed) {
+            String userId = item.getTransaction().getUserId();
+            if (declinedUsers.contains(userId)) {
+                declined.add(item);
+                continue;
+            }
+            try {
+                CompletableFuture<Transaction> pipeline = transactionService.process(item);
+                inProgress.put(item.getId(), item);
+                pipeline.whenComplete((transaction, error) -> {
+                    inProgress.remove(item.getId(), item);
+                    if (error == null) {
+                        processed.add(item);
+                    } else {
+                        // Left to its lease, so it is retried once the lease expires
+                        log.error("Work item {} failed: {}", item.getId(), error.getMessage());
+                    }
+                });
+            } catch (OverloadedException | TaskRejectedException e) {
+                declined.add(item);
+                declinedUsers.add(userId);
+            }
+        }
+        if (!declined.isEmpty()) {
+            log.debug("Released {} of {} claimed work items, node is saturated", declined.size(), claimed.size());
+            workItemOutbox.release(declined);
+        }
+        return claimed.size() == batchSize && declined.isEmpty();
+    }
+
+    /**
+     * Extend the leases of items dispatched and not yet processed, well before they expire.
+     */
+    @Scheduled(fixedDelayString = "${outbox.lease-renewal-interval-ms:20000}")
+    public void renewLeases() {
+        try {
+            workItemOutbox.renew(List.copyOf(inProgress.values()));
+        } catch (RuntimeException e) {
+            log.warn("Renewing work item leases failed: {}", e.getMessage());
+        }
+    }
+
+    private void completeProcessed() {
+        List<WorkItem> done = new ArrayList<>();
+        for (WorkItem item = processed.poll(); item != null; item = processed.poll()) {
+            done.add(item);
+        }
+        workItemOutbox.complete(done);
+    }
+}
@@ -0,0 +1,143 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.WorkItem;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Durable queue of accepted deposits and withdrawals, kept in MongoDB.
+ * Items are claimed in batches under a lease with two writes per batch, regardless of the
+ * batch size, and removed once processed. The lease of items still being processed is
+ * renewed, so a slow item is not claimed again while its first attempt is running.
+ * Items of a user are claimed oldest first, and not while another item of the user is
+ * leased, so a user's items are normally processed in order by one node. Two nodes
+ * claiming at the same moment can still each take items of one user; their order then
+ * only holds within each node.
+ */
+@Component
+@Slf4j
+public class WorkItemOutbox {
+
+    private static final String LEASE_EXPIRES_AT_FIELD = "leaseExpiresAt";
+    private static final String CLAIM_ID_FIELD = "claimId";
+    private static final String CREATED_AT_FIELD = "createdAt";
+    private static final String USER_ID_FIELD = "transaction.userId";
+
+    private final MongoTemplate mongoTemplate;
+    private final Duration lease;
+
+    public WorkItemOutbox(MongoTemplate mongoTemplate, @Value("${outbox.lease-seconds:60}") long leaseSeconds) {
+        this.mongoTemplate = mongoTemplate;
+        this.lease = Duration.ofSeconds(leaseSeconds);
+    }
+
+    /**
+     * Store a pending transaction for processing, claimable right away.
+     */
+    public WorkItem enqueue(Transaction transaction) {
+        LocalDateTime now = LocalDateTime.now();
+        return mongoTemplate.insert(WorkItem.builder()
+            .id(transaction.getId())
+            .transaction(transaction)
+            .leaseExpiresAt(now)
+            .createdAt(now)
+            .build());
+    }
+
+    /**
+     * Claim up to a number of claimable items, oldest first, skipping users with a leased item.
+     * Candidates are read first and then leased in one update guarded by their lease, so
+     * items leased by another worker in between are not claimed twice.
+     *
+     * @param limit maximum number of items to claim
+     * @return the claimed items, in the order they were accepted
+     */
+    public List<WorkItem> claim(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> busyUsers = mongoTemplate.findDistinct(Query.query(Criteria.where(LEASE_EXPIRES_AT_FIELD).gt(now)),
+            USER_ID_FIELD, WorkItem.class, String.class);
+        Query claimable = Query.query(Criteria.where(LEASE_EXPIRES_AT_FIELD).lte(now).and(USER_ID_FIELD).nin(busyUsers))
+            .with(Sort.by(CREATED_AT_FIELD, "_id"))
+            .limit(limit);
+        claimable.fields().include("_id");
+        List<Object> candidates = mongoTemplate.find(claimable, WorkItem.class).stream()
+            .map(item -> (Object) item.getId())
+            .toList();
+        if (candidates.isEmpty()) {
+            return List.of();
+        }
+
+        String claimId = UUID.randomUUID().toString();
+        mongoTemplate.updateMulti(
+            Query.query(Criteria.where("_id").in(candidates).and(LEASE_EXPIRES_AT_FIELD).lte(now)),
+            new Update()
+                .set(CLAIM_ID_FIELD, claimId)
+                .set(LEASE_EXPIRES_AT_FIELD, now.plus(lease))
+                .inc("attempts", 1),
+            WorkItem.class);
+        return mongoTemplate.find(Query.query(Criteria.where(CLAIM_ID_FIELD).is(claimId)).with(Sort.by(CREATED_AT_FIELD, "_id")),
+            WorkItem.class);
+    }
+
+    /**
+     * Make claimed items claimable again right away, e.g. when this node cannot take them.
+     */
+    public void release(Collection<WorkItem> items) {
+        for (WorkItem item : items) {
+            mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(item.getId()).and(CLAIM_ID_FIELD).is(item.getClaimId())),
+                new Update().set(LEASE_EXPIRES_AT_FIELD, LocalDateTime.now()),
+                WorkItem.class);
+        }
+    }
+
+    /**
+     * Extend the lease of items still held by their claims, in one write.
+     *
+     * @return number of items whose lease was extended
+     */
+    public long renew(Collection<WorkItem> items) {
+        if (items.isEmpty()) {
+            return 0;
+        }
+        long renewed = mongoTemplate.updateMulti(Query.query(new Criteria().orOperator(claimed(items))),
+            new Update().set(LEASE_EXPIRES_AT_FIELD, LocalDateTime.now().plus(lease)),
+            WorkItem.class).getModifiedCount();
+        if (renewed < items.size()) {
+            log.warn("{} work items in progress had lost their lease", items.size() - renewed);
+        }
+        return renewed;
+    }
+
+    /**
+     * Remove processed items still held by the claims that processed them.
+     */
+    public void complete(Collection<WorkItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        long removed = mongoTemplate.remove(Query.query(new Criteria().orOperator(claimed(items))), WorkItem.class).getDeletedCount();
+        if (removed < items.size()) {
+            log.warn("{} processed work items had lost their lease", items.size() - removed);
+        }
+    }
+
+    private static Criteria[] claimed(Collection<WorkItem> items) {
+        return items.stream()
+            .map(item -> Criteria.where("_id").is(item.getId()).and(CLAIM_ID_FIELD).is(item.getClaimId()))
+            .toArray(Criteria[]::new);
+    }
+}
@@ -0,0 +1,87 @@
+package com.currency.currencyapp.util;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Minimal circuit breaker for calls to an unreliable dependency.
+ * After a number of consecutive failures the breaker opens and rejects calls until the
+ * open duration has elapsed; then a single trial call is let through (half-open), whose
+ * outcome either closes the breaker again or reopens it.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean trialInProgress;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this(failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Check whether a call may be attempted. Moves an expired open breaker to half-open
+     * and admits exactly one trial call while half-open.
+     *
+     * @return true if the call may proceed
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN && !clock.instant().isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            trialInProgress = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInProgress) {
+                return false;
+            }
+            trialInProgress = true;
+            return true;
+        }
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Record a successful call, closing the breaker.
+     */
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInProgress = false;
+    }
+
+    /**
+     * Record a failed call, opening the breaker once the threshold is reached
+     * or immediately if the failed call was the half-open trial.
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+            trialInProgress = false;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
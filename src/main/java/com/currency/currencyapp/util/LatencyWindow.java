@@ -0,0 +1,45 @@
+package com.currency.currencyapp.util;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Sliding window over the most recent latencies of an operation, answering percentiles.
+ */
+public class LatencyWindow {
+
+    private final RingBuffer<Long> samples;
+
+    public LatencyWindow(int capacity) {
+        this.samples = new RingBuffer<>(capacity);
+    }
+
+    /**
+     * Record a latency.
+     *
+     * @param latency the observed latency
+     */
+    public void record(Duration latency) {
+        samples.add(latency.toNanos());
+    }
+
+    /**
+     * Get a latency percentile over the window using the nearest-rank method.
+     *
+     * @param percentile the percentile, between 0 and 1
+     * @return the percentile, or null if nothing was recorded
+     */
+    public Duration percentile(double percentile) {
+        List<Long> sorted = samples.toList();
+        if (sorted.isEmpty()) {
+            return null;
+        }
+        sorted.sort(null);
+        int rank = (int) Math.ceil(percentile * sorted.size());
+        return Duration.ofNanos(sorted.get(Math.max(rank, 1) - 1));
+    }
+
+    public int size() {
+        return samples.size();
+    }
+}
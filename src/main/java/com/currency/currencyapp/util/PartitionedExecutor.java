@@ -0,0 +1,102 @@
+package com.currency.currencyapp.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor that hashes a partition key onto a fixed set of single-threaded lanes.
+ * Tasks with the same key always run on the same lane, one after another and in
+ * submission order, while tasks with different keys run in parallel across lanes.
+ * Each lane has a bounded queue; a task submitted to a full lane is rejected.
+ */
+@Slf4j
+public class PartitionedExecutor {
+
+    private final ThreadPoolExecutor[] lanes;
+
+    public PartitionedExecutor(String threadNamePrefix, int laneCount, int queueCapacity) {
+        if (laneCount < 1) {
+            throw new IllegalArgumentException("Lane count must be at least 1");
+        }
+        lanes = new ThreadPoolExecutor[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            String threadName = threadNamePrefix + i;
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), task -> new Thread(task, threadName));
+        }
+    }
+
+    /**
+     * Run a task on the lane of its key, after all tasks submitted earlier for that key.
+     *
+     * @param key  the partition key, e.g. the user ID
+     * @param task the task to run
+     * @throws TaskRejectedException if the lane queue is full or the executor is shut down
+     */
+    public void execute(Object key, Runnable task) {
+        int lane = laneFor(key);
+        try {
+            lanes[lane].execute(() -> runSafely(lane, task));
+        } catch (RejectedExecutionException e) {
+            throw new TaskRejectedException("Lane " + lane + " did not accept task, "
+                + lanes[lane].getQueue().size() + " tasks queued", e);
+        }
+    }
+
+    /**
+     * Lane index of a partition key.
+     */
+    public int laneFor(Object key) {
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes.length);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    /**
+     * Number of tasks waiting on a lane, not counting the running one.
+     */
+    public int getQueueDepth(int lane) {
+        return lanes[lane].getQueue().size();
+    }
+
+    /**
+     * Stop accepting tasks and wait for queued tasks to finish.
+     *
+     * @return true if all lanes finished before the timeout
+     */
+    public boolean shutdown(long timeout, TimeUnit unit) throws InterruptedException {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdown();
+        }
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ThreadPoolExecutor lane : lanes) {
+            if (!lane.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void shutdown() throws InterruptedException {
+        shutdown(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * A failing task must not take the lane down with it.
+     */
+    private static void runSafely(int lane, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Task on lane {} failed: {}", lane, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.currency.currencyapp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-capacity buffer keeping the most recent elements; adding to a full buffer
+ * overwrites the oldest element.
+ *
+ * @param <T> element type
+ */
+public class RingBuffer<T> {
+
+    private final Object[] elements;
+    private int next;
+    private int size;
+
+    public RingBuffer(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1");
+        }
+        this.elements = new Object[capacity];
+    }
+
+    /**
+     * Append an element, evicting the oldest one if the buffer is full.
+     *
+     * @param element the element to add
+     */
+    public synchronized void add(T element) {
+        elements[next] = element;
+        next = (next + 1) % elements.length;
+        if (size < elements.length) {
+            size++;
+        }
+    }
+
+    /**
+     * Copy the buffered elements.
+     *
+     * @return elements from oldest to newest
+     */
+    @SuppressWarnings("unchecked")
+    public synchronized List<T> toList() {
+        List<T> list = new ArrayList<>(size);
+        int start = (next - size + elements.length) % elements.length;
+        for (int i = 0; i < size; i++) {
+            list.add((T) elements[(start + i) % elements.length]);
+        }
+        return list;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+}
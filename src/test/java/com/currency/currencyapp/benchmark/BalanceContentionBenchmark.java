@@ -0,0 +1,153 @@
+package com.currency.currencyapp.benchmark;
+
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import com.currency.currencyapp.domain.Money;
+import com.currency.currencyapp.repository.AccountRepository;
+import com.currency.currencyapp.service.AccountBalanceStore;
+import com.currency.currencyapp.service.ConflictRetryPolicy;
+import com.currency.currencyapp.service.LedgerAppender;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures deposit throughput when many threads hit the same account, comparing the
+ * previous read-modify-save path (optimistic locking with retries) against the atomic
+ * {@code $inc} of {@link AccountBalanceStore}. The teardown checks that the stored balance
+ * matches the number of completed deposits, i.e. that no update was lost.
+ * A {@link LedgerAppender} drains the ledger entries recorded by the atomic path in the
+ * background, as it does in the application.
+ * Connects to {@code -Dmongo.uri} when set, otherwise starts a MongoDB container.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class BalanceContentionBenchmark {
+
+    private static final String USER_ID = "contention-user";
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    private MongoDBContainer container;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private AccountRepository accountRepository;
+    private AccountBalanceStore balanceStore;
+    private ScheduledExecutorService appender;
+
+    private final LongAdder deposits = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void startMongo() {
+        String uri = System.getProperty("mongo.uri");
+        if (uri == null) {
+            container = new MongoDBContainer("mongo:7.0");
+            container.start();
+            uri = container.getReplicaSetUrl("benchmark");
+        }
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+        mongoTemplate.indexOps(Account.class).createIndex(new Index()
+            .on("userId", Sort.Direction.ASC).on("currency", Sort.Direction.ASC)
+            .unique().named("user_currency_idx"));
+        ConflictRetryPolicy retryPolicy = new ConflictRetryPolicy(new SimpleMeterRegistry(), 5, 5, 200);
+        accountRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(AccountRepository.class);
+        balanceStore = new AccountBalanceStore(accountRepository, mongoTemplate, retryPolicy);
+
+        LedgerAppender ledgerAppender = new LedgerAppender(mongoTemplate, balanceStore, new SimpleMeterRegistry(), 500, 100);
+        appender = Executors.newSingleThreadScheduledExecutor();
+        appender.scheduleWithFixedDelay(ledgerAppender::appendPending, 200, 200, TimeUnit.MILLISECONDS);
+    }
+
+    @Setup(Level.Iteration)
+    public void resetAccount() {
+        accountRepository.deleteAll();
+        mongoTemplate.dropCollection(LedgerEntry.class);
+        mongoTemplate.dropCollection(LedgerSnapshot.class);
+        accountRepository.save(Account.builder()
+            .userId(USER_ID)
+            .currency(Currency.USD)
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .build());
+        deposits.reset();
+        conflicts.reset();
+    }
+
+    @TearDown(Level.Iteration)
+    public void verifyNoLostUpdates() {
+        long expected = deposits.sum() * Money.toMinor(AMOUNT, Currency.USD);
+        long actual = accountRepository.findByUserIdAndCurrency(USER_ID, Currency.USD).orElseThrow().getBalanceMinor();
+        System.out.printf("%n deposits=%d conflicts=%d lost=%d%n", deposits.sum(), conflicts.sum(), expected - actual);
+        if (actual != expected) {
+            throw new IllegalStateException("Lost updates: expected balance " + expected + " but was " + actual);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMongo() {
+        appender.shutdownNow();
+        client.close();
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public Account readModifySave() {
+        long amountMinor = Money.toMinor(AMOUNT, Currency.USD);
+        while (true) {
+            Account account = accountRepository.findByUserIdAndCurrency(USER_ID, Currency.USD).orElseThrow();
+            account.setBalanceMinor(Money.add(account.getBalanceMinor(), amountMinor));
+            account.setUpdatedAt(LocalDateTime.now());
+            try {
+                Account saved = accountRepository.save(account);
+                deposits.increment();
+                return saved;
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+            }
+        }
+    }
+
+    @Benchmark
+    public BalanceSnapshot atomicIncrement() {
+        BalanceSnapshot balance = balanceStore.credit(USER_ID, Currency.USD, Money.toMinor(AMOUNT, Currency.USD), "benchmark");
+        deposits.increment();
+        return balance;
+    }
+}
@@ -0,0 +1,175 @@
+package com.currency.currencyapp.benchmark;
+
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.BalanceValuation;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import com.currency.currencyapp.domain.Money;
+import com.currency.currencyapp.domain.Wallet;
+import com.currency.currencyapp.repository.AccountRepository;
+import com.currency.currencyapp.service.AccountBalanceStore;
+import com.currency.currencyapp.service.BalanceStore;
+import com.currency.currencyapp.service.ConflictRetryPolicy;
+import com.currency.currencyapp.service.LedgerAppender;
+import com.currency.currencyapp.service.WalletBalanceStore;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-currency account layout with the wallet layout for the operations the
+ * wallet is meant to speed up: exchanges, balance reads and account creation.
+ * Also compares valuing a batch of users with one aggregation against one balance read per
+ * user, as a report would do without the aggregation.
+ * Every operation picks a random user, so threads rarely contend on the same document.
+ * A {@link LedgerAppender} drains the recorded ledger entries in the background, as it does
+ * in the application.
+ * Connects to {@code -Dmongo.uri} when set, otherwise starts a MongoDB container.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class BalanceLayoutBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int REPORT_USERS = 100;
+    private static final List<Currency> CURRENCIES = List.of(Currency.USD, Currency.TRY);
+    private static final Map<Currency, Long> RATES_TO_USD = Map.of(
+        Currency.USD, Money.toFixedRate(BigDecimal.ONE), Currency.TRY, Money.toFixedRate(new BigDecimal("0.0307")));
+
+    @Param({"accounts", "wallet"})
+    private String layout;
+
+    private MongoDBContainer container;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private BalanceStore balanceStore;
+    private ScheduledExecutorService appender;
+
+    @Setup(Level.Trial)
+    public void startMongo() {
+        String uri = System.getProperty("mongo.uri");
+        if (uri == null) {
+            container = new MongoDBContainer("mongo:7.0");
+            container.start();
+            uri = container.getReplicaSetUrl("benchmark");
+        }
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+        mongoTemplate.dropCollection(Account.class);
+        mongoTemplate.dropCollection(Wallet.class);
+        mongoTemplate.dropCollection(LedgerEntry.class);
+        mongoTemplate.dropCollection(LedgerSnapshot.class);
+        mongoTemplate.indexOps(Account.class).createIndex(new Index()
+            .on("userId", Sort.Direction.ASC).on("currency", Sort.Direction.ASC)
+            .unique().named("user_currency_idx"));
+
+        ConflictRetryPolicy retryPolicy = new ConflictRetryPolicy(new SimpleMeterRegistry(), 5, 5, 200);
+        AccountRepository accountRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(AccountRepository.class);
+        balanceStore = "wallet".equals(layout)
+            ? new WalletBalanceStore(mongoTemplate, retryPolicy)
+            : new AccountBalanceStore(accountRepository, mongoTemplate, retryPolicy);
+
+        // Enough funds that random exchanges never run a balance dry during the trial
+        for (int i = 0; i < USERS; i++) {
+            balanceStore.credit(user(i), Currency.USD, 1_000_000_000_00L, "benchmark");
+            balanceStore.credit(user(i), Currency.TRY, 1_000_000_000_00L, "benchmark");
+        }
+
+        LedgerAppender ledgerAppender = new LedgerAppender(mongoTemplate, balanceStore, new SimpleMeterRegistry(), 500, 100);
+        appender = Executors.newSingleThreadScheduledExecutor();
+        appender.scheduleWithFixedDelay(ledgerAppender::appendPending, 0, 200, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMongo() {
+        appender.shutdownNow();
+        client.close();
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public BalanceSnapshot exchange() {
+        return balanceStore.exchange(randomUser(), Currency.USD, 1_00L, Currency.TRY, 32_51L, "benchmark");
+    }
+
+    @Benchmark
+    public BalanceSnapshot getSnapshot() {
+        return balanceStore.getSnapshot(randomUser());
+    }
+
+    @Benchmark
+    public BalanceSnapshot createAccounts() {
+        return balanceStore.createAccounts(UUID.randomUUID().toString(), CURRENCIES);
+    }
+
+    @Benchmark
+    public List<BalanceValuation> valuateReport() {
+        return balanceStore.valuate(randomUsers(), Currency.USD, RATES_TO_USD);
+    }
+
+    @Benchmark
+    public long snapshotPerUserReport() {
+        long total = 0;
+        for (String userId : randomUsers()) {
+            for (Map.Entry<Currency, Long> balance : balanceStore.getSnapshot(userId).getBalances().entrySet()) {
+                total += Money.convert(balance.getValue(), RATES_TO_USD.get(balance.getKey()), balance.getKey(), Currency.USD);
+            }
+        }
+        return total;
+    }
+
+    private static List<String> randomUsers() {
+        int first = ThreadLocalRandom.current().nextInt(USERS - REPORT_USERS);
+        List<String> userIds = new ArrayList<>(REPORT_USERS);
+        for (int i = first; i < first + REPORT_USERS; i++) {
+            userIds.add(user(i));
+        }
+        return userIds;
+    }
+
+    private static String randomUser() {
+        return user(ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    private static String user(int i) {
+        return "layout-user-" + i;
+    }
+}
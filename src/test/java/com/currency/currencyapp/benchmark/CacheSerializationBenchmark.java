@@ -0,0 +1,96 @@
+package com.currency.currencyapp.benchmark;
+
+import com.currency.currencyapp.cache.ExchangeRateRedisSerializer;
+import com.currency.currencyapp.config.RedisConfig;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Jackson default-typing encoding of exchange_rates cache values with the
+ * compact binary encoding, for a single rate and for a whole rate table.
+ * Encoded sizes are printed once per trial as bytes per entry.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CacheSerializationBenchmark {
+
+    @Param({"jackson", "binary"})
+    public String encoding;
+
+    private RedisSerializer<Object> serializer;
+    private BigDecimal rate;
+    private ExchangeRateTable table;
+    private byte[] encodedRate;
+    private byte[] encodedTable;
+
+    @Setup
+    public void setUp() {
+        serializer = "binary".equals(encoding)
+            ? new ExchangeRateRedisSerializer()
+            : new Jackson2JsonRedisSerializer<>(RedisConfig.cacheObjectMapper(), Object.class);
+
+        rate = new BigDecimal("32.514700");
+        Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+        rates.put(Currency.USD, BigDecimal.ONE);
+        rates.put(Currency.TRY, rate);
+        table = ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(rates)
+            .fetchedAt(Instant.parse("2026-10-16T10:00:00Z"))
+            .build();
+
+        encodedRate = serializer.serialize(rate);
+        encodedTable = serializer.serialize(table);
+    }
+
+    @TearDown(Level.Trial)
+    public void reportSizes() {
+        System.out.printf("%n%s: rate %d bytes/entry, table %d bytes/entry%n",
+            encoding, encodedRate.length, encodedTable.length);
+    }
+
+    @Benchmark
+    public byte[] serializeRate() {
+        return serializer.serialize(rate);
+    }
+
+    @Benchmark
+    public Object deserializeRate() {
+        return serializer.deserialize(encodedRate);
+    }
+
+    @Benchmark
+    public byte[] serializeTable() {
+        return serializer.serialize(table);
+    }
+
+    @Benchmark
+    public Object deserializeTable() {
+        return serializer.deserialize(encodedTable);
+    }
+}
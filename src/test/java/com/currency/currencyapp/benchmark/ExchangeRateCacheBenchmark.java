@@ -0,0 +1,238 @@
+package com.currency.currencyapp.benchmark;
+
+import com.currency.currencyapp.client.ExchangeRateProvider;
+import com.currency.currencyapp.client.HttpExchangeRateProvider;
+import com.currency.currencyapp.client.RateProviderClient;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+import com.currency.currencyapp.repository.RateSnapshotRepository;
+import com.currency.currencyapp.service.ExchangeRateService;
+import com.currency.currencyapp.service.RateHistoryService;
+import com.currency.currencyapp.service.RateSnapshotService;
+import com.currency.currencyapp.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.lang.NonNull;
+import org.springframework.web.client.RestTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares upstream calls and cache misses of the per-pair cache layout with the
+ * per-base rate table layout under a mixed currency-pair workload.
+ * The cache is cleared every {@link #OPS_PER_TTL} operations to simulate TTL expiry,
+ * and every iteration runs the same number of lookups so the counters compare directly.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, batchSize = 100_000)
+@Measurement(iterations = 3, batchSize = 100_000)
+@Fork(1)
+@State(Scope.Thread)
+public class ExchangeRateCacheBenchmark {
+
+    private static final int OPS_PER_TTL = 1_000;
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Counters {
+        public long upstreamCalls;
+        public long cacheMisses;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            upstreamCalls = 0;
+            cacheMisses = 0;
+        }
+    }
+
+    private AnnotationConfigApplicationContext context;
+    private ExchangeRateService exchangeRateService;
+    private CacheManager cacheManager;
+    private CountingRestTemplate upstream;
+    private CountingCacheManager countingCacheManager;
+    private final Map<String, BigDecimal> pairCache = new HashMap<>();
+    private long pairCacheMisses;
+    private long ops;
+
+    @Setup
+    public void setUp() {
+        context = new AnnotationConfigApplicationContext();
+        context.register(BenchmarkConfig.class);
+        context.refresh();
+
+        exchangeRateService = context.getBean(ExchangeRateService.class);
+        cacheManager = context.getBean(CacheManager.class);
+        countingCacheManager = (CountingCacheManager) cacheManager;
+        upstream = context.getBean(CountingRestTemplate.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BigDecimal pairKeyedCache(Counters counters) {
+        long upstreamBefore = upstream.calls;
+        long missesBefore = pairCacheMisses;
+
+        Currency from = nextFrom();
+        Currency to = nextTo(from);
+        expireIfDue();
+
+        // Previous layout: one cache entry and one upstream call per currency pair
+        BigDecimal rate = pairCache.computeIfAbsent(from.name() + "_" + to.name(), key -> {
+            pairCacheMisses++;
+            ExternalExchangeRateResponse response = upstream.getForObject(
+                "http://stub/v4/latest/" + from.name(), ExternalExchangeRateResponse.class);
+            return response.getRates().get(to.name());
+        });
+
+        counters.upstreamCalls += upstream.calls - upstreamBefore;
+        counters.cacheMisses += pairCacheMisses - missesBefore;
+        return rate;
+    }
+
+    @Benchmark
+    public BigDecimal rateTableCache(Counters counters) {
+        long upstreamBefore = upstream.calls;
+        long missesBefore = countingCacheManager.misses;
+
+        Currency from = nextFrom();
+        Currency to = nextTo(from);
+        expireIfDue();
+
+        BigDecimal rate = exchangeRateService.getExchangeRate(from, to);
+
+        counters.upstreamCalls += upstream.calls - upstreamBefore;
+        counters.cacheMisses += countingCacheManager.misses - missesBefore;
+        return rate;
+    }
+
+    private Currency nextFrom() {
+        return CURRENCIES[(int) (ops % CURRENCIES.length)];
+    }
+
+    private Currency nextTo(Currency from) {
+        return CURRENCIES[(from.ordinal() + 1 + (int) ((ops / CURRENCIES.length) % (CURRENCIES.length - 1)))
+            % CURRENCIES.length];
+    }
+
+    private void expireIfDue() {
+        if (ops++ % OPS_PER_TTL == 0) {
+            pairCache.clear();
+            cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        }
+    }
+
+    /**
+     * Registered explicitly (not a {@code @Configuration}) so test component scanning skips it.
+     */
+    @EnableCaching
+    @Import(ExchangeRateService.class)
+    static class BenchmarkConfig {
+
+        @Bean
+        SimpleMeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        RateSnapshotService rateSnapshotService() {
+            return new RateSnapshotService(Mockito.mock(RateSnapshotRepository.class));
+        }
+
+        @Bean
+        RateHistoryService rateHistoryService() {
+            return Mockito.mock(RateHistoryService.class);
+        }
+
+        @Bean
+        CountingRestTemplate rateProviderRestTemplate() {
+            return new CountingRestTemplate();
+        }
+
+        @Bean
+        ExchangeRateProvider exchangeRateProvider(CountingRestTemplate rateProviderRestTemplate) {
+            CircuitBreaker circuitBreaker = new CircuitBreaker(5, Duration.ofSeconds(30));
+            RateProviderClient rateProviderClient = new RateProviderClient(rateProviderRestTemplate, Runnable::run,
+                new SimpleMeterRegistry(), 5000);
+            return new HttpExchangeRateProvider("stub", "http://stub/v4/latest", rateProviderClient, circuitBreaker);
+        }
+
+        @Bean
+        CountingCacheManager cacheManager() {
+            return new CountingCacheManager();
+        }
+    }
+
+    /**
+     * Upstream stub returning a fixed rate table for every base currency.
+     */
+    static class CountingRestTemplate extends RestTemplate {
+
+        long calls;
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getForObject(@NonNull String url, @NonNull Class<T> responseType, @NonNull Object... uriVariables) {
+            calls++;
+            Currency base = Currency.valueOf(url.substring(url.lastIndexOf('/') + 1));
+            Map<String, BigDecimal> rates = new HashMap<>();
+            for (Currency currency : CURRENCIES) {
+                rates.put(currency.name(), BigDecimal.valueOf(currency.ordinal() + 1L)
+                    .divide(BigDecimal.valueOf(base.ordinal() + 1L), 6, java.math.RoundingMode.HALF_UP));
+            }
+            return (T) ExternalExchangeRateResponse.builder().base(base.name()).rates(rates).build();
+        }
+    }
+
+    /**
+     * Concurrent map cache manager that counts lookups not served from the cache.
+     */
+    static class CountingCacheManager extends ConcurrentMapCacheManager {
+
+        long misses;
+
+        @Override
+        @NonNull
+        protected org.springframework.cache.Cache createConcurrentMapCache(@NonNull String name) {
+            return new ConcurrentMapCache(name, false) {
+                @Override
+                protected Object lookup(@NonNull Object key) {
+                    Object value = super.lookup(key);
+                    if (value == null) {
+                        misses++;
+                    }
+                    return value;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.currency.currencyapp.benchmark;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.TransactionStatus;
+import com.currency.currencyapp.domain.TransactionType;
+import com.currency.currencyapp.domain.Wallet;
+import com.currency.currencyapp.repository.TransactionRepository;
+import com.currency.currencyapp.service.BalanceStore;
+import com.currency.currencyapp.service.ConflictRetryPolicy;
+import com.currency.currencyapp.service.LedgerAppender;
+import com.currency.currencyapp.service.TransactionWriteBatcher;
+import com.currency.currencyapp.service.WalletBalanceStore;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of the writes of one currency exchange, comparing the former flow
+ * (both legs saved as PENDING, the balance update, both legs saved again) with the balance
+ * update followed by both settled legs in one ordered bulk write.
+ * Connects to {@code -Dmongo.uri} when set, otherwise starts a MongoDB container.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ExchangeWriteBenchmark {
+
+    private static final int USERS = 1_000;
+
+    private MongoDBContainer container;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private BalanceStore balanceStore;
+    private TransactionRepository transactionRepository;
+    private TransactionWriteBatcher batcher;
+    private ScheduledExecutorService appender;
+
+    @Setup(Level.Trial)
+    public void startMongo() {
+        String uri = System.getProperty("mongo.uri");
+        if (uri == null) {
+            container = new MongoDBContainer("mongo:7.0");
+            container.start();
+            uri = container.getReplicaSetUrl("benchmark");
+        }
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+        mongoTemplate.dropCollection(Wallet.class);
+        mongoTemplate.dropCollection(LedgerEntry.class);
+        mongoTemplate.dropCollection(LedgerSnapshot.class);
+        mongoTemplate.dropCollection(Transaction.class);
+
+        balanceStore = new WalletBalanceStore(mongoTemplate, new ConflictRetryPolicy(new SimpleMeterRegistry(), 5, 5, 200));
+        transactionRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(TransactionRepository.class);
+        batcher = new TransactionWriteBatcher(mongoTemplate, new SimpleMeterRegistry(), 500, 2, 3, 50);
+
+        // Enough funds that exchanges never run a balance dry during the trial
+        for (int i = 0; i < USERS; i++) {
+            balanceStore.credit(user(i), Currency.USD, 1_000_000_000_00L, "benchmark");
+        }
+
+        LedgerAppender ledgerAppender = new LedgerAppender(mongoTemplate, balanceStore, new SimpleMeterRegistry(), 500, 100);
+        appender = Executors.newSingleThreadScheduledExecutor();
+        appender.scheduleWithFixedDelay(ledgerAppender::appendPending, 0, 200, TimeUnit.MILLISECONDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMongo() throws InterruptedException {
+        appender.shutdownNow();
+        batcher.shutdown();
+        client.close();
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public Transaction sequentialWrites() {
+        String userId = randomUser();
+        Transaction from = transactionRepository.save(leg(userId, TransactionType.EXCHANGE_FROM, Currency.USD));
+        Transaction to = transactionRepository.save(leg(userId, TransactionType.EXCHANGE_TO, Currency.TRY));
+        balanceStore.exchange(userId, Currency.USD, 1_00L, Currency.TRY, 32_51L, from.getId());
+        settle(from);
+        settle(to);
+        transactionRepository.save(from);
+        return transactionRepository.save(to);
+    }
+
+    @Benchmark
+    public Transaction bulkWrite() {
+        String userId = randomUser();
+        Transaction from = leg(userId, TransactionType.EXCHANGE_FROM, Currency.USD);
+        Transaction to = leg(userId, TransactionType.EXCHANGE_TO, Currency.TRY);
+        from.setId(new ObjectId().toHexString());
+        balanceStore.exchange(userId, Currency.USD, 1_00L, Currency.TRY, 32_51L, from.getId());
+        settle(from);
+        settle(to);
+        batcher.insertTogether(List.of(from, to));
+        return to;
+    }
+
+    private static Transaction leg(String userId, TransactionType type, Currency currency) {
+        return Transaction.builder()
+            .userId(userId)
+            .type(type)
+            .currency(currency)
+            .amount(new BigDecimal("1.00"))
+            .status(TransactionStatus.PENDING)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+
+    private static void settle(Transaction transaction) {
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        transaction.setProcessedAt(LocalDateTime.now());
+    }
+
+    private static String randomUser() {
+        return user(ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    private static String user(int i) {
+        return "exchange-user-" + i;
+    }
+}
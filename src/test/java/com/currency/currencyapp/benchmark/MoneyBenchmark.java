@@ -0,0 +1,74 @@
+package com.currency.currencyapp.benchmark;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the balance arithmetic of the deposit, withdraw and balance paths with
+ * {@link BigDecimal} balances against {@code long} minor-unit balances.
+ * Request amounts and exchange rates arrive as {@link BigDecimal} on both paths, so their
+ * conversion to minor units and fixed-point rates is part of the measured work.
+ * Run with the allocation profiler ({@code -prof gc}) to compare bytes per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MoneyBenchmark {
+
+    private final BigDecimal amount = new BigDecimal("125.50");
+    private final BigDecimal rate = new BigDecimal("0.030759");
+
+    private BigDecimal usdBalance = new BigDecimal("1000.00");
+    private BigDecimal tryBalance = new BigDecimal("32514.70");
+    private long usdBalanceMinor = 1000_00L;
+    private long tryBalanceMinor = 32514_70L;
+
+    @Benchmark
+    public BigDecimal depositDecimal() {
+        return usdBalance.add(amount);
+    }
+
+    @Benchmark
+    public long depositMinor() {
+        return Money.add(usdBalanceMinor, Money.toMinor(amount, Currency.USD));
+    }
+
+    @Benchmark
+    public BigDecimal withdrawDecimal() {
+        BigDecimal newBalance = usdBalance.subtract(amount);
+        return newBalance.compareTo(BigDecimal.ZERO) < 0 ? usdBalance : newBalance;
+    }
+
+    @Benchmark
+    public long withdrawMinor() {
+        long amountMinor = Money.toMinor(amount, Currency.USD);
+        return Money.covers(usdBalanceMinor, amountMinor) ? Money.subtract(usdBalanceMinor, amountMinor) : usdBalanceMinor;
+    }
+
+    @Benchmark
+    public BigDecimal balanceDecimal() {
+        return usdBalance.add(tryBalance.multiply(rate)).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    @Benchmark
+    public BigDecimal balanceMinor() {
+        long converted = Money.convert(tryBalanceMinor, Money.toFixedRate(rate), Currency.TRY, Currency.USD);
+        return Money.toDecimal(Money.add(usdBalanceMinor, converted), Currency.USD);
+    }
+}
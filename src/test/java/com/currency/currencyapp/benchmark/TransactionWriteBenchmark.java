@@ -0,0 +1,108 @@
+package com.currency.currencyapp.benchmark;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.TransactionStatus;
+import com.currency.currencyapp.domain.TransactionType;
+import com.currency.currencyapp.repository.TransactionRepository;
+import com.currency.currencyapp.service.TransactionWriteBatcher;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.testcontainers.containers.MongoDBContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the lifecycle writes of a transaction (insert as PENDING, then save as SUCCESS)
+ * from many threads, comparing one repository round trip per write against the group
+ * commit of {@link TransactionWriteBatcher}.
+ * Connects to {@code -Dmongo.uri} when set, otherwise starts a MongoDB container.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class TransactionWriteBenchmark {
+
+    private MongoDBContainer container;
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private TransactionRepository transactionRepository;
+    private TransactionWriteBatcher batcher;
+
+    @Setup(Level.Trial)
+    public void startMongo() {
+        String uri = System.getProperty("mongo.uri");
+        if (uri == null) {
+            container = new MongoDBContainer("mongo:7.0");
+            container.start();
+            uri = container.getReplicaSetUrl("benchmark");
+        }
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, "benchmark");
+        transactionRepository = new MongoRepositoryFactory(mongoTemplate).getRepository(TransactionRepository.class);
+        batcher = new TransactionWriteBatcher(mongoTemplate, new SimpleMeterRegistry(), 500, 2, 3, 50);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearTransactions() {
+        mongoTemplate.dropCollection(Transaction.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopMongo() throws InterruptedException {
+        batcher.shutdown();
+        client.close();
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Benchmark
+    public Transaction repositoryWrites() {
+        Transaction transaction = transactionRepository.save(pending());
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        transaction.setProcessedAt(LocalDateTime.now());
+        return transactionRepository.save(transaction);
+    }
+
+    @Benchmark
+    public Transaction batchedWrites() {
+        Transaction transaction = batcher.insert(pending()).join();
+        transaction.setStatus(TransactionStatus.SUCCESS);
+        transaction.setProcessedAt(LocalDateTime.now());
+        return batcher.save(transaction).join();
+    }
+
+    private static Transaction pending() {
+        return Transaction.builder()
+            .userId("benchmark-user")
+            .type(TransactionType.DEPOSIT)
+            .currency(Currency.USD)
+            .amount(new BigDecimal("1.00"))
+            .status(TransactionStatus.PENDING)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+}
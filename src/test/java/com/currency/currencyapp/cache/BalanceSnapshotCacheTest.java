@@ -0,0 +1,74 @@
+package com.currency.currencyapp.cache;
+
+import com.currency.currencyapp.config.RedisConfig;
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.Currency;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BalanceSnapshotCacheTest {
+
+    private static final String USER_ID = "test-user-123";
+
+    private BalanceSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BalanceSnapshotCache(new ConcurrentMapCacheManager(BalanceSnapshotCache.CACHE_NAME));
+    }
+
+    @Test
+    void get_IncompleteSnapshot_IsMiss() {
+        // Given
+        cache.put(BalanceSnapshot.of(USER_ID, Currency.USD, 500_00L, 1L, false));
+
+        // When & Then
+        assertNull(cache.get(USER_ID));
+    }
+
+    @Test
+    void put_ReloadedSnapshot_IsServed() {
+        // Given
+        BalanceSnapshot reloaded = new BalanceSnapshot(USER_ID, Map.of(Currency.USD, 1000_00L, Currency.TRY, 0L),
+            Map.of(Currency.USD, 3L, Currency.TRY, 0L), true);
+
+        // When
+        cache.put(reloaded);
+
+        // Then
+        assertEquals(reloaded, cache.get(USER_ID));
+    }
+
+    @Test
+    void evict_DropsSnapshot() {
+        // Given
+        cache.put(BalanceSnapshot.of(USER_ID, Currency.USD, 0L, 0L, true));
+
+        // When
+        cache.evict(USER_ID);
+
+        // Then
+        assertNull(cache.get(USER_ID));
+    }
+
+    @Test
+    void snapshot_RoundTripsThroughRedisSerialization() throws Exception {
+        // Given
+        ObjectMapper objectMapper = RedisConfig.cacheObjectMapper();
+        BalanceSnapshot snapshot = new BalanceSnapshot(USER_ID, Map.of(Currency.USD, 1000_00L, Currency.TRY, 5000_00L),
+            Map.of(Currency.USD, 3L, Currency.TRY, 4L), true);
+
+        // When
+        Object restored = objectMapper.readValue(objectMapper.writeValueAsBytes(snapshot), Object.class);
+
+        // Then
+        assertEquals(snapshot, restored);
+    }
+}
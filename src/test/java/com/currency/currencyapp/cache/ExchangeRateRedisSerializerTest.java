@@ -0,0 +1,88 @@
+package com.currency.currencyapp.cache;
+
+import com.currency.currencyapp.config.RedisConfig;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExchangeRateRedisSerializerTest {
+
+    private final ExchangeRateRedisSerializer serializer = new ExchangeRateRedisSerializer();
+
+    @Test
+    void roundTrip_RateTable_PreservesAllFields() {
+        // Given
+        ExchangeRateTable table = table();
+
+        // When
+        ExchangeRateTable result = (ExchangeRateTable) serializer.deserialize(serializer.serialize(table));
+
+        // Then
+        assertEquals(table, result);
+    }
+
+    @Test
+    void roundTrip_Decimal_PreservesScaleAndValue() {
+        // Given
+        BigDecimal[] values = {
+            new BigDecimal("32.514700"),
+            new BigDecimal("-0.000001"),
+            new BigDecimal("1E+3"),
+            new BigDecimal("123456789012345678901234567890.123456789")
+        };
+
+        for (BigDecimal value : values) {
+            // When
+            BigDecimal result = (BigDecimal) serializer.deserialize(serializer.serialize(value));
+
+            // Then
+            assertEquals(value, result);
+            assertEquals(value.scale(), result.scale());
+        }
+    }
+
+    @Test
+    void deserialize_LegacyJsonEntry_ReadsAsMiss() {
+        // Given
+        byte[] legacy = new Jackson2JsonRedisSerializer<>(RedisConfig.cacheObjectMapper(), Object.class).serialize(table());
+
+        // When & Then
+        assertNull(serializer.deserialize(legacy));
+    }
+
+    @Test
+    void serialize_RateTable_IsSmallerThanJson() {
+        // Given
+        ExchangeRateTable table = table();
+        Jackson2JsonRedisSerializer<Object> json = new Jackson2JsonRedisSerializer<>(RedisConfig.cacheObjectMapper(), Object.class);
+
+        // When
+        int binarySize = serializer.serialize(table).length;
+        int jsonSize = json.serialize(table).length;
+
+        // Then
+        assertTrue(binarySize * 4 < jsonSize, "binary " + binarySize + " bytes, json " + jsonSize + " bytes");
+    }
+
+    private static ExchangeRateTable table() {
+        Map<Currency, BigDecimal> rates = new EnumMap<>(Currency.class);
+        rates.put(Currency.USD, BigDecimal.ONE);
+        rates.put(Currency.TRY, new BigDecimal("32.5147"));
+        return ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(rates)
+            .fetchedAt(Instant.parse("2026-10-16T10:00:00.123Z"))
+            .degraded(true)
+            .build();
+    }
+}
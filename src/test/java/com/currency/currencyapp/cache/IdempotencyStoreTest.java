@@ -0,0 +1,217 @@
+package com.currency.currencyapp.cache;
+
+import com.currency.currencyapp.domain.TransactionStatus;
+import com.currency.currencyapp.dto.TransactionResponse;
+import com.currency.currencyapp.exception.IdempotencyConflictException;
+import com.currency.currencyapp.exception.IdempotencyKeyMismatchException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+    private static final String REDIS_KEY = IdempotencyStore.KEY_PREFIX + "user-1:exchange:key-1";
+    private static final Map<String, String> BODY = Map.of("amount", "100.00", "currency", "USD");
+    private static final Duration IN_PROGRESS_TTL = Duration.ofSeconds(30);
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void testExecute_Duplicate_ReturnsOriginalWithoutRunningAgain() {
+        // Given
+        IdempotencyStore store = localStore();
+        AtomicInteger runs = new AtomicInteger();
+
+        // When
+        TransactionResponse first = store.execute("user-1", "exchange", "key-1", BODY, () -> response("tx-" + runs.incrementAndGet()));
+        TransactionResponse second = store.execute("user-1", "exchange", "key-1", BODY, () -> response("tx-" + runs.incrementAndGet()));
+
+        // Then
+        assertSame(first, second);
+        assertEquals(1, runs.get());
+        assertEquals("tx-2", store.execute("user-2", "exchange", "key-1", BODY, () -> response("tx-" + runs.incrementAndGet()))
+            .getTransactionId());
+    }
+
+    @Test
+    void testExecute_ConcurrentDuplicate_WaitsForOriginal() throws Exception {
+        // Given
+        IdempotencyStore store = localStore();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<TransactionResponse> original = CompletableFuture.supplyAsync(() ->
+            store.execute("user-1", "deposit", "key-1", BODY, () -> {
+                runs.incrementAndGet();
+                started.countDown();
+                await(release);
+                return response("tx-1");
+            }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // When
+        CompletableFuture<TransactionResponse> duplicate = CompletableFuture.supplyAsync(() ->
+            store.execute("user-1", "deposit", "key-1", BODY, () -> response("tx-" + runs.incrementAndGet())));
+        release.countDown();
+
+        // Then
+        assertEquals("tx-1", duplicate.get(5, TimeUnit.SECONDS).getTransactionId());
+        assertSame(original.get(5, TimeUnit.SECONDS), duplicate.get());
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void testExecute_Failure_IsForgottenSoRetryRuns() {
+        // Given
+        IdempotencyStore store = localStore();
+
+        // When
+        assertThrows(InsufficientFundsException.class, () -> store.execute("user-1", "withdraw", "key-1", BODY, () -> {
+            throw new InsufficientFundsException("Insufficient funds");
+        }));
+        TransactionResponse retried = store.execute("user-1", "withdraw", "key-1", BODY, () -> response("tx-1"));
+
+        // Then
+        assertEquals("tx-1", retried.getTransactionId());
+    }
+
+    @Test
+    void testExecute_DuplicateWithDifferentBody_IsRejected() {
+        // Given
+        IdempotencyStore store = localStore();
+        store.execute("user-1", "exchange", "key-1", BODY, () -> response("tx-1"));
+
+        // When & Then
+        assertThrows(IdempotencyKeyMismatchException.class, () -> store.execute("user-1", "exchange", "key-1",
+            Map.of("amount", "999.00", "currency", "USD"), () -> fail("Must not run")));
+    }
+
+    @Test
+    void testExecute_NewKey_ClaimsBrieflyAndStoresResponseForFullTtl() throws Exception {
+        // Given
+        IdempotencyStore store = redisStore();
+        String hash = store.hash(BODY);
+        when(valueOperations.setIfAbsent(REDIS_KEY, IdempotencyStore.IN_PROGRESS + hash, IN_PROGRESS_TTL)).thenReturn(true);
+
+        // When
+        TransactionResponse response = store.execute("user-1", "exchange", "key-1", BODY, () -> response("tx-1"));
+
+        // Then
+        verify(valueOperations).set(REDIS_KEY, stored(hash, response), Duration.ofHours(24));
+    }
+
+    @Test
+    void testExecute_ProcessedOnOtherNode_ReturnsStoredResponse() throws Exception {
+        // Given
+        IdempotencyStore store = redisStore();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), eq(IN_PROGRESS_TTL))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(stored(store.hash(BODY), response("tx-remote")));
+
+        // When
+        TransactionResponse response = store.execute("user-1", "exchange", "key-1", BODY, () -> fail("Must not run again"));
+
+        // Then
+        assertEquals("tx-remote", response.getTransactionId());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void testExecute_ProcessedOnOtherNodeWithDifferentBody_IsRejected() throws Exception {
+        // Given
+        IdempotencyStore store = redisStore();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), eq(IN_PROGRESS_TTL))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(stored(store.hash(Map.of("amount", "1.00")), response("tx-remote")));
+
+        // When & Then
+        assertThrows(IdempotencyKeyMismatchException.class,
+            () -> store.execute("user-1", "exchange", "key-1", BODY, () -> fail("Must not run")));
+    }
+
+    @Test
+    void testExecute_InProgressOnOtherNode_Conflicts() {
+        // Given
+        IdempotencyStore store = redisStore();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), eq(IN_PROGRESS_TTL))).thenReturn(false);
+        when(valueOperations.get(REDIS_KEY)).thenReturn(IdempotencyStore.IN_PROGRESS + store.hash(BODY));
+
+        // When & Then
+        assertThrows(IdempotencyConflictException.class,
+            () -> store.execute("user-1", "exchange", "key-1", BODY, () -> fail("Must not run")));
+    }
+
+    @Test
+    void testExecute_FailureWithRedis_ReleasesClaim() {
+        // Given
+        IdempotencyStore store = redisStore();
+        when(valueOperations.setIfAbsent(eq(REDIS_KEY), anyString(), eq(IN_PROGRESS_TTL))).thenReturn(true);
+
+        // When
+        assertThrows(IllegalStateException.class, () -> store.execute("user-1", "exchange", "key-1", BODY, () -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+
+        // Then
+        verify(redisTemplate).delete(eq(REDIS_KEY));
+    }
+
+    private String stored(String requestHash, TransactionResponse response) throws Exception {
+        return objectMapper.writeValueAsString(new IdempotencyStore.StoredResponse(requestHash, response));
+    }
+
+    private IdempotencyStore localStore() {
+        return new IdempotencyStore(redisTemplateProvider, objectMapper, 100, 86400, 30);
+    }
+
+    private IdempotencyStore redisStore() {
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        return new IdempotencyStore(redisTemplateProvider, objectMapper, 100, 86400, 30);
+    }
+
+    private static TransactionResponse response(String transactionId) {
+        return TransactionResponse.builder()
+            .transactionId(transactionId)
+            .status(TransactionStatus.SUCCESS)
+            .message("Exchange successful")
+            .timestamp(LocalDateTime.of(2025, 1, 1, 12, 0))
+            .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.currency.currencyapp.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class NearCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private NearCacheManager cacheManager;
+
+    @BeforeEach
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("exchange_rates", "other");
+        meterRegistry = new SimpleMeterRegistry();
+        cacheManager = new NearCacheManager(remoteCacheManager, Set.of("exchange_rates"), 100,
+            Duration.ofMinutes(1), redisTemplate, meterRegistry);
+    }
+
+    @Test
+    void getCache_OnlyConfiguredCachesAreNear() {
+        assertInstanceOf(NearCache.class, cacheManager.getCache("exchange_rates"));
+        assertEquals(remoteCacheManager.getCache("other"), cacheManager.getCache("other"));
+    }
+
+    @Test
+    void get_RemoteHit_IsServedLocallyAfterwards() {
+        // Given
+        remoteCacheManager.getCache("exchange_rates").put("USD", "table");
+        Cache cache = cacheManager.getCache("exchange_rates");
+
+        // When
+        assertEquals("table", cache.get("USD").get());
+        remoteCacheManager.getCache("exchange_rates").evict("USD");
+
+        // Then
+        assertEquals("table", cache.get("USD").get());
+        assertEquals(1.0, meterRegistry.get("cache.hit.ratio").tag("level", "l2").gauge().value());
+        assertEquals(0.5, meterRegistry.get("cache.hit.ratio").tag("level", "l1").gauge().value());
+    }
+
+    @Test
+    void put_WritesBothLevelsAndPublishesInvalidation() {
+        // Given
+        Cache cache = cacheManager.getCache("exchange_rates");
+
+        // When
+        cache.put("USD", "table");
+
+        // Then
+        assertEquals("table", remoteCacheManager.getCache("exchange_rates").get("USD").get());
+        ArgumentCaptor<String> message = ArgumentCaptor.forClass(String.class);
+        verify(redisTemplate).convertAndSend(eq(NearCacheManager.INVALIDATION_CHANNEL), message.capture());
+        assertTrue(message.getValue().endsWith("|exchange_rates|USD"));
+    }
+
+    @Test
+    void onMessage_FromOtherNode_EvictsLocalCopy() {
+        // Given
+        remoteCacheManager.getCache("exchange_rates").put("USD", "table");
+        Cache cache = cacheManager.getCache("exchange_rates");
+        assertNotNull(cache.get("USD"));
+        remoteCacheManager.getCache("exchange_rates").evict("USD");
+
+        // When
+        cacheManager.onMessage(new DefaultMessage(NearCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+            "other-node|exchange_rates|USD".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        assertNull(cache.get("USD"));
+    }
+}
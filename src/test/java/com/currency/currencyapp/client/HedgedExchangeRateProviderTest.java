@@ -0,0 +1,195 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs hedging against file-backed stub providers with simulated latency.
+ */
+class HedgedExchangeRateProviderTest {
+
+    private static final Duration MIN_DELAY = Duration.ofMillis(20);
+
+    @TempDir
+    private Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void fetchAsync_SlowPrimary_HedgesToSecondaryAfterDelay() throws IOException {
+        // Given
+        CountingProvider primary = provider("primary", "32.5", Duration.ofSeconds(2));
+        CountingProvider secondary = provider("secondary", "32.5", Duration.ZERO);
+        HedgedExchangeRateProvider hedged = hedged(Duration.ofMillis(100), primary, secondary);
+
+        // When
+        long start = System.nanoTime();
+        ExternalExchangeRateResponse response = hedged.fetchAsync(Currency.USD).join();
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), response.getRates().get("TRY"));
+        assertTrue(elapsed.compareTo(Duration.ofSeconds(1)) < 0, "took " + elapsed);
+        assertEquals(1, secondary.calls.get());
+        assertEquals(1.0, meterRegistry.counter("exchange_rate.provider.hedged", "provider", "secondary").count());
+        assertEquals(1.0, meterRegistry.counter("exchange_rate.provider.wins", "provider", "secondary").count());
+    }
+
+    @Test
+    void fetchAsync_FastPrimary_DoesNotAskSecondary() throws Exception {
+        // Given
+        CountingProvider primary = provider("primary", "32.5", Duration.ZERO);
+        CountingProvider secondary = provider("secondary", "32.5", Duration.ZERO);
+        HedgedExchangeRateProvider hedged = hedged(Duration.ofMillis(200), primary, secondary);
+
+        // When
+        hedged.fetchAsync(Currency.USD).join();
+        Thread.sleep(400);
+
+        // Then
+        assertEquals(1, primary.calls.get());
+        assertEquals(0, secondary.calls.get());
+    }
+
+    @Test
+    void fetchAsync_PrimaryFails_AsksSecondaryWithoutWaiting() throws IOException {
+        // Given
+        CountingProvider primary = new CountingProvider(new FileExchangeRateProvider("primary",
+            tempDir.resolve("missing"), objectMapper, Duration.ZERO));
+        CountingProvider secondary = provider("secondary", "33.0", Duration.ZERO);
+        HedgedExchangeRateProvider hedged = hedged(Duration.ofSeconds(30), primary, secondary);
+
+        // When
+        ExternalExchangeRateResponse response = hedged.fetchAsync(Currency.USD).orTimeout(5, TimeUnit.SECONDS).join();
+
+        // Then
+        assertEquals(new BigDecimal("33.0"), response.getRates().get("TRY"));
+    }
+
+    @Test
+    void fetchAsync_AllProvidersFail_CompletesExceptionally() {
+        // Given
+        ExchangeRateProvider primary = new FileExchangeRateProvider("primary", tempDir.resolve("a"), objectMapper, Duration.ZERO);
+        ExchangeRateProvider secondary = new FileExchangeRateProvider("secondary", tempDir.resolve("b"), objectMapper, Duration.ZERO);
+        HedgedExchangeRateProvider hedged = hedged(Duration.ofMillis(50), primary, secondary);
+
+        // When
+        CompletionException exception = assertThrows(CompletionException.class,
+            () -> hedged.fetchAsync(Currency.USD).join());
+
+        // Then
+        assertInstanceOf(RateProviderException.class, exception.getCause());
+    }
+
+    @Test
+    void fetchAsync_LateAnswerBeyondTolerance_FlagsDisagreement() throws Exception {
+        // Given
+        CountingProvider primary = provider("primary", "35.0", Duration.ofMillis(300));
+        CountingProvider secondary = provider("secondary", "32.5", Duration.ZERO);
+        HedgedExchangeRateProvider hedged = hedged(Duration.ofMillis(50), primary, secondary);
+
+        // When
+        ExternalExchangeRateResponse response = hedged.fetchAsync(Currency.USD).join();
+        primary.lastCall.join();
+        Thread.sleep(50);
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), response.getRates().get("TRY"));
+        assertEquals(1.0, meterRegistry.counter("exchange_rate.provider.disagreement", "provider", "primary").count());
+    }
+
+    @Test
+    void hedgeDelay_FollowsRecentLatencyWithinBounds() throws IOException {
+        // Given
+        CountingProvider primary = provider("primary", "32.5", Duration.ZERO);
+        HedgedExchangeRateProvider hedged = hedged(Duration.ofSeconds(1), primary);
+        assertEquals(Duration.ofSeconds(1), hedged.hedgeDelay(0));
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            hedged.fetchAsync(Currency.USD).join();
+        }
+
+        // Then
+        assertEquals(MIN_DELAY, hedged.hedgeDelay(0));
+    }
+
+    @Test
+    void fetchAsync_ProvidersWithSameName_AreKeptApart() throws IOException {
+        // Given
+        CountingProvider primary = provider("primary", "32.5", Duration.ZERO);
+        CountingProvider secondary = provider("secondary", "32.5", Duration.ZERO);
+        ExchangeRateProvider sameName = new FileExchangeRateProvider(primary.getName(),
+            tempDir.resolve("secondary"), objectMapper, Duration.ZERO);
+        HedgedExchangeRateProvider hedged = hedged(Duration.ofSeconds(1), primary, sameName);
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            hedged.fetchAsync(Currency.USD).join();
+        }
+
+        // Then
+        assertEquals(MIN_DELAY, hedged.hedgeDelay(0));
+        assertEquals(Duration.ofSeconds(1), hedged.hedgeDelay(1));
+        assertEquals(0, secondary.calls.get());
+    }
+
+    private HedgedExchangeRateProvider hedged(Duration maxDelay, ExchangeRateProvider... providers) {
+        return new HedgedExchangeRateProvider(List.of(providers), meterRegistry, MIN_DELAY, maxDelay,
+            new BigDecimal("0.01"));
+    }
+
+    private CountingProvider provider(String name, String tryRate, Duration latency) throws IOException {
+        Path directory = Files.createDirectories(tempDir.resolve(name));
+        Files.writeString(directory.resolve("USD.json"),
+            "{\"base\":\"USD\",\"date\":\"2026-10-16\",\"rates\":{\"USD\":1,\"TRY\":" + tryRate + "}}");
+        return new CountingProvider(new FileExchangeRateProvider(name, directory, objectMapper, latency));
+    }
+
+    /**
+     * Records the calls made to a provider.
+     */
+    private static class CountingProvider implements ExchangeRateProvider {
+
+        private final ExchangeRateProvider delegate;
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile CompletableFuture<ExternalExchangeRateResponse> lastCall;
+
+        CountingProvider(ExchangeRateProvider delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getName() {
+            return delegate.getName();
+        }
+
+        @Override
+        public CompletableFuture<ExternalExchangeRateResponse> fetchAsync(Currency base) {
+            calls.incrementAndGet();
+            lastCall = delegate.fetchAsync(base);
+            return lastCall;
+        }
+    }
+}
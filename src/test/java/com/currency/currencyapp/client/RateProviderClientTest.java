@@ -0,0 +1,134 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
+import com.currency.currencyapp.util.CircuitBreaker;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the client against a local stub of the rate provider.
+ */
+class RateProviderClientTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private volatile int responseStatus = 200;
+    private volatile long responseDelayMs = 0;
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofSeconds(30));
+
+    private RateProviderClient client;
+    private String url;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v4/latest/", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(responseDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = "{\"base\":\"USD\",\"date\":\"2026-10-16\",\"rates\":{\"USD\":1,\"TRY\":32.5}}"
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        executor = Executors.newFixedThreadPool(2);
+        client = new RateProviderClient(new RestTemplate(), executor, meterRegistry, 300);
+        url = "http://localhost:" + server.getAddress().getPort() + "/v4/latest/USD";
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void fetchAsync_ReturnsResponseAndRecordsLatency() throws Throwable {
+        // When
+        ExternalExchangeRateResponse response = fetch();
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), response.getRates().get("TRY"));
+        assertEquals(1, meterRegistry.get("exchange_rate.provider.requests").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void fetchAsync_ProviderError_FailsWithRateProviderException() {
+        // Given
+        responseStatus = 500;
+
+        // When & Then
+        assertThrows(RateProviderException.class, this::fetch);
+        assertEquals(1, meterRegistry.get("exchange_rate.provider.requests").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void fetchAsync_SlowProvider_CompletesExceptionallyAfterTotalTimeout() {
+        // Given
+        responseDelayMs = 2000;
+
+        // When
+        long start = System.nanoTime();
+        assertThrows(TimeoutException.class, this::fetch);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        // Then
+        assertTrue(elapsedMs < 1500, "caller waited " + elapsedMs + " ms");
+    }
+
+    @Test
+    void fetchAsync_RepeatedFailures_OpensCircuitAndRejectsWithoutCalling() {
+        // Given
+        responseStatus = 500;
+        assertThrows(RateProviderException.class, this::fetch);
+        assertThrows(RateProviderException.class, this::fetch);
+
+        // When
+        assertThrows(RateProviderException.class, this::fetch);
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(2, requests.get());
+        assertEquals(1.0, meterRegistry.get("exchange_rate.provider.rejected").counter().count());
+    }
+
+    private ExternalExchangeRateResponse fetch() throws Throwable {
+        try {
+            return client.fetchAsync(url, circuitBreaker).join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.currency.currencyapp.client;
+
+import com.currency.currencyapp.client.SimulatedPaymentGateway.LatencyDistribution;
+import com.currency.currencyapp.domain.Transaction;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimulatedPaymentGatewayTest {
+
+    private final Transaction transaction = Transaction.builder().id("tx-1").build();
+
+    @Test
+    void collect_ReturnsBeforeSettling() {
+        // Given
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(200, 200, LatencyDistribution.FIXED, 0.0);
+
+        // When
+        long start = System.nanoTime();
+        CompletableFuture<Void> payment = gateway.collect(transaction);
+        Duration returnedAfter = Duration.ofNanos(System.nanoTime() - start);
+
+        // Then
+        assertFalse(payment.isDone());
+        assertTrue(returnedAfter.compareTo(Duration.ofMillis(100)) < 0, "took " + returnedAfter);
+        payment.join();
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofMillis(200)) >= 0);
+    }
+
+    @Test
+    void payOut_FailureRateOne_FailsPayment() {
+        // Given
+        SimulatedPaymentGateway gateway = new SimulatedPaymentGateway(0, 0, LatencyDistribution.FIXED, 1.0);
+
+        // When & Then
+        CompletionException exception = assertThrows(CompletionException.class, () -> gateway.payOut(transaction).join());
+        assertInstanceOf(PaymentGatewayException.class, exception.getCause());
+        assertTrue(exception.getCause().getMessage().contains("tx-1"));
+    }
+
+    @Test
+    void latencyDistributions_SampleAroundMean() {
+        assertEquals(1000, LatencyDistribution.FIXED.sample(1000, 0.9));
+        assertEquals(0, LatencyDistribution.UNIFORM.sample(1000, 0.0));
+        assertEquals(1000, LatencyDistribution.UNIFORM.sample(1000, 0.5));
+        assertEquals(0, LatencyDistribution.EXPONENTIAL.sample(1000, 0.0));
+        assertEquals(693, LatencyDistribution.EXPONENTIAL.sample(1000, 0.5));
+    }
+}
@@ -1,12 +1,19 @@
 package com.currency.currencyapp.controller;
 
+import com.currency.currencyapp.cache.IdempotencyStore;
 import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.Transaction;
 import com.currency.currencyapp.dto.BalanceResponse;
 import com.currency.currencyapp.dto.DepositRequest;
+import com.currency.currencyapp.dto.ExchangeQuoteRequest;
+import com.currency.currencyapp.dto.ExchangeQuoteResponse;
 import com.currency.currencyapp.dto.ExchangeRequest;
 import com.currency.currencyapp.dto.TransactionResponse;
 import com.currency.currencyapp.dto.WithdrawRequest;
+import com.currency.currencyapp.exception.IdempotencyKeyMismatchException;
+import com.currency.currencyapp.exception.OverloadedException;
 import com.currency.currencyapp.service.AccountService;
+import com.currency.currencyapp.service.ExchangeQuoteService;
 import com.currency.currencyapp.service.TransactionService;
 import com.currency.currencyapp.util.SecurityUtils;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,22 +22,29 @@ import org.junit.jupiter.api.Test;
 import org.mockito.MockedStatic;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -46,6 +60,12 @@ class AccountControllerTest {
     @MockitoBean
     private TransactionService transactionService;
 
+    @MockitoBean
+    private ExchangeQuoteService exchangeQuoteService;
+
+    @MockitoBean
+    private IdempotencyStore idempotencyStore;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -68,6 +88,7 @@ class AccountControllerTest {
 
         try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
             mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+            when(transactionService.processDeposit(eq(userId), any(DepositRequest.class))).thenReturn(pendingTransaction());
 
             // When & Then
             mockMvc.perform(post("/api/v1/accounts/deposit")
@@ -91,6 +112,7 @@ class AccountControllerTest {
 
         try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
             mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+            when(transactionService.processWithdraw(eq(userId), any(WithdrawRequest.class))).thenReturn(pendingTransaction());
 
             // When & Then
             mockMvc.perform(post("/api/v1/accounts/withdraw")
@@ -102,6 +124,55 @@ class AccountControllerTest {
         }
     }
 
+    @Test
+    @WithMockUser
+    void withdraw_Overloaded_Returns429WithRetryAfter() throws Exception {
+        // Given
+        WithdrawRequest request = WithdrawRequest.builder()
+            .currency(Currency.USD)
+            .amount(new BigDecimal("50.00"))
+            .build();
+
+        try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
+            mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+            doThrow(new OverloadedException("Too many withdraw requests in progress, retry in 7 s", Duration.ofSeconds(7)))
+                .when(transactionService).processWithdraw(eq(userId), any(WithdrawRequest.class));
+
+            // When & Then
+            mockMvc.perform(post("/api/v1/accounts/withdraw")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "7"))
+                .andExpect(jsonPath("$.status").value(429));
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void deposit_LaneFull_Returns429() throws Exception {
+        // Given
+        DepositRequest request = DepositRequest.builder()
+            .currency(Currency.USD)
+            .amount(new BigDecimal("100.00"))
+            .build();
+
+        try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
+            mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+            doThrow(new TaskRejectedException("Lane 0 did not accept task"))
+                .when(transactionService).processDeposit(eq(userId), any(DepositRequest.class));
+
+            // When & Then
+            mockMvc.perform(post("/api/v1/accounts/deposit")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+        }
+    }
+
     @Test
     @WithMockUser
     void getBalance_ValidRequest_ReturnsBalance() throws Exception {
@@ -128,6 +199,44 @@ class AccountControllerTest {
         }
     }
 
+    @Test
+    @WithMockUser
+    void getBalance_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        // Given
+        BalanceResponse balanceResponse = BalanceResponse.builder()
+            .userId(userId)
+            .requestedCurrency(Currency.USD)
+            .totalBalance(new BigDecimal("1000.00"))
+            .accountBalances(new HashMap<>())
+            .version(7)
+            .build();
+
+        try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
+            mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+
+            when(accountService.getBalance(userId, Currency.USD)).thenReturn(balanceResponse);
+
+            String eTag = mockMvc.perform(get("/api/v1/accounts/balance").param("currency", "USD"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+            // When & Then
+            mockMvc.perform(get("/api/v1/accounts/balance")
+                    .param("currency", "USD")
+                    .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+            // A new version invalidates the client's copy
+            balanceResponse.setVersion(8);
+            mockMvc.perform(get("/api/v1/accounts/balance")
+                    .param("currency", "USD")
+                    .header("If-None-Match", eTag))
+                .andExpect(status().isOk());
+        }
+    }
+
     @Test
     @WithMockUser
     void exchange_ValidRequest_ReturnsTransactionResponse() throws Exception {
@@ -163,6 +272,127 @@ class AccountControllerTest {
         }
     }
 
+    @Test
+    @WithMockUser
+    void exchange_WithIdempotencyKey_ReturnsStoredResponse() throws Exception {
+        // Given
+        ExchangeRequest request = ExchangeRequest.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(new BigDecimal("100.00"))
+            .build();
+
+        TransactionResponse original = TransactionResponse.builder()
+            .transactionId("txn-original")
+            .status(com.currency.currencyapp.domain.TransactionStatus.SUCCESS)
+            .message("Exchange successful")
+            .timestamp(LocalDateTime.now())
+            .build();
+
+        try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
+            mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+
+            when(idempotencyStore.execute(eq(userId), eq("exchange"), eq("retry-1"), eq(request), any())).thenReturn(original);
+
+            // When & Then
+            mockMvc.perform(post("/api/v1/accounts/exchange")
+                    .with(csrf())
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.transactionId").value("txn-original"));
+            verifyNoInteractions(transactionService);
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void exchange_IdempotencyKeyReusedWithOtherBody_ReturnsUnprocessableEntity() throws Exception {
+        // Given
+        ExchangeRequest request = ExchangeRequest.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(new BigDecimal("250.00"))
+            .build();
+
+        try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
+            mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+
+            when(idempotencyStore.execute(eq(userId), eq("exchange"), eq("retry-1"), eq(request), any()))
+                .thenThrow(new IdempotencyKeyMismatchException("This idempotency key was already used for a request with a different body"));
+
+            // When & Then
+            mockMvc.perform(post("/api/v1/accounts/exchange")
+                    .with(csrf())
+                    .header("Idempotency-Key", "retry-1")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnprocessableEntity());
+            verifyNoInteractions(transactionService);
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void deposit_BlankIdempotencyKey_ReturnsBadRequest() throws Exception {
+        // Given
+        DepositRequest request = DepositRequest.builder()
+            .currency(Currency.USD)
+            .amount(new BigDecimal("100.00"))
+            .build();
+
+        try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
+            mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+
+            // When & Then
+            mockMvc.perform(post("/api/v1/accounts/deposit")
+                    .with(csrf())
+                    .header("Idempotency-Key", " ")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+            verifyNoInteractions(transactionService, idempotencyStore);
+        }
+    }
+
+    @Test
+    @WithMockUser
+    void quote_ValidRequest_ReturnsQuote() throws Exception {
+        // Given
+        ExchangeQuoteRequest request = ExchangeQuoteRequest.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(new BigDecimal("100.00"))
+            .build();
+
+        ExchangeQuoteResponse response = ExchangeQuoteResponse.builder()
+            .quoteId("quote-123")
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(new BigDecimal("100.00"))
+            .exchangeRate(new BigDecimal("32.5"))
+            .convertedAmount(new BigDecimal("3250.00"))
+            .expiresAt(Instant.parse("2026-10-16T10:00:30Z"))
+            .build();
+
+        try (MockedStatic<SecurityUtils> mockedSecurityUtils = mockStatic(SecurityUtils.class)) {
+            mockedSecurityUtils.when(SecurityUtils::getCurrentUserId).thenReturn(userId);
+
+            when(exchangeQuoteService.createQuote(eq(userId), eq(request)))
+                .thenReturn(response);
+
+            // When & Then
+            mockMvc.perform(post("/api/v1/accounts/exchange/quote")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.quoteId").value("quote-123"))
+                .andExpect(jsonPath("$.convertedAmount").value(3250.00));
+        }
+    }
+
     @Test
     @WithMockUser
     void deposit_InvalidAmount_ReturnsBadRequest() throws Exception {
@@ -186,4 +416,13 @@ class AccountControllerTest {
         mockMvc.perform(get("/api/v1/accounts/balance"))
             .andExpect(status().isUnauthorized());
     }
+
+    private Transaction pendingTransaction() {
+        return Transaction.builder()
+            .id("txn-pending")
+            .userId(userId)
+            .status(com.currency.currencyapp.domain.TransactionStatus.PENDING)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
 }
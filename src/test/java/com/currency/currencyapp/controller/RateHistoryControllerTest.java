@@ -0,0 +1,90 @@
+package com.currency.currencyapp.controller;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.HistoricalRateResponse;
+import com.currency.currencyapp.dto.OhlcSeriesResponse;
+import com.currency.currencyapp.exception.RateHistoryNotFoundException;
+import com.currency.currencyapp.service.RateHistoryService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(RateHistoryController.class)
+class RateHistoryControllerTest {
+
+    private static final Instant AT = Instant.parse("2026-10-16T10:00:00Z");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private RateHistoryService rateHistoryService;
+
+    @Test
+    @WithMockUser
+    void getRateAt_ValidRequest_ReturnsRate() throws Exception {
+        // Given
+        when(rateHistoryService.getRateAt(Currency.USD, Currency.TRY, AT)).thenReturn(HistoricalRateResponse.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .requestedAt(AT)
+            .observedAt(AT.minusSeconds(30))
+            .rate(new BigDecimal("32.5"))
+            .build());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/rates/history")
+                .param("from", "USD")
+                .param("to", "TRY")
+                .param("at", "2026-10-16T10:00:00Z"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.rate").value(32.5));
+    }
+
+    @Test
+    @WithMockUser
+    void getRateAt_NoHistory_ReturnsNotFound() throws Exception {
+        // Given
+        when(rateHistoryService.getRateAt(Currency.USD, Currency.TRY, AT))
+            .thenThrow(new RateHistoryNotFoundException("No exchange rate recorded"));
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/rates/history")
+                .param("from", "USD")
+                .param("to", "TRY")
+                .param("at", "2026-10-16T10:00:00Z"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser
+    void getOhlc_ParsesIsoInterval() throws Exception {
+        // Given
+        Instant end = AT.plus(Duration.ofHours(2));
+        when(rateHistoryService.getOhlc(Currency.USD, Currency.TRY, AT, end, Duration.ofMinutes(15)))
+            .thenReturn(OhlcSeriesResponse.builder().candles(List.of()).build());
+
+        // When & Then
+        mockMvc.perform(get("/api/v1/rates/history/ohlc")
+                .param("from", "USD")
+                .param("to", "TRY")
+                .param("start", "2026-10-16T10:00:00Z")
+                .param("end", "2026-10-16T12:00:00Z")
+                .param("interval", "PT15M"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.candles").isArray());
+    }
+}
@@ -0,0 +1,81 @@
+package com.currency.currencyapp.controller;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.dto.BalanceReportRequest;
+import com.currency.currencyapp.dto.BalanceResponse;
+import com.currency.currencyapp.service.AccountService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReportController.class)
+class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private AccountService accountService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getBalances_ValidRequest_ReturnsOneBalancePerUser() throws Exception {
+        // Given
+        BalanceReportRequest request = BalanceReportRequest.builder()
+            .userIds(List.of("user-1", "user-2"))
+            .currency(Currency.USD)
+            .build();
+        when(accountService.getBalances(List.of("user-1", "user-2"), Currency.USD)).thenReturn(List.of(
+            BalanceResponse.builder().userId("user-1").requestedCurrency(Currency.USD)
+                .totalBalance(new BigDecimal("10.00")).accountBalances(Map.of()).build(),
+            BalanceResponse.builder().userId("user-2").requestedCurrency(Currency.USD)
+                .totalBalance(new BigDecimal("20.00")).accountBalances(Map.of()).build()));
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/reports/balances")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[1].userId").value("user-2"))
+            .andExpect(jsonPath("$[1].totalBalance").value(20.00));
+    }
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getBalances_NoUsers_ReturnsBadRequest() throws Exception {
+        // Given
+        BalanceReportRequest request = BalanceReportRequest.builder()
+            .userIds(List.of())
+            .currency(Currency.USD)
+            .build();
+
+        // When & Then
+        mockMvc.perform(post("/api/v1/reports/balances")
+                .with(csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+        verifyNoInteractions(accountService);
+    }
+}
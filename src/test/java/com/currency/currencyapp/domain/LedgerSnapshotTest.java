@@ -0,0 +1,60 @@
+package com.currency.currencyapp.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LedgerSnapshotTest {
+
+    private final LedgerSnapshot snapshot = LedgerSnapshot.builder()
+        .streamId("user-1")
+        .userId("user-1")
+        .sequence(3)
+        .balances(Map.of(Currency.USD, 100_00L))
+        .build();
+
+    @Test
+    void testReplay_AppliesEntriesInSequence() {
+        // Given
+        List<LedgerEntry> entries = List.of(
+            entry(4, Map.of(Currency.USD, 50_00L)),
+            entry(5, Map.of(Currency.USD, -30_00L, Currency.TRY, 975_45L)));
+
+        // When
+        LedgerSnapshot replayed = snapshot.replay(entries);
+
+        // Then
+        assertEquals(5, replayed.getSequence());
+        assertEquals(Map.of(Currency.USD, 120_00L, Currency.TRY, 975_45L), replayed.getBalances());
+        assertEquals(Map.of(Currency.USD, 100_00L), snapshot.getBalances());
+    }
+
+    @Test
+    void testReplay_NoEntries_KeepsSequence() {
+        // When
+        LedgerSnapshot replayed = snapshot.replay(List.of());
+
+        // Then
+        assertEquals(3, replayed.getSequence());
+        assertEquals(snapshot.getBalances(), replayed.getBalances());
+    }
+
+    @Test
+    void testReplay_SequenceGap_Throws() {
+        // Given
+        List<LedgerEntry> entries = List.of(entry(4, Map.of(Currency.USD, 1L)), entry(6, Map.of(Currency.USD, 1L)));
+
+        // When & Then
+        IllegalStateException exception = assertThrows(IllegalStateException.class, () -> snapshot.replay(entries));
+        assertTrue(exception.getMessage().contains("expected sequence 5 but found 6"));
+    }
+
+    private static LedgerEntry entry(long sequence, Map<Currency, Long> amounts) {
+        LedgerEntry entry = LedgerEntry.pending("user-1", "user-1", amounts, "tx-" + sequence);
+        entry.setSequence(sequence);
+        return entry;
+    }
+}
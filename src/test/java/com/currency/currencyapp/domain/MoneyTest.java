@@ -0,0 +1,67 @@
+package com.currency.currencyapp.domain;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+
+    @Test
+    void toMinor_RoundTripsThroughDecimal() {
+        // When
+        long minor = Money.toMinor(new BigDecimal("1234.5"), Currency.USD);
+
+        // Then
+        assertEquals(123450L, minor);
+        assertEquals(new BigDecimal("1234.50"), Money.toDecimal(minor, Currency.USD));
+    }
+
+    @Test
+    void toMinor_MoreDecimalsThanCurrency_ThrowsException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> Money.toMinor(new BigDecimal("10.005"), Currency.TRY));
+    }
+
+    @Test
+    void addSubtractAndCovers_WorkOnMinorUnits() {
+        // When & Then
+        assertEquals(1500_00L, Money.add(1000_00L, 500_00L));
+        assertEquals(500_00L, Money.subtract(1000_00L, 500_00L));
+        assertTrue(Money.covers(500_00L, 500_00L));
+        assertFalse(Money.covers(499_99L, 500_00L));
+        assertThrows(ArithmeticException.class, () -> Money.add(Long.MAX_VALUE, 1));
+    }
+
+    @Test
+    void convert_RoundsHalfUpToTargetMinorUnit() {
+        // Given
+        long rate = Money.toFixedRate(new BigDecimal("0.037"));
+
+        // When & Then
+        assertEquals(185_00L, Money.convert(5000_00L, rate, Currency.TRY, Currency.USD));
+        assertEquals(4L, Money.convert(1_00L, Money.toFixedRate(new BigDecimal("0.035")), Currency.TRY, Currency.USD));
+        assertEquals(-4L, Money.convert(-1_00L, Money.toFixedRate(new BigDecimal("0.035")), Currency.TRY, Currency.USD));
+    }
+
+    @Test
+    void convert_MatchesDecimalArithmeticForLargeAmounts() {
+        // Given
+        BigDecimal rate = new BigDecimal("32.5147");
+        long[] amounts = {1L, 99_99L, 123_456_789L, 900_000_000_00L, 1_000_000_000_000_000L};
+
+        for (long minor : amounts) {
+            // When
+            long converted = Money.convert(minor, Money.toFixedRate(rate), Currency.USD, Currency.TRY);
+
+            // Then
+            long expected = BigDecimal.valueOf(minor).multiply(rate).setScale(0, RoundingMode.HALF_UP).longValueExact();
+            assertEquals(expected, converted, "amount " + minor);
+        }
+    }
+}
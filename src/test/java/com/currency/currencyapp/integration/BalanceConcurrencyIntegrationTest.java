@@ -0,0 +1,145 @@
+package com.currency.currencyapp.integration;
+
+import com.currency.currencyapp.config.TestSecurityConfig;
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import com.currency.currencyapp.repository.AccountRepository;
+import com.currency.currencyapp.service.AccountService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs concurrent balance mutations of one account through {@link AccountService} against
+ * a real MongoDB, checking that no update is lost and that no conflict reaches the caller.
+ */
+@SpringBootTest(classes = {TestApplication.class})
+@Testcontainers
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class BalanceConcurrencyIntegrationTest {
+
+    private static final int THREADS = 32;
+
+    @Container
+    static MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongodb::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final String userId = "concurrent-user";
+
+    @BeforeEach
+    void setUp() {
+        accountRepository.deleteAll();
+    }
+
+    @Test
+    void addToBalance_HundredsOfConcurrentDeposits_LoseNoUpdates() throws Exception {
+        // Given
+        int deposits = 500;
+        double exhaustedBefore = conflicts("exhausted");
+
+        // When
+        runConcurrently(deposits, i -> accountService.addToBalance(userId, Currency.USD, new BigDecimal("1.25"), "deposit-" + i));
+
+        // Then
+        Account account = accountRepository.findByUserIdAndCurrency(userId, Currency.USD).orElseThrow();
+        assertEquals(deposits * 1_25L, account.getBalanceMinor());
+        assertEquals((long) deposits, account.getVersion());
+        assertEquals(exhaustedBefore, conflicts("exhausted"));
+    }
+
+    @Test
+    void subtractFromBalance_ConcurrentWithdrawals_NeverOverdraw() throws Exception {
+        // Given
+        accountService.addToBalance(userId, Currency.USD, new BigDecimal("100.00"), "funding");
+        AtomicInteger rejected = new AtomicInteger();
+        double exhaustedBefore = conflicts("exhausted");
+
+        // When
+        runConcurrently(200, i -> {
+            try {
+                accountService.subtractFromBalance(userId, Currency.USD, new BigDecimal("1.00"), "withdraw-" + i);
+            } catch (InsufficientFundsException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        // Then
+        Account account = accountRepository.findByUserIdAndCurrency(userId, Currency.USD).orElseThrow();
+        assertEquals(0L, account.getBalanceMinor());
+        assertEquals(100, rejected.get());
+        assertEquals(101L, account.getVersion());
+        assertEquals(exhaustedBefore, conflicts("exhausted"));
+    }
+
+    private void runConcurrently(int count, Mutation mutation) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            results.add(executor.submit(() -> {
+                start.await();
+                mutation.apply(index);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        try {
+            // A conflict surfacing to a caller fails the test with its cause
+            for (Future<?> result : results) {
+                result.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.find("balance.conflicts").tag("outcome", outcome).counters().stream()
+            .mapToDouble(Counter::count)
+            .sum();
+    }
+
+    @FunctionalInterface
+    private interface Mutation {
+        void apply(int index);
+    }
+}
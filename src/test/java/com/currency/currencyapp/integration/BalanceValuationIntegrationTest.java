@@ -0,0 +1,139 @@
+package com.currency.currencyapp.integration;
+
+import com.currency.currencyapp.config.TestSecurityConfig;
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.BalanceValuation;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.Money;
+import com.currency.currencyapp.domain.Wallet;
+import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import com.currency.currencyapp.service.BalanceStore;
+import com.currency.currencyapp.service.ConflictRetryPolicy;
+import com.currency.currencyapp.service.WalletBalanceStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Runs the balance valuation aggregation of both balance layouts against a real MongoDB,
+ * checking that the database arrives at the same totals as {@link Money#convert} in Java.
+ */
+@SpringBootTest(classes = {TestApplication.class})
+@Testcontainers
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class BalanceValuationIntegrationTest {
+
+    private static final int USERS = 50;
+
+    private static final Map<Currency, Long> RATES_TO_USD = Map.of(
+        Currency.USD, Money.toFixedRate(BigDecimal.ONE),
+        Currency.TRY, Money.toFixedRate(new BigDecimal("0.0307692")));
+
+    @Container
+    static MongoDBContainer mongodb = new MongoDBContainer("mongo:7.0");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongodb::getReplicaSetUrl);
+    }
+
+    @Autowired
+    private BalanceStore accountBalanceStore;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ConflictRetryPolicy conflictRetryPolicy;
+
+    private BalanceStore walletBalanceStore;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(Account.class);
+        mongoTemplate.dropCollection(Wallet.class);
+        walletBalanceStore = new WalletBalanceStore(mongoTemplate, conflictRetryPolicy);
+    }
+
+    @Test
+    void valuate_AccountLayout_MatchesConversionInJava() {
+        assertValuationMatchesJava(accountBalanceStore);
+    }
+
+    @Test
+    void valuate_WalletLayout_MatchesConversionInJava() {
+        assertValuationMatchesJava(walletBalanceStore);
+    }
+
+    @Test
+    void valuate_NonZeroBalanceWithoutRate_ThrowsException() {
+        // Given
+        accountBalanceStore.credit("user-1", Currency.TRY, 100_00L, "tx-1");
+        walletBalanceStore.credit("user-1", Currency.TRY, 100_00L, "tx-1");
+        Map<Currency, Long> usdOnly = Map.of(Currency.USD, Money.toFixedRate(BigDecimal.ONE));
+
+        // When & Then
+        assertThrows(ExchangeRateNotAvailableException.class,
+            () -> accountBalanceStore.valuate(List.of("user-1"), Currency.USD, usdOnly));
+        assertThrows(ExchangeRateNotAvailableException.class,
+            () -> walletBalanceStore.valuate(List.of("user-1"), Currency.USD, usdOnly));
+    }
+
+    @Test
+    void valuate_ZeroBalanceWithoutRate_CountsAsZero() {
+        // Given
+        accountBalanceStore.createAccounts("user-1", List.of(Currency.USD, Currency.TRY));
+        accountBalanceStore.credit("user-1", Currency.USD, 12_34L, "tx-1");
+
+        // When
+        List<BalanceValuation> valuations = accountBalanceStore.valuate(List.of("user-1"), Currency.USD,
+            Map.of(Currency.USD, Money.toFixedRate(BigDecimal.ONE)));
+
+        // Then
+        assertEquals(1, valuations.size());
+        assertEquals(12_34L, valuations.get(0).getTotalMinor());
+    }
+
+    private void assertValuationMatchesJava(BalanceStore balanceStore) {
+        // Given - amounts whose conversions round both up and down
+        List<String> userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            String userId = "user-" + i;
+            userIds.add(userId);
+            balanceStore.credit(userId, Currency.USD, 1_00L * i + 37L * i % 100, "usd-" + i);
+            balanceStore.credit(userId, Currency.TRY, 12_345L * i + 7L, "try-" + i);
+        }
+
+        // When
+        List<BalanceValuation> valuations = balanceStore.valuate(userIds, Currency.USD, RATES_TO_USD);
+
+        // Then
+        assertEquals(USERS, valuations.size());
+        for (BalanceValuation valuation : valuations) {
+            long expected = 0;
+            for (Map.Entry<Currency, Long> balance : valuation.getBalances().entrySet()) {
+                expected = Money.add(expected, Money.convert(balance.getValue(), RATES_TO_USD.get(balance.getKey()),
+                    balance.getKey(), Currency.USD));
+            }
+            assertEquals(expected, valuation.getTotalMinor(), valuation.getUserId());
+        }
+    }
+}
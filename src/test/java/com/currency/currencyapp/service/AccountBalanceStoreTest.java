@@ -0,0 +1,293 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.exception.AccountNotFoundException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import com.currency.currencyapp.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountBalanceStoreTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private AccountBalanceStore balanceStore;
+
+    private Account usdAccount;
+    private Account tryAccount;
+    private final String userId = "test-user-123";
+
+    @BeforeEach
+    void setUp() {
+        balanceStore = new AccountBalanceStore(accountRepository, mongoTemplate, new ConflictRetryPolicy(new SimpleMeterRegistry(), 3, 0, 0));
+
+        usdAccount = Account.builder()
+            .id("usd-account-id")
+            .userId(userId)
+            .currency(Currency.USD)
+            .balanceMinor(1000_00L)
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .build();
+
+        tryAccount = Account.builder()
+            .id("try-account-id")
+            .userId(userId)
+            .currency(Currency.TRY)
+            .balanceMinor(5000_00L)
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .build();
+    }
+
+    @Test
+    void testGetSnapshot() {
+        // Given
+        usdAccount.setVersion(3L);
+        tryAccount.setVersion(4L);
+        when(accountRepository.findByUserId(userId)).thenReturn(List.of(usdAccount, tryAccount));
+
+        // When
+        BalanceSnapshot result = balanceStore.getSnapshot(userId);
+
+        // Then
+        assertEquals(Map.of(Currency.USD, 1000_00L, Currency.TRY, 5000_00L), result.getBalances());
+        assertEquals(7L, result.totalVersion());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    void testCreateAccounts_IsOneBulkUpsertSettingFieldsOnInsert() {
+        // Given
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class)).thenReturn(bulk);
+        when(accountRepository.findByUserId(userId)).thenReturn(List.of(usdAccount, tryAccount));
+
+        // When
+        BalanceSnapshot result = balanceStore.createAccounts(userId, List.of(Currency.USD, Currency.TRY));
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(any(Query.class), update.capture());
+        verify(bulk, times(1)).execute();
+        Document setOnInsert = (Document) update.getValue().getUpdateObject().get("$setOnInsert");
+        assertEquals(0L, setOnInsert.get("balanceMinor"));
+        assertEquals(Set.of("$setOnInsert"), update.getValue().getUpdateObject().keySet());
+        assertEquals(Map.of(Currency.USD, 1000_00L, Currency.TRY, 5000_00L), result.getBalances());
+        verify(accountRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateAccounts_ConcurrentInsert_IsIgnored() {
+        // Given
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class)).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(bulkWriteFailure(11000));
+        when(accountRepository.findByUserId(userId)).thenReturn(List.of(usdAccount, tryAccount));
+
+        // When
+        BalanceSnapshot result = balanceStore.createAccounts(userId, List.of(Currency.USD, Currency.TRY));
+
+        // Then
+        assertEquals(2, result.getBalances().size());
+    }
+
+    @Test
+    void testCreateAccounts_OtherWriteError_IsRethrown() {
+        // Given
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Account.class)).thenReturn(bulk);
+        when(bulk.execute()).thenThrow(bulkWriteFailure(121));
+
+        // When & Then
+        assertThrows(BulkOperationException.class,
+            () -> balanceStore.createAccounts(userId, List.of(Currency.USD, Currency.TRY)));
+    }
+
+    @Test
+    void testCredit() {
+        // Given
+        usdAccount.setBalanceMinor(1500_00L);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Account.class)))
+            .thenReturn(usdAccount);
+
+        // When
+        BalanceSnapshot result = balanceStore.credit(userId, Currency.USD, 500_00L, "tx-1");
+
+        // Then
+        assertEquals(1500_00L, result.getBalances().get(Currency.USD));
+        assertFalse(result.isComplete());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), options.capture(), eq(Account.class));
+        assertEquals(500_00L, update.getValue().getUpdateObject().get("$inc", Document.class).get("balanceMinor"));
+        LedgerEntry entry = (LedgerEntry) update.getValue().getUpdateObject().get("$push", Document.class).get("pendingEntries");
+        assertEquals(userId + ":USD", entry.getStreamId());
+        assertEquals(Map.of(Currency.USD, 500_00L), entry.getAmounts());
+        assertEquals("tx-1", entry.getTransactionId());
+        assertTrue(options.getValue().isUpsert());
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void testCredit_ConcurrentAccountCreation_RetriesUpdate() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Account.class)))
+            .thenThrow(new DuplicateKeyException("user_currency_idx"))
+            .thenReturn(usdAccount);
+
+        // When
+        BalanceSnapshot result = balanceStore.credit(userId, Currency.USD, 500_00L, "tx-1");
+
+        // Then
+        assertEquals(1000_00L, result.getBalances().get(Currency.USD));
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Account.class));
+    }
+
+    @Test
+    void testDebit_Success() {
+        // Given
+        usdAccount.setBalanceMinor(500_00L);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Account.class)))
+            .thenReturn(usdAccount);
+
+        // When
+        BalanceSnapshot result = balanceStore.debit(userId, Currency.USD, 500_00L, "tx-1");
+
+        // Then
+        assertEquals(500_00L, result.getBalances().get(Currency.USD));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Account.class));
+        assertEquals(new Document("$gte", 500_00L), query.getValue().getQueryObject().get("balanceMinor"));
+        assertEquals(-500_00L, update.getValue().getUpdateObject().get("$inc", Document.class).get("balanceMinor"));
+        verify(accountRepository, never()).findByUserIdAndCurrency(any(), any());
+    }
+
+    @Test
+    void testDebit_InsufficientFunds() {
+        // Given
+        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
+
+        // When & Then
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+            () -> balanceStore.debit(userId, Currency.USD, 1500_00L, "tx-1"));
+        assertTrue(exception.getMessage().contains("Available: 1000.00"));
+        verify(accountRepository, never()).save(any(Account.class));
+    }
+
+    @Test
+    void testDebit_AccountNotFound() {
+        // Given
+        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(AccountNotFoundException.class, () -> balanceStore.debit(userId, Currency.USD, 10_00L, "tx-1"));
+    }
+
+    @Test
+    void testCredit_AlreadyAppendedForTransaction_LeavesBalanceAsIs() {
+        // Given
+        when(mongoTemplate.exists(any(Query.class), eq(LedgerEntry.class))).thenReturn(true);
+        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
+
+        // When
+        BalanceSnapshot result = balanceStore.credit(userId, Currency.USD, 500_00L, "tx-1");
+
+        // Then
+        assertEquals(1000_00L, result.getBalances().get(Currency.USD));
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Account.class));
+    }
+
+    @Test
+    void testCredit_PendingForTransaction_GuardKeepsUpdateFromMatching() {
+        // Given - the upsert cannot match the guarded account and collides with it, the retry matches nothing
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Account.class)))
+            .thenThrow(new DuplicateKeyException("user_currency_idx"))
+            .thenReturn(null);
+        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
+
+        // When
+        BalanceSnapshot result = balanceStore.credit(userId, Currency.USD, 500_00L, "tx-1");
+
+        // Then
+        assertEquals(1000_00L, result.getBalances().get(Currency.USD));
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Account.class));
+        assertEquals(LedgerGuard.notPending(Currency.USD, "tx-1", 1).getCriteriaObject().get("pendingEntries"),
+            query.getValue().getQueryObject().get("pendingEntries"));
+    }
+
+    @Test
+    void testDebit_PendingForTransaction_IsNotRejected() {
+        // Given - not yet appended, but pending on the account
+        when(mongoTemplate.exists(any(Query.class), any(Class.class))).thenAnswer(invocation -> invocation.getArgument(1) == Account.class);
+        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
+
+        // When
+        BalanceSnapshot result = balanceStore.debit(userId, Currency.USD, 500_00L, "tx-1");
+
+        // Then
+        assertEquals(1000_00L, result.getBalances().get(Currency.USD));
+    }
+
+    @Test
+    void testFindEntries_PendingAndAppended_AreReadOnce() {
+        // Given - the entry is appended but not yet pulled from the account
+        LedgerEntry debit = LedgerEntry.pending("test-user-123:USD", userId, Map.of(Currency.USD, -500_00L), "tx-1");
+        LedgerEntry other = LedgerEntry.pending("test-user-123:USD", userId, Map.of(Currency.USD, 100_00L), "tx-2");
+        usdAccount.setPendingEntries(List.of(debit, other));
+        when(mongoTemplate.find(any(Query.class), eq(Account.class))).thenReturn(List.of(usdAccount));
+        when(mongoTemplate.find(any(Query.class), eq(LedgerEntry.class))).thenReturn(List.of(debit));
+
+        // When
+        List<LedgerEntry> entries = balanceStore.findEntries(userId, "tx-1");
+
+        // Then
+        assertEquals(List.of(debit), entries);
+    }
+
+    private static BulkOperationException bulkWriteFailure(int code) {
+        MongoBulkWriteException cause = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+            List.of(new BulkWriteError(code, "write failed", new BsonDocument(), 1)), null,
+            new ServerAddress(), Set.of());
+        return new BulkOperationException(cause.getMessage(), cause);
+    }
+}
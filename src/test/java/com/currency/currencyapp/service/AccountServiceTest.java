@@ -1,11 +1,12 @@
 package com.currency.currencyapp.service;
 
-import com.currency.currencyapp.domain.Account;
+import com.currency.currencyapp.cache.BalanceSnapshotCache;
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.BalanceValuation;
 import com.currency.currencyapp.domain.Currency;
 import com.currency.currencyapp.dto.BalanceResponse;
-import com.currency.currencyapp.exception.AccountNotFoundException;
-import com.currency.currencyapp.repository.AccountRepository;
-import org.junit.jupiter.api.BeforeEach;
+import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -13,20 +14,23 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
-import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class AccountServiceTest {
 
     @Mock
-    private AccountRepository accountRepository;
+    private BalanceStore balanceStore;
+
+    @Mock
+    private BalanceSnapshotCache balanceSnapshotCache;
 
     @Mock
     private ExchangeRateService exchangeRateService;
@@ -34,90 +38,64 @@ class AccountServiceTest {
     @InjectMocks
     private AccountService accountService;
 
-    private Account usdAccount;
-    private Account tryAccount;
     private final String userId = "test-user-123";
 
-    @BeforeEach
-    void setUp() {
-        usdAccount = Account.builder()
-            .id("usd-account-id")
-            .userId(userId)
-            .currency(Currency.USD)
-            .balance(new BigDecimal("1000.00"))
-            .createdAt(LocalDateTime.now())
-            .updatedAt(LocalDateTime.now())
-            .build();
-
-        tryAccount = Account.builder()
-            .id("try-account-id")
-            .userId(userId)
-            .currency(Currency.TRY)
-            .balance(new BigDecimal("5000.00"))
-            .createdAt(LocalDateTime.now())
-            .updatedAt(LocalDateTime.now())
-            .build();
-    }
-
-    @Test
-    void testGetOrCreateAccount_ExistingAccount() {
-        // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
-
-        // When
-        Account result = accountService.getOrCreateAccount(userId, Currency.USD);
-
-        // Then
-        assertNotNull(result);
-        assertEquals(usdAccount, result);
-        verify(accountRepository, times(1)).findByUserIdAndCurrency(userId, Currency.USD);
-        verify(accountRepository, never()).save(any());
+    private BalanceSnapshot snapshot(Map<Currency, Long> balances, long version) {
+        Map<Currency, Long> versions = new HashMap<>();
+        balances.keySet().forEach(currency -> versions.put(currency, version));
+        return new BalanceSnapshot(userId, balances, versions, true);
     }
 
     @Test
-    void testGetOrCreateAccount_NewAccount() {
+    void testGetBalance_WithExistingAccounts() {
         // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.empty());
-        when(accountRepository.save(any(Account.class))).thenReturn(usdAccount);
+        when(balanceStore.getSnapshot(userId)).thenReturn(snapshot(Map.of(Currency.USD, 1000_00L, Currency.TRY, 5000_00L), 2L));
+        when(exchangeRateService.getExchangeRatesTo(Currency.USD))
+            .thenReturn(Map.of(Currency.USD, BigDecimal.ONE, Currency.TRY, new BigDecimal("0.037")));
 
         // When
-        Account result = accountService.getOrCreateAccount(userId, Currency.USD);
+        BalanceResponse result = accountService.getBalance(userId, Currency.USD);
 
         // Then
         assertNotNull(result);
-        verify(accountRepository, times(1)).findByUserIdAndCurrency(userId, Currency.USD);
-        verify(accountRepository, times(1)).save(any(Account.class));
+        assertEquals(userId, result.getUserId());
+        assertEquals(Currency.USD, result.getRequestedCurrency());
+        assertEquals(new BigDecimal("1185.00"), result.getTotalBalance()); // 1000 + (5000 * 0.037)
+        assertEquals(2, result.getAccountBalances().size());
+        assertEquals(new BigDecimal("1000.00"), result.getAccountBalances().get(Currency.USD));
+        assertEquals(new BigDecimal("5000.00"), result.getAccountBalances().get(Currency.TRY));
+        assertEquals(4L, result.getVersion());
     }
 
     @Test
-    void testGetAccountByUserIdAndCurrency_Success() {
+    void testGetBalance_CachedSnapshot_SkipsStore() {
         // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
+        when(balanceSnapshotCache.get(userId)).thenReturn(snapshot(Map.of(Currency.USD, 250_00L, Currency.TRY, 0L), 7L));
+        when(exchangeRateService.getExchangeRatesTo(Currency.USD)).thenReturn(Map.of(Currency.USD, BigDecimal.ONE));
 
         // When
-        Account result = accountService.getAccountByUserIdAndCurrency(userId, Currency.USD);
+        BalanceResponse result = accountService.getBalance(userId, Currency.USD);
 
         // Then
-        assertNotNull(result);
-        assertEquals(usdAccount, result);
+        assertEquals(new BigDecimal("250.00"), result.getTotalBalance());
+        assertEquals(14L, result.getVersion());
+        verifyNoInteractions(balanceStore);
     }
 
     @Test
-    void testGetAccountByUserIdAndCurrency_NotFound() {
+    void testGetBalance_NonZeroBalanceWithoutRate_ThrowsException() {
         // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.empty());
+        when(balanceSnapshotCache.get(userId)).thenReturn(snapshot(Map.of(Currency.USD, 250_00L, Currency.TRY, 100_00L), 7L));
+        when(exchangeRateService.getExchangeRatesTo(Currency.USD)).thenReturn(Map.of(Currency.USD, BigDecimal.ONE));
 
         // When & Then
-        assertThrows(AccountNotFoundException.class, 
-            () -> accountService.getAccountByUserIdAndCurrency(userId, Currency.USD));
+        assertThrows(ExchangeRateNotAvailableException.class, () -> accountService.getBalance(userId, Currency.USD));
     }
 
     @Test
-    void testGetBalance_WithExistingAccounts() {
+    void testGetBalance_NoExistingAccounts_ReadsZeroWithoutWriting() {
         // Given
-        List<Account> accounts = Arrays.asList(usdAccount, tryAccount);
-        when(accountRepository.findByUserId(userId)).thenReturn(accounts);
-        when(exchangeRateService.getExchangeRate(Currency.TRY, Currency.USD)).thenReturn(new BigDecimal("0.037"));
+        when(balanceStore.getSnapshot(userId)).thenReturn(snapshot(Map.of(), 0L));
 
         // When
         BalanceResponse result = accountService.getBalance(userId, Currency.USD);
@@ -126,80 +104,103 @@ class AccountServiceTest {
         assertNotNull(result);
         assertEquals(userId, result.getUserId());
         assertEquals(Currency.USD, result.getRequestedCurrency());
-        assertEquals(new BigDecimal("1185.00"), result.getTotalBalance()); // 1000 + (5000 * 0.037)
-        assertEquals(2, result.getAccountBalances().size());
-        assertEquals(new BigDecimal("1000.00"), result.getAccountBalances().get(Currency.USD));
-        assertEquals(new BigDecimal("5000.00"), result.getAccountBalances().get(Currency.TRY));
+        assertEquals(new BigDecimal("0.00"), result.getTotalBalance());
+        assertEquals(new BigDecimal("0.00"), result.getAccountBalances().get(Currency.USD));
+        assertEquals(new BigDecimal("0.00"), result.getAccountBalances().get(Currency.TRY));
+        verify(balanceStore, times(1)).getSnapshot(userId);
+        verifyNoMoreInteractions(balanceStore);
+        verify(balanceSnapshotCache, times(1)).put(any());
     }
 
     @Test
-    void testGetBalance_NoExistingAccounts() {
+    void testGetBalances_ValuesAllUsersWithOneAggregation() {
         // Given
-        when(accountRepository.findByUserId(userId)).thenReturn(List.of());
-        when(accountRepository.save(any(Account.class))).thenReturn(usdAccount);
+        List<String> userIds = List.of("user-1", "user-2");
+        when(exchangeRateService.getExchangeRatesTo(Currency.USD))
+            .thenReturn(Map.of(Currency.USD, BigDecimal.ONE, Currency.TRY, new BigDecimal("0.037")));
+        when(balanceStore.valuate(userIds, Currency.USD, Map.of(Currency.USD, 10_000_000_000L, Currency.TRY, 370_000_000L)))
+            .thenReturn(List.of(
+                new BalanceValuation("user-1", Map.of(Currency.USD, 1000_00L, Currency.TRY, 5000_00L), 1185_00L, 4L),
+                new BalanceValuation("user-2", Map.of(Currency.TRY, 100_00L), 3_70L, 1L)));
 
         // When
-        BalanceResponse result = accountService.getBalance(userId, Currency.USD);
+        List<BalanceResponse> result = accountService.getBalances(userIds, Currency.USD);
 
         // Then
-        assertNotNull(result);
-        assertEquals(userId, result.getUserId());
-        assertEquals(Currency.USD, result.getRequestedCurrency());
-        verify(accountRepository, times(2)).save(any(Account.class)); // For USD and TRY accounts
+        assertEquals(2, result.size());
+        assertEquals(new BigDecimal("1185.00"), result.get(0).getTotalBalance());
+        assertEquals(4L, result.get(0).getVersion());
+        assertEquals("user-2", result.get(1).getUserId());
+        assertEquals(new BigDecimal("3.70"), result.get(1).getTotalBalance());
+        assertEquals(new BigDecimal("0.00"), result.get(1).getAccountBalances().get(Currency.USD));
+        assertEquals(new BigDecimal("100.00"), result.get(1).getAccountBalances().get(Currency.TRY));
+        verifyNoInteractions(balanceSnapshotCache);
     }
 
     @Test
     void testAddToBalance() {
         // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
-        when(accountRepository.save(any(Account.class))).thenReturn(usdAccount);
+        when(balanceStore.credit(userId, Currency.USD, 500_00L, "tx-1"))
+            .thenReturn(BalanceSnapshot.of(userId, Currency.USD, 1500_00L, 3L, false));
 
         // When
-        Account result = accountService.addToBalance(userId, Currency.USD, new BigDecimal("500.00"));
+        BigDecimal result = accountService.addToBalance(userId, Currency.USD, new BigDecimal("500.00"), "tx-1");
 
         // Then
-        assertNotNull(result);
-        assertEquals(new BigDecimal("1500.00"), result.getBalance());
-        verify(accountRepository, times(1)).save(any(Account.class));
+        assertEquals(new BigDecimal("1500.00"), result);
+        verify(balanceSnapshotCache).evict(userId);
+    }
+
+    @Test
+    void testAddToBalance_MoreDecimalsThanCurrency_ThrowsException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> accountService.addToBalance(userId, Currency.USD, new BigDecimal("0.001"), "tx-1"));
+        verifyNoInteractions(balanceStore);
     }
 
     @Test
     void testSubtractFromBalance_Success() {
         // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
-        when(accountRepository.save(any(Account.class))).thenReturn(usdAccount);
+        when(balanceStore.debit(userId, Currency.USD, 500_00L, "tx-1"))
+            .thenReturn(BalanceSnapshot.of(userId, Currency.USD, 500_00L, 3L, false));
 
         // When
-        Account result = accountService.subtractFromBalance(userId, Currency.USD, new BigDecimal("500.00"));
+        BigDecimal result = accountService.subtractFromBalance(userId, Currency.USD, new BigDecimal("500.00"), "tx-1");
 
         // Then
-        assertNotNull(result);
-        assertEquals(new BigDecimal("500.00"), result.getBalance());
-        verify(accountRepository, times(1)).save(any(Account.class));
+        assertEquals(new BigDecimal("500.00"), result);
+        verify(balanceSnapshotCache).evict(userId);
     }
 
     @Test
     void testSubtractFromBalance_InsufficientFunds() {
         // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.of(usdAccount));
+        when(balanceStore.debit(userId, Currency.USD, 1500_00L, "tx-1"))
+            .thenThrow(new InsufficientFundsException("Insufficient funds in USD account"));
 
         // When & Then
-        assertThrows(IllegalArgumentException.class, 
-            () -> accountService.subtractFromBalance(userId, Currency.USD, new BigDecimal("1500.00")));
-        verify(accountRepository, never()).save(any(Account.class));
+        assertThrows(InsufficientFundsException.class,
+            () -> accountService.subtractFromBalance(userId, Currency.USD, new BigDecimal("1500.00"), "tx-1"));
     }
 
     @Test
-    void testCreateAccountsForUser() {
-        // Given
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.USD)).thenReturn(Optional.empty());
-        when(accountRepository.findByUserIdAndCurrency(userId, Currency.TRY)).thenReturn(Optional.empty());
-        when(accountRepository.save(any(Account.class))).thenReturn(usdAccount);
+    void testExchange_ConvertsBothLegsToMinorUnits() {
+        // When
+        accountService.exchange(userId, Currency.USD, new BigDecimal("100.00"), Currency.TRY, new BigDecimal("3251.47"), "tx-1");
 
+        // Then
+        verify(balanceStore).exchange(userId, Currency.USD, 100_00L, Currency.TRY, 3251_47L, "tx-1");
+        verify(balanceSnapshotCache).evict(userId);
+    }
+
+    @Test
+    void testCreateAccountsForUser() {
         // When
         accountService.createAccountsForUser(userId);
 
         // Then
-        verify(accountRepository, times(2)).save(any(Account.class)); // USD and TRY accounts
+        verify(balanceStore, times(1)).createAccounts(any(), eq(List.of(Currency.USD, Currency.TRY)));
+        verify(balanceSnapshotCache).evict(userId);
     }
 }
@@ -0,0 +1,81 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.TransactionType;
+import com.currency.currencyapp.exception.OverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdmissionControllerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AdmissionController admissionController = new AdmissionController(meterRegistry, 2, 1, 60);
+
+    @Test
+    void admit_OverCapacity_RejectsOnlyThatOperation() {
+        // Given
+        admissionController.admit(TransactionType.DEPOSIT);
+        admissionController.admit(TransactionType.DEPOSIT);
+
+        // When & Then
+        assertThrows(OverloadedException.class, () -> admissionController.admit(TransactionType.DEPOSIT));
+        assertNotNull(admissionController.admit(TransactionType.WITHDRAW));
+        assertEquals(1.0, meterRegistry.counter("admission.rejected", "operation", "deposit").count());
+        assertEquals(2.0, meterRegistry.get("admission.queue.depth").tag("operation", "deposit").gauge().value());
+    }
+
+    @Test
+    void admit_NothingDrainedYet_RetriesAfterMaximum() {
+        // Given
+        admissionController.admit(TransactionType.WITHDRAW);
+
+        // When
+        OverloadedException exception = assertThrows(OverloadedException.class,
+            () -> admissionController.admit(TransactionType.WITHDRAW));
+
+        // Then
+        assertEquals(Duration.ofSeconds(60), exception.getRetryAfter());
+    }
+
+    @Test
+    void admit_RecentCompletions_RetriesAfterDrainTime() {
+        // Given
+        for (int i = 0; i < 100; i++) {
+            admissionController.admit(TransactionType.WITHDRAW).release();
+        }
+        admissionController.admit(TransactionType.WITHDRAW);
+
+        // When
+        OverloadedException exception = assertThrows(OverloadedException.class,
+            () -> admissionController.admit(TransactionType.WITHDRAW));
+
+        // Then
+        assertEquals(Duration.ofSeconds(1), exception.getRetryAfter());
+    }
+
+    @Test
+    void permit_ReleasedTwice_FreesOneSlot() {
+        // Given
+        AdmissionController.Permit first = admissionController.admit(TransactionType.DEPOSIT);
+        admissionController.admit(TransactionType.DEPOSIT);
+
+        // When
+        first.release();
+        first.release();
+
+        // Then
+        assertEquals(1, admissionController.getInFlight(TransactionType.DEPOSIT));
+    }
+
+    @Test
+    void permit_Started_RecordsWaitTime() {
+        // When
+        admissionController.admit(TransactionType.DEPOSIT).started();
+
+        // Then
+        assertEquals(1, meterRegistry.get("admission.wait").tag("operation", "deposit").timer().count());
+    }
+}
@@ -0,0 +1,93 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConflictRetryPolicyTest {
+
+    private final String userId = "test-user-123";
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void execute_RetriesConflictsUntilSuccess() {
+        // Given
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(meterRegistry, 5, 0, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        long result = policy.execute(userId, Currency.USD, () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new OptimisticLockingFailureException("version mismatch");
+            }
+            return 42L;
+        });
+
+        // Then
+        assertEquals(42L, result);
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, conflicts("retried"));
+        assertEquals(0.0, conflicts("exhausted"));
+    }
+
+    @Test
+    void execute_GivesUpAfterMaxAttempts() {
+        // Given
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(meterRegistry, 3, 0, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThrows(OptimisticLockingFailureException.class, () -> policy.execute(userId, Currency.USD, () -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("version mismatch");
+        }));
+        assertEquals(3, attempts.get());
+        assertEquals(2.0, conflicts("retried"));
+        assertEquals(1.0, conflicts("exhausted"));
+    }
+
+    @Test
+    void execute_DoesNotRetryBusinessErrors() {
+        // Given
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(meterRegistry, 5, 0, 0);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When & Then
+        assertThrows(InsufficientFundsException.class, () -> policy.execute(userId, Currency.USD, () -> {
+            attempts.incrementAndGet();
+            throw new InsufficientFundsException("Insufficient funds in USD account");
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void backoffNanos_IsJitteredBelowExponentialCeiling() {
+        // Given
+        ConflictRetryPolicy policy = new ConflictRetryPolicy(meterRegistry, 10, 4, 50);
+
+        // When & Then
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(policy.backoffNanos(1) <= TimeUnit.MILLISECONDS.toNanos(4));
+            assertTrue(policy.backoffNanos(3) <= TimeUnit.MILLISECONDS.toNanos(16));
+            assertTrue(policy.backoffNanos(10) <= TimeUnit.MILLISECONDS.toNanos(50));
+        }
+    }
+
+    private double conflicts(String outcome) {
+        return meterRegistry.counter("balance.conflicts", "currency", "USD", "outcome", outcome).count();
+    }
+}
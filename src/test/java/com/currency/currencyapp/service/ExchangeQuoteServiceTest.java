@@ -0,0 +1,149 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.cache.ExchangeQuoteStore;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeQuote;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import com.currency.currencyapp.dto.ExchangeQuoteRequest;
+import com.currency.currencyapp.dto.ExchangeQuoteResponse;
+import com.currency.currencyapp.dto.ExchangeRequest;
+import com.currency.currencyapp.exception.QuoteNotFoundException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeQuoteServiceTest {
+
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private ExchangeQuoteService exchangeQuoteService;
+
+    @BeforeEach
+    void setUp() {
+        ExchangeQuoteStore store = new ExchangeQuoteStore(redisTemplate, new ObjectMapper(), 100, 30);
+        exchangeQuoteService = new ExchangeQuoteService(exchangeRateService, store, 30);
+    }
+
+    @Test
+    void redeemQuote_MatchingRequest_ReturnsLockedRateWithoutLookup() {
+        // Given
+        ExchangeQuoteResponse quote = createQuote();
+
+        // When
+        ExchangeQuote redeemed = exchangeQuoteService.redeemQuote("user-1", exchangeRequest(quote.getQuoteId(), "100.00"));
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), redeemed.getExchangeRate());
+        assertEquals(new BigDecimal("3250.00"), redeemed.getConvertedAmount());
+        verify(exchangeRateService, times(1)).getCurrentRateTable();
+        assertFalse(redeemed.isDegraded());
+    }
+
+    @Test
+    void createQuote_DegradedRateTable_MarksQuoteDegraded() {
+        // Given - the table was loaded from a snapshot, possibly by another node
+        ExchangeRateTable table = rateTable(true);
+
+        // When
+        ExchangeQuoteResponse quote = createQuote(table);
+
+        // Then
+        assertTrue(quote.isDegraded());
+        assertTrue(exchangeQuoteService.redeemQuote("user-1", exchangeRequest(quote.getQuoteId(), "100.00")).isDegraded());
+    }
+
+    @Test
+    void redeemQuote_AlreadyUsed_ThrowsException() {
+        // Given
+        ExchangeQuoteResponse quote = createQuote();
+        exchangeQuoteService.redeemQuote("user-1", exchangeRequest(quote.getQuoteId(), "100.00"));
+
+        // When & Then
+        assertThrows(QuoteNotFoundException.class,
+            () -> exchangeQuoteService.redeemQuote("user-1", exchangeRequest(quote.getQuoteId(), "100.00")));
+    }
+
+    @Test
+    void redeemQuote_OtherUser_ThrowsException() {
+        // Given
+        ExchangeQuoteResponse quote = createQuote();
+
+        // When & Then
+        assertThrows(QuoteNotFoundException.class,
+            () -> exchangeQuoteService.redeemQuote("user-2", exchangeRequest(quote.getQuoteId(), "100.00")));
+    }
+
+    @Test
+    void redeemQuote_DifferentAmount_ThrowsException() {
+        // Given
+        ExchangeQuoteResponse quote = createQuote();
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> exchangeQuoteService.redeemQuote("user-1", exchangeRequest(quote.getQuoteId(), "200.00")));
+    }
+
+    @Test
+    void priceExchange_SameCurrency_ThrowsException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+            () -> exchangeQuoteService.priceExchange(Currency.USD, Currency.USD, BigDecimal.TEN));
+    }
+
+    private ExchangeQuoteResponse createQuote() {
+        return createQuote(rateTable(false));
+    }
+
+    private ExchangeQuoteResponse createQuote(ExchangeRateTable table) {
+        BigDecimal rate = new BigDecimal("32.5");
+        when(exchangeRateService.getCurrentRateTable()).thenReturn(table);
+        when(exchangeRateService.getExchangeRate(table, Currency.USD, Currency.TRY)).thenReturn(rate);
+        when(exchangeRateService.convertAmount(new BigDecimal("100.00"), rate)).thenReturn(new BigDecimal("3250.00"));
+
+        return exchangeQuoteService.createQuote("user-1", ExchangeQuoteRequest.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(new BigDecimal("100.00"))
+            .build());
+    }
+
+    private static ExchangeRateTable rateTable(boolean degraded) {
+        return ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.TRY, new BigDecimal("32.5")))
+            .fetchedAt(Instant.now())
+            .degraded(degraded)
+            .build();
+    }
+
+    private static ExchangeRequest exchangeRequest(String quoteId, String amount) {
+        return ExchangeRequest.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(new BigDecimal(amount))
+            .quoteId(quoteId)
+            .build();
+    }
+}
@@ -0,0 +1,186 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.client.HttpExchangeRateProvider;
+import com.currency.currencyapp.client.RateProviderClient;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import com.currency.currencyapp.repository.RateSnapshotRepository;
+import com.currency.currencyapp.util.CircuitBreaker;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Runs the refresher against a local stub of the rate provider.
+ */
+class ExchangeRateRefresherTest {
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int responseStatus = 200;
+    private volatile String tryRate = "32.5";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ExchangeRateService exchangeRateService;
+    private ExchangeRateRefresher refresher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/v4/latest/", exchange -> {
+            requests.incrementAndGet();
+            byte[] body = ("{\"base\":\"USD\",\"date\":\"2026-10-16\",\"rates\":{\"USD\":1,\"TRY\":" + tryRate + "}}")
+                .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(responseStatus, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        CircuitBreaker circuitBreaker = new CircuitBreaker(3, Duration.ofSeconds(30));
+        RateProviderClient rateProviderClient = new RateProviderClient(new RestTemplate(), Runnable::run,
+            meterRegistry, 2000);
+        HttpExchangeRateProvider rateProvider = new HttpExchangeRateProvider("stub",
+            "http://localhost:" + server.getAddress().getPort() + "/v4/latest", rateProviderClient, circuitBreaker);
+        exchangeRateService = new ExchangeRateService(rateProvider,
+            new RateSnapshotService(mock(RateSnapshotRepository.class)), mock(RateHistoryService.class),
+            meterRegistry, null);
+        ReflectionTestUtils.setField(exchangeRateService, "self", exchangeRateService);
+        refresher = new ExchangeRateRefresher(exchangeRateService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void refreshAll_LoadsTableFromProvider() {
+        // When
+        refresher.refreshAll();
+
+        // Then
+        assertEquals(1, requests.get());
+        assertEquals(new BigDecimal("32.5"), exchangeRateService.getExchangeRate(Currency.USD, Currency.TRY));
+    }
+
+    @Test
+    void refreshAll_PicksUpNewRates() {
+        // Given
+        refresher.refreshAll();
+        tryRate = "33.0";
+
+        // When
+        refresher.refreshAll();
+
+        // Then
+        assertEquals(new BigDecimal("33.0"), exchangeRateService.getRateTable(Currency.USD).rateOf(Currency.TRY));
+    }
+
+    @Test
+    void getExchangeRate_ProviderDown_ServesLastKnownTable() {
+        // Given
+        refresher.refreshAll();
+        responseStatus = 500;
+
+        // When
+        refresher.refreshAll();
+        BigDecimal rate = exchangeRateService.getExchangeRate(Currency.USD, Currency.TRY);
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), rate);
+    }
+
+    @Test
+    void getExchangeRate_ProviderDownBeyondMaxStaleness_ThrowsException() {
+        // Given
+        refresher.refreshAll();
+        responseStatus = 500;
+        ReflectionTestUtils.setField(exchangeRateService, "maxStalenessSeconds", -1L);
+
+        // When & Then
+        assertThrows(ExchangeRateNotAvailableException.class,
+            () -> exchangeRateService.getExchangeRate(Currency.USD, Currency.TRY));
+    }
+
+    @Test
+    void getExchangeRate_ProviderDown_ServesDegradedSnapshot() {
+        // Given
+        refresher.refreshAll();
+        responseStatus = 500;
+        refresher.refreshAll();
+
+        // When
+        BigDecimal rate = exchangeRateService.getExchangeRate(Currency.USD, Currency.TRY);
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), rate);
+        assertEquals(1, degradedBases());
+    }
+
+    @Test
+    void getExchangeRate_ProviderDownWithoutSnapshot_ThrowsException() {
+        // Given
+        responseStatus = 500;
+
+        // When & Then
+        assertThrows(ExchangeRateNotAvailableException.class,
+            () -> exchangeRateService.getExchangeRate(Currency.USD, Currency.TRY));
+    }
+
+    @Test
+    void getExchangeRate_CircuitOpen_FailsFastWithoutCallingProvider() {
+        // Given
+        refresher.refreshAll();
+        responseStatus = 500;
+        for (int i = 0; i < 3; i++) {
+            refresher.refreshAll();
+        }
+        int requestsBefore = requests.get();
+
+        // When
+        BigDecimal rate = exchangeRateService.getExchangeRate(Currency.USD, Currency.TRY);
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), rate);
+        assertEquals(requestsBefore, requests.get());
+    }
+
+    @Test
+    void refreshAll_ProviderRecovers_LeavesDegradedMode() {
+        // Given
+        refresher.refreshAll();
+        responseStatus = 500;
+        refresher.refreshAll();
+        assertEquals(1, degradedBases());
+        responseStatus = 200;
+
+        // When
+        refresher.refreshAll();
+
+        // Then
+        assertEquals(0, degradedBases());
+    }
+
+    private double degradedBases() {
+        return meterRegistry.get("exchange_rate.degraded").gauge().value();
+    }
+}
@@ -1,25 +1,49 @@
 package com.currency.currencyapp.service;
 
+import com.currency.currencyapp.client.HttpExchangeRateProvider;
+import com.currency.currencyapp.client.RateProviderClient;
 import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
 import com.currency.currencyapp.dto.ExternalExchangeRateResponse;
 import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import com.currency.currencyapp.util.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
@@ -31,12 +55,22 @@ class ExchangeRateServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
-    @InjectMocks
+    @Mock
+    private RateSnapshotService rateSnapshotService;
+
+    @Mock
+    private RateHistoryService rateHistoryService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
     private ExchangeRateService exchangeRateService;
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(exchangeRateService, "exchangeRateApiUrl", "https://api.exchangerate-api.com/v4/latest");
+        RateProviderClient rateProviderClient = new RateProviderClient(restTemplate, Runnable::run, meterRegistry, 5000);
+        HttpExchangeRateProvider rateProvider = new HttpExchangeRateProvider("primary",
+            "https://api.exchangerate-api.com/v4/latest", rateProviderClient, new CircuitBreaker(100, Duration.ofSeconds(30)));
+        exchangeRateService = new ExchangeRateService(rateProvider, rateSnapshotService, rateHistoryService,
+            meterRegistry, null);
         ReflectionTestUtils.setField(exchangeRateService, "self", exchangeRateService);
     }
 
@@ -72,6 +106,76 @@ class ExchangeRateServiceTest {
         verify(restTemplate, times(1)).getForObject(anyString(), eq(ExternalExchangeRateResponse.class));
     }
 
+    @Test
+    void getExchangeRate_InversePair_DerivesCrossRateFromBaseTable() {
+        // Given
+        Map<String, BigDecimal> apiRates = new HashMap<>();
+        apiRates.put("TRY", new BigDecimal("32.0"));
+
+        ExternalExchangeRateResponse apiResponse = ExternalExchangeRateResponse.builder()
+            .base("USD")
+            .rates(apiRates)
+            .build();
+
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class)))
+            .thenReturn(apiResponse);
+
+        // When
+        BigDecimal result = exchangeRateService.getExchangeRate(Currency.TRY, Currency.USD);
+
+        // Then
+        assertEquals(new BigDecimal("0.03125"), result);
+        verify(restTemplate, times(1)).getForObject(eq("https://api.exchangerate-api.com/v4/latest/USD"),
+            eq(ExternalExchangeRateResponse.class));
+    }
+
+    @Test
+    void getExchangeRatesTo_AllCurrenciesFromOneTable() {
+        // Given
+        Map<String, BigDecimal> apiRates = new HashMap<>();
+        apiRates.put("TRY", new BigDecimal("32.0"));
+
+        ExternalExchangeRateResponse apiResponse = ExternalExchangeRateResponse.builder()
+            .base("USD")
+            .rates(apiRates)
+            .build();
+
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class)))
+            .thenReturn(apiResponse);
+
+        // When
+        Map<Currency, BigDecimal> result = exchangeRateService.getExchangeRatesTo(Currency.USD);
+
+        // Then
+        assertEquals(Map.of(Currency.USD, BigDecimal.ONE, Currency.TRY, new BigDecimal("0.03125")), result);
+        verify(restTemplate, times(1)).getForObject(anyString(), eq(ExternalExchangeRateResponse.class));
+    }
+
+    @Test
+    void getRateTable_KeepsOnlySupportedCurrencies() {
+        // Given
+        Map<String, BigDecimal> apiRates = new HashMap<>();
+        apiRates.put("USD", BigDecimal.ONE);
+        apiRates.put("TRY", new BigDecimal("32.0"));
+        apiRates.put("EUR", new BigDecimal("0.92"));
+
+        ExternalExchangeRateResponse apiResponse = ExternalExchangeRateResponse.builder()
+            .base("USD")
+            .rates(apiRates)
+            .build();
+
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class)))
+            .thenReturn(apiResponse);
+
+        // When
+        ExchangeRateTable table = exchangeRateService.getRateTable(Currency.USD);
+
+        // Then
+        assertEquals(Currency.USD, table.getBase());
+        assertEquals(2, table.getRates().size());
+        assertEquals(new BigDecimal("32.0"), table.rateOf(Currency.TRY));
+    }
+
     @Test
     void getExchangeRate_APIFailure_ThrowsException() {
         // Given
@@ -83,6 +187,241 @@ class ExchangeRateServiceTest {
             () -> exchangeRateService.getExchangeRate(Currency.USD, Currency.TRY));
     }
 
+    @Test
+    void refreshRateTable_APIFailure_ReturnsDegradedSnapshot() {
+        // Given
+        ExchangeRateTable snapshot = ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.TRY, new BigDecimal("31.0")))
+            .fetchedAt(Instant.now().minus(Duration.ofMinutes(1)))
+            .build();
+        when(rateSnapshotService.findLatest(Currency.USD)).thenReturn(Optional.of(snapshot));
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class)))
+            .thenThrow(new RuntimeException("API Error"));
+
+        // When
+        ExchangeRateTable table = exchangeRateService.refreshRateTable(Currency.USD);
+
+        // Then
+        assertTrue(table.isDegraded());
+        assertEquals(new BigDecimal("31.0"), table.rateOf(Currency.TRY));
+        assertEquals(1, meterRegistry.get("exchange_rate.degraded").gauge().value());
+    }
+
+    @Test
+    void getCurrentRateTable_CarriesDegradedFlagOfSharedTable() {
+        // Given - another node loaded the shared table from its snapshot
+        ExchangeRateService proxy = mock(ExchangeRateService.class);
+        ReflectionTestUtils.setField(exchangeRateService, "self", proxy);
+        when(proxy.getRateTable(Currency.USD)).thenReturn(ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.TRY, new BigDecimal("31.0")))
+            .fetchedAt(Instant.now())
+            .degraded(true)
+            .build());
+
+        // When & Then
+        assertTrue(exchangeRateService.getCurrentRateTable().isDegraded());
+        assertEquals(0, meterRegistry.get("exchange_rate.degraded").gauge().value());
+    }
+
+    @Test
+    void getRateTable_APIFailureWithSnapshotBeyondMaxStaleness_ThrowsException() {
+        // Given
+        ExchangeRateTable snapshot = ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.TRY, new BigDecimal("31.0")))
+            .fetchedAt(Instant.now().minus(Duration.ofDays(1)))
+            .build();
+        when(rateSnapshotService.findLatest(Currency.USD)).thenReturn(Optional.of(snapshot));
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class)))
+            .thenThrow(new RuntimeException("API Error"));
+
+        // When & Then
+        assertThrows(ExchangeRateNotAvailableException.class, () -> exchangeRateService.getRateTable(Currency.USD));
+        assertEquals(0, meterRegistry.get("exchange_rate.degraded").gauge().value());
+    }
+
+    @Test
+    void getRateTable_ColdStart_ServesPersistedSnapshot() {
+        // Given
+        ExchangeRateTable snapshot = ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.TRY, new BigDecimal("31.0")))
+            .fetchedAt(Instant.now())
+            .build();
+        when(rateSnapshotService.findLatest(Currency.USD)).thenReturn(Optional.of(snapshot));
+
+        // When
+        ExchangeRateTable table = exchangeRateService.getRateTable(Currency.USD);
+
+        // Then
+        assertSame(snapshot, table);
+    }
+
+    @Test
+    void getRateTable_ConcurrentStaleMisses_SubmitOneBackgroundRefresh() {
+        // Given - the submitted reload has not run yet
+        ExchangeRateService proxy = mock(ExchangeRateService.class);
+        ReflectionTestUtils.setField(exchangeRateService, "self", proxy);
+        when(rateSnapshotService.findLatest(Currency.USD)).thenReturn(Optional.of(ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.TRY, new BigDecimal("31.0")))
+            .fetchedAt(Instant.now())
+            .build()));
+
+        // When
+        exchangeRateService.getRateTable(Currency.USD);
+        exchangeRateService.getRateTable(Currency.USD);
+
+        // Then
+        verify(proxy, times(1)).refreshRateTableInBackground(Currency.USD);
+    }
+
+    @Test
+    void getRateTable_RefreshPoolFull_ServesLastKnownTable() {
+        // Given
+        ExchangeRateService proxy = mock(ExchangeRateService.class);
+        ReflectionTestUtils.setField(exchangeRateService, "self", proxy);
+        doThrow(new TaskRejectedException("Executor did not accept task"))
+            .when(proxy).refreshRateTableInBackground(Currency.USD);
+        ExchangeRateTable snapshot = ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.TRY, new BigDecimal("31.0")))
+            .fetchedAt(Instant.now())
+            .build();
+        when(rateSnapshotService.findLatest(Currency.USD)).thenReturn(Optional.of(snapshot));
+
+        // When
+        ExchangeRateTable first = exchangeRateService.getRateTable(Currency.USD);
+        ExchangeRateTable second = exchangeRateService.getRateTable(Currency.USD);
+
+        // Then - each miss tries again once the pool had no room
+        assertSame(snapshot, first);
+        assertSame(snapshot, second);
+        verify(proxy, times(2)).refreshRateTableInBackground(Currency.USD);
+    }
+
+    @Test
+    void getRateTable_Fetched_SavesSnapshot() {
+        // Given
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class)))
+            .thenReturn(ExternalExchangeRateResponse.builder()
+                .base("USD")
+                .rates(Map.of("TRY", new BigDecimal("32.0")))
+                .build());
+
+        // When
+        ExchangeRateTable table = exchangeRateService.getRateTable(Currency.USD);
+
+        // Then
+        assertFalse(table.isDegraded());
+        verify(rateSnapshotService).save(table);
+        verify(rateHistoryService).record(table);
+    }
+
+    @Test
+    void getRateTable_ConcurrentMisses_ShareOneUpstreamCall() throws Exception {
+        // Given
+        int callers = 32;
+        CountDownLatch upstreamEntered = new CountDownLatch(1);
+        CountDownLatch releaseUpstream = new CountDownLatch(1);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class))).thenAnswer(invocation -> {
+            upstreamCalls.incrementAndGet();
+            upstreamEntered.countDown();
+            releaseUpstream.await(5, TimeUnit.SECONDS);
+            return ExternalExchangeRateResponse.builder()
+                .base("USD")
+                .rates(Map.of("TRY", new BigDecimal("30.0")))
+                .build();
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            // When
+            List<Future<ExchangeRateTable>> results = new ArrayList<>();
+            results.add(executor.submit(() -> exchangeRateService.getRateTable(Currency.USD)));
+            assertTrue(upstreamEntered.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> exchangeRateService.getRateTable(Currency.USD)));
+            }
+            awaitWaitersOnInFlightFetch(Currency.USD, callers - 1);
+            releaseUpstream.countDown();
+
+            // Then
+            ExchangeRateTable first = results.get(0).get(5, TimeUnit.SECONDS);
+            for (Future<ExchangeRateTable> result : results) {
+                assertSame(first, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, upstreamCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getRateTable_ConcurrentMisses_ShareUpstreamFailure() throws Exception {
+        // Given
+        CountDownLatch upstreamEntered = new CountDownLatch(1);
+        CountDownLatch releaseUpstream = new CountDownLatch(1);
+        AtomicInteger upstreamCalls = new AtomicInteger();
+
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class))).thenAnswer(invocation -> {
+            upstreamCalls.incrementAndGet();
+            upstreamEntered.countDown();
+            releaseUpstream.await(5, TimeUnit.SECONDS);
+            throw new RuntimeException("API Error");
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // When
+            Future<ExchangeRateTable> leader = executor.submit(() -> exchangeRateService.getRateTable(Currency.USD));
+            assertTrue(upstreamEntered.await(5, TimeUnit.SECONDS));
+            Future<ExchangeRateTable> follower = executor.submit(() -> exchangeRateService.getRateTable(Currency.USD));
+            awaitWaitersOnInFlightFetch(Currency.USD, 1);
+            releaseUpstream.countDown();
+
+            // Then
+            ExecutionException leaderError = assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+            ExecutionException followerError = assertThrows(ExecutionException.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(ExchangeRateNotAvailableException.class, leaderError.getCause());
+            assertSame(leaderError.getCause(), followerError.getCause());
+            assertEquals(1, upstreamCalls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getRateTable_InFlightFetchTooSlow_WaiterTimesOut() throws Exception {
+        // Given
+        ReflectionTestUtils.setField(exchangeRateService, "fetchWaitTimeoutMs", 50L);
+        CountDownLatch upstreamEntered = new CountDownLatch(1);
+        CountDownLatch releaseUpstream = new CountDownLatch(1);
+
+        when(restTemplate.getForObject(anyString(), eq(ExternalExchangeRateResponse.class))).thenAnswer(invocation -> {
+            upstreamEntered.countDown();
+            releaseUpstream.await(5, TimeUnit.SECONDS);
+            return ExternalExchangeRateResponse.builder().base("USD").rates(Map.of()).build();
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> exchangeRateService.getRateTable(Currency.USD));
+            assertTrue(upstreamEntered.await(5, TimeUnit.SECONDS));
+
+            // When & Then
+            assertThrows(ExchangeRateNotAvailableException.class,
+                () -> exchangeRateService.getRateTable(Currency.USD));
+        } finally {
+            releaseUpstream.countDown();
+            executor.shutdownNow();
+        }
+    }
+
     @Test
     void convertAmount_SameCurrency_ReturnsOriginalAmount() {
         // Given
@@ -117,4 +456,15 @@ class ExchangeRateServiceTest {
         // Then
         assertEquals(new BigDecimal("3000.00"), result);
     }
+
+    @SuppressWarnings("unchecked")
+    private void awaitWaitersOnInFlightFetch(Currency base, int waiters) throws InterruptedException {
+        Map<Currency, CompletableFuture<ExchangeRateTable>> inFlight =
+            (Map<Currency, CompletableFuture<ExchangeRateTable>>) ReflectionTestUtils.getField(exchangeRateService, "inFlightFetches");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (inFlight.get(base).getNumberOfDependents() < waiters) {
+            assertTrue(System.nanoTime() < deadline, "Callers did not join the in-flight fetch");
+            Thread.sleep(1);
+        }
+    }
 }
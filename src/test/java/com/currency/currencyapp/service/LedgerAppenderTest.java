@@ -0,0 +1,89 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerAppenderTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BalanceStore balanceStore;
+
+    private LedgerAppender ledgerAppender;
+
+    @BeforeEach
+    void setUp() {
+        ledgerAppender = new LedgerAppender(mongoTemplate, balanceStore, new SimpleMeterRegistry(), 500, 100);
+    }
+
+    @Test
+    void testSequence_LastPendingEntryCarriesDocumentVersion() {
+        // Given
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        Document stream = new Document("_id", "user-1")
+            .append("version", 7L)
+            .append("pendingEntries", List.of(
+                pending("entry-1", 100_00L),
+                pending("entry-2", -25_00L)));
+
+        // When
+        List<LedgerEntry> entries = ledgerAppender.sequence(stream);
+
+        // Then
+        assertEquals(List.of("entry-1", "entry-2"), entries.stream().map(LedgerEntry::getId).toList());
+        assertEquals(List.of(6L, 7L), entries.stream().map(LedgerEntry::getSequence).toList());
+        assertEquals(Map.of(Currency.USD, -25_00L), entries.get(1).getAmounts());
+    }
+
+    @Test
+    void testAppendBatch_NothingPending_WritesNothing() {
+        // Given
+        when(balanceStore.getLedgerStreamCollection()).thenReturn("wallets");
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("wallets"))).thenReturn(List.of());
+
+        // When
+        int appended = ledgerAppender.appendBatch();
+
+        // Then
+        assertEquals(0, appended);
+        verify(mongoTemplate, never()).bulkOps(any(), any(Class.class));
+    }
+
+    private static Document pending(String id, long amountMinor) {
+        return new Document("_id", id)
+            .append("streamId", "user-1")
+            .append("userId", "user-1")
+            .append("amounts", new Document("USD", amountMinor))
+            .append("transactionId", "tx-" + id);
+    }
+}
@@ -0,0 +1,41 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LedgerGuardTest {
+
+    @Test
+    void notPending_ExcludesDocumentsWithAnEntryOfTheTransactionInTheDirection() {
+        // When
+        Document criteria = LedgerGuard.notPending(Currency.USD, "tx-1", 1).getCriteriaObject();
+
+        // Then
+        assertEquals(new Document("pendingEntries", new Document("$not", new Document("$elemMatch",
+            new Document("transactionId", "tx-1").append("amounts.USD", new Document("$gt", 0L))))), criteria);
+    }
+
+    @Test
+    void pending_MatchesDebitsOfTheTransaction() {
+        // When
+        Document criteria = LedgerGuard.pending(Currency.TRY, "tx-1", -1).getCriteriaObject();
+
+        // Then
+        assertEquals(new Document("pendingEntries", new Document("$elemMatch",
+            new Document("transactionId", "tx-1").append("amounts.TRY", new Document("$lt", 0L)))), criteria);
+    }
+
+    @Test
+    void appended_MatchesEntriesOfTheTransactionOnTheStream() {
+        // When
+        Document query = LedgerGuard.appended("user-1:USD", Currency.USD, "tx-1", -1).getQueryObject();
+
+        // Then
+        assertEquals(new Document("transactionId", "tx-1")
+            .append("amounts.USD", new Document("$lt", 0L))
+            .append("streamId", "user-1:USD"), query);
+    }
+}
@@ -0,0 +1,123 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.cache.BalanceSnapshotCache;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.LedgerSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerRebuilderTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BalanceStore balanceStore;
+
+    @Mock
+    private BalanceSnapshotCache balanceSnapshotCache;
+
+    private final LedgerSnapshot snapshot = snapshot(1, Map.of(Currency.USD, 100_00L));
+
+    @Test
+    void testRebuildBatch_MatchingHead_CountsStream() {
+        // Given
+        LedgerRebuilder rebuilder = new LedgerRebuilder(mongoTemplate, balanceStore, balanceSnapshotCache, 1, true);
+        when(mongoTemplate.find(any(Query.class), eq(LedgerEntry.class))).thenReturn(List.of(entry(2, 50_00L)));
+        when(balanceStore.getLedgerHeads("user-1")).thenReturn(List.of(snapshot(2, Map.of(Currency.USD, 150_00L, Currency.TRY, 0L))));
+        LedgerRebuilder.Counts counts = new LedgerRebuilder.Counts();
+
+        // When
+        rebuilder.rebuildBatch(List.of(snapshot), counts);
+
+        // Then
+        assertEquals(1, counts.streams.get());
+        assertEquals(1, counts.entries.get());
+        assertEquals(0, counts.mismatches.get());
+        verify(balanceStore, never()).restoreLedgerHead(any());
+    }
+
+    @Test
+    void testRebuildBatch_Mismatch_RepairsAndEvicts() {
+        // Given
+        LedgerRebuilder rebuilder = new LedgerRebuilder(mongoTemplate, balanceStore, balanceSnapshotCache, 1, true);
+        when(mongoTemplate.find(any(Query.class), eq(LedgerEntry.class))).thenReturn(List.of(entry(2, 50_00L)));
+        when(balanceStore.getLedgerHeads("user-1")).thenReturn(List.of(snapshot(2, Map.of(Currency.USD, 999_00L))));
+        when(balanceStore.restoreLedgerHead(any())).thenReturn(true);
+        LedgerRebuilder.Counts counts = new LedgerRebuilder.Counts();
+
+        // When
+        rebuilder.rebuildBatch(List.of(snapshot), counts);
+
+        // Then
+        assertEquals(1, counts.mismatches.get());
+        assertEquals(1, counts.repaired.get());
+        verify(balanceStore).restoreLedgerHead(argThat(rebuilt ->
+            rebuilt.getSequence() == 2 && rebuilt.getBalances().equals(Map.of(Currency.USD, 150_00L))));
+        verify(balanceSnapshotCache).evict("user-1");
+    }
+
+    @Test
+    void testRebuildBatch_Mismatch_WithoutRepair_OnlyReports() {
+        // Given
+        LedgerRebuilder rebuilder = new LedgerRebuilder(mongoTemplate, balanceStore, balanceSnapshotCache, 1, false);
+        when(mongoTemplate.find(any(Query.class), eq(LedgerEntry.class))).thenReturn(List.of(entry(2, 50_00L)));
+        when(balanceStore.getLedgerHeads("user-1")).thenReturn(List.of(snapshot(2, Map.of(Currency.USD, 999_00L))));
+        LedgerRebuilder.Counts counts = new LedgerRebuilder.Counts();
+
+        // When
+        rebuilder.rebuildBatch(List.of(snapshot), counts);
+
+        // Then
+        assertEquals(1, counts.mismatches.get());
+        assertEquals(0, counts.repaired.get());
+        verify(balanceStore, never()).restoreLedgerHead(any());
+    }
+
+    @Test
+    void testRebuildBatch_HeadAhead_SkipsStream() {
+        // Given
+        LedgerRebuilder rebuilder = new LedgerRebuilder(mongoTemplate, balanceStore, balanceSnapshotCache, 1, true);
+        when(mongoTemplate.find(any(Query.class), eq(LedgerEntry.class))).thenReturn(List.of(entry(2, 50_00L)));
+        when(balanceStore.getLedgerHeads("user-1")).thenReturn(List.of(snapshot(3, Map.of(Currency.USD, 999_00L))));
+        LedgerRebuilder.Counts counts = new LedgerRebuilder.Counts();
+
+        // When
+        rebuilder.rebuildBatch(List.of(snapshot), counts);
+
+        // Then
+        assertEquals(1, counts.skipped.get());
+        assertEquals(0, counts.mismatches.get());
+        verify(balanceStore, never()).restoreLedgerHead(any());
+    }
+
+    private static LedgerSnapshot snapshot(long sequence, Map<Currency, Long> balances) {
+        return LedgerSnapshot.builder()
+            .streamId("user-1")
+            .userId("user-1")
+            .sequence(sequence)
+            .balances(balances)
+            .build();
+    }
+
+    private static LedgerEntry entry(long sequence, long amountMinor) {
+        LedgerEntry entry = LedgerEntry.pending("user-1", "user-1", Map.of(Currency.USD, amountMinor), "tx-" + sequence);
+        entry.setSequence(sequence);
+        return entry;
+    }
+}
@@ -0,0 +1,195 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import com.currency.currencyapp.domain.RateHistoryBucket;
+import com.currency.currencyapp.domain.RateTick;
+import com.currency.currencyapp.dto.HistoricalRateResponse;
+import com.currency.currencyapp.dto.OhlcCandle;
+import com.currency.currencyapp.dto.OhlcSeriesResponse;
+import com.currency.currencyapp.exception.RateHistoryNotFoundException;
+import com.currency.currencyapp.repository.RateHistoryRepository;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateHistoryServiceTest {
+
+    private static final Instant T0 = Instant.parse("2026-10-16T10:00:00Z");
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private RateHistoryRepository rateHistoryRepository;
+
+    private RateHistoryService rateHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        rateHistoryService = new RateHistoryService(mongoTemplate, rateHistoryRepository, 4, 100);
+    }
+
+    @Test
+    void record_PushesTickIntoHourBucket() {
+        // When
+        rateHistoryService.record(table(T0.plusSeconds(125), "32.5"));
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(RateHistoryBucket.class));
+
+        assertEquals(T0, query.getValue().getQueryObject().get("bucketStart"));
+        Document pushed = (Document) update.getValue().getUpdateObject().get("$push", Document.class).get("ticks");
+        assertEquals(Date.from(T0.plusSeconds(125)), pushed.get("at"));
+        assertEquals(new Decimal128(new BigDecimal("32.5")), pushed.get("rates", Document.class).get("TRY"));
+    }
+
+    @Test
+    void getRateAt_RecentInstant_ServedFromMemory() {
+        // Given
+        rateHistoryService.record(table(T0, "32.0"));
+        rateHistoryService.record(table(T0.plusSeconds(45), "32.5"));
+
+        // When
+        HistoricalRateResponse response = rateHistoryService.getRateAt(Currency.TRY, Currency.USD, T0.plusSeconds(60));
+
+        // Then
+        assertEquals(new BigDecimal("0.03076923076923077"), response.getRate());
+        assertEquals(T0.plusSeconds(45), response.getObservedAt());
+        verifyNoInteractions(rateHistoryRepository);
+    }
+
+    @Test
+    void getRateAt_OlderThanBuffer_ReadsBuckets() {
+        // Given
+        RateHistoryBucket current = bucket(T0, tick(T0.plusSeconds(30), "33.0"));
+        RateHistoryBucket previous = bucket(T0.minus(Duration.ofHours(1)), tick(T0.minusSeconds(60), "32.0"));
+        when(rateHistoryRepository.findTop2ByBaseAndBucketStartLessThanEqualOrderByBucketStartDesc(Currency.USD, T0.plusSeconds(10)))
+            .thenReturn(List.of(current, previous));
+
+        // When
+        HistoricalRateResponse response = rateHistoryService.getRateAt(Currency.USD, Currency.TRY, T0.plusSeconds(10));
+
+        // Then
+        assertEquals(new BigDecimal("32.0"), response.getRate());
+        assertEquals(T0.minusSeconds(60), response.getObservedAt());
+    }
+
+    @Test
+    void getRateAt_NothingRecorded_ThrowsException() {
+        // When & Then
+        assertThrows(RateHistoryNotFoundException.class,
+            () -> rateHistoryService.getRateAt(Currency.USD, Currency.TRY, T0));
+    }
+
+    @Test
+    void getOhlc_BuildsCandlesFromStoredAndBufferedTicks() {
+        // Given
+        when(rateHistoryRepository.findByBaseAndBucketStartGreaterThanEqualAndBucketStartLessThanOrderByBucketStartAsc(
+                eq(Currency.USD), eq(T0), any()))
+            .thenReturn(List.of(bucket(T0,
+                tick(T0.plusSeconds(60), "32.0"),
+                tick(T0.plusSeconds(600), "32.8"),
+                tick(T0.plusSeconds(1200), "31.9"))));
+        rateHistoryService.record(table(T0.plusSeconds(1200), "31.9"));
+        rateHistoryService.record(table(T0.plusSeconds(2000), "32.1"));
+
+        // When
+        OhlcSeriesResponse series = rateHistoryService.getOhlc(Currency.USD, Currency.TRY,
+            T0, T0.plus(Duration.ofHours(1)), Duration.ofMinutes(30));
+
+        // Then
+        assertEquals(2, series.getCandles().size());
+        OhlcCandle first = series.getCandles().get(0);
+        assertEquals(T0, first.getStart());
+        assertEquals(new BigDecimal("32.0"), first.getOpen());
+        assertEquals(new BigDecimal("32.8"), first.getHigh());
+        assertEquals(new BigDecimal("31.9"), first.getLow());
+        assertEquals(new BigDecimal("31.9"), first.getClose());
+        assertEquals(3, first.getTicks());
+        OhlcCandle second = series.getCandles().get(1);
+        assertEquals(T0.plus(Duration.ofMinutes(30)), second.getStart());
+        assertEquals(1, second.getTicks());
+    }
+
+    @Test
+    void getOhlc_TooManyIntervals_ThrowsException() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> rateHistoryService.getOhlc(Currency.USD, Currency.TRY,
+            T0, T0.plus(Duration.ofDays(1)), Duration.ofMinutes(1)));
+    }
+
+    @Test
+    void bucketDocument_ReadsDecimal128Rates() {
+        // Given
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.afterPropertiesSet();
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        Document stored = new Document("base", "USD")
+            .append("bucketStart", Date.from(T0))
+            .append("count", 1)
+            .append("ticks", List.of(new Document("at", Date.from(T0))
+                .append("rates", new Document("TRY", new Decimal128(new BigDecimal("32.5"))))));
+
+        // When
+        RateHistoryBucket bucket = converter.read(RateHistoryBucket.class, stored);
+
+        // Then
+        assertEquals(new BigDecimal("32.5"), bucket.getTicks().get(0).getRates().get(Currency.TRY));
+    }
+
+    private static ExchangeRateTable table(Instant fetchedAt, String tryRate) {
+        return ExchangeRateTable.builder()
+            .base(Currency.USD)
+            .rates(Map.of(Currency.USD, BigDecimal.ONE, Currency.TRY, new BigDecimal(tryRate)))
+            .fetchedAt(fetchedAt)
+            .build();
+    }
+
+    private static RateTick tick(Instant at, String tryRate) {
+        return RateTick.builder().at(at).rates(Map.of(Currency.TRY, new BigDecimal(tryRate))).build();
+    }
+
+    private static RateHistoryBucket bucket(Instant bucketStart, RateTick... ticks) {
+        return RateHistoryBucket.builder()
+            .base(Currency.USD)
+            .bucketStart(bucketStart)
+            .count(ticks.length)
+            .ticks(List.of(ticks))
+            .build();
+    }
+}
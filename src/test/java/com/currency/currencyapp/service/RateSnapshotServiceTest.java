@@ -0,0 +1,73 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeRateTable;
+import com.currency.currencyapp.domain.RateSnapshot;
+import com.currency.currencyapp.repository.RateSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RateSnapshotServiceTest {
+
+    @Mock
+    private RateSnapshotRepository rateSnapshotRepository;
+
+    private RateSnapshotService rateSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        rateSnapshotService = new RateSnapshotService(rateSnapshotRepository);
+    }
+
+    @Test
+    void findLatest_StoredSnapshot_IsReadOnce() {
+        // Given
+        when(rateSnapshotRepository.findById("USD")).thenReturn(Optional.of(snapshot()));
+
+        // When
+        rateSnapshotService.findLatest(Currency.USD);
+        Optional<ExchangeRateTable> table = rateSnapshotService.findLatest(Currency.USD);
+
+        // Then
+        assertEquals(new BigDecimal("31.0"), table.orElseThrow().rateOf(Currency.TRY));
+        verify(rateSnapshotRepository, times(1)).findById("USD");
+    }
+
+    @Test
+    void findLatest_NoSnapshotYet_FindsOneSavedLaterByAnotherNode() {
+        // Given
+        when(rateSnapshotRepository.findById("USD")).thenReturn(Optional.empty(), Optional.of(snapshot()));
+
+        // When
+        Optional<ExchangeRateTable> missing = rateSnapshotService.findLatest(Currency.USD);
+        Optional<ExchangeRateTable> saved = rateSnapshotService.findLatest(Currency.USD);
+
+        // Then
+        assertTrue(missing.isEmpty());
+        assertEquals(new BigDecimal("31.0"), saved.orElseThrow().rateOf(Currency.TRY));
+    }
+
+    private static RateSnapshot snapshot() {
+        return RateSnapshot.builder()
+            .base("USD")
+            .rates(Map.of(Currency.TRY, new BigDecimal("31.0")))
+            .fetchedAt(Instant.now())
+            .savedAt(Instant.now())
+            .build();
+    }
+}
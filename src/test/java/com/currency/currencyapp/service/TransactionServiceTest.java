@@ -0,0 +1,497 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.client.PaymentGateway;
+import com.currency.currencyapp.client.PaymentGatewayException;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.ExchangeQuote;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.TransactionStatus;
+import com.currency.currencyapp.domain.TransactionType;
+import com.currency.currencyapp.domain.WorkItem;
+import com.currency.currencyapp.dto.DepositRequest;
+import com.currency.currencyapp.dto.ExchangeRequest;
+import com.currency.currencyapp.dto.TransactionResponse;
+import com.currency.currencyapp.dto.WithdrawRequest;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import com.currency.currencyapp.exception.OverloadedException;
+import com.currency.currencyapp.repository.TransactionRepository;
+import com.currency.currencyapp.util.PartitionedExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionServiceTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionWriteBatcher transactionWriteBatcher;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private AccountService accountService;
+
+    @Mock
+    private ExchangeQuoteService exchangeQuoteService;
+
+    @Mock
+    private PartitionedExecutor transactionExecutor;
+
+    @Mock
+    private WorkItemOutbox workItemOutbox;
+
+    @Mock
+    private PaymentGateway paymentGateway;
+
+    private final AdmissionController admissionController = new AdmissionController(new SimpleMeterRegistry(), 1, 1, 60);
+
+    private TransactionService transactionService;
+
+    private final String userId = "test-user-123";
+    private final BigDecimal amount = new BigDecimal("100.00");
+
+    @BeforeEach
+    void setUp() {
+        transactionService = new TransactionService(transactionRepository, transactionWriteBatcher, notificationService, accountService,
+            exchangeQuoteService, transactionExecutor, admissionController, workItemOutbox, paymentGateway, Runnable::run);
+    }
+
+    @Test
+    void testProcessDeposit_StoresPendingTransactionAndWorkItem() {
+        // Given
+        when(transactionWriteBatcher.insert(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setId("tx-1");
+            return CompletableFuture.completedFuture(transaction);
+        });
+
+        // When
+        Transaction transaction = transactionService.processDeposit(userId,
+            DepositRequest.builder().currency(Currency.USD).amount(amount).build());
+
+        // Then
+        assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+        verify(workItemOutbox).enqueue(transaction);
+        verifyNoInteractions(transactionExecutor, paymentGateway, accountService);
+    }
+
+    @Test
+    void testProcessDeposit_WorkItemNotStored_WritesNoTransaction() {
+        // Given
+        when(workItemOutbox.enqueue(any(Transaction.class))).thenThrow(new IllegalStateException("Database unavailable"));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> transactionService.processDeposit(userId,
+            DepositRequest.builder().currency(Currency.USD).amount(amount).build()));
+        verifyNoInteractions(transactionWriteBatcher);
+    }
+
+    @Test
+    void testProcessWithdraw_PendingRecordNotStored_IsStillAccepted() {
+        // Given
+        when(transactionWriteBatcher.insert(any(Transaction.class)))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Database unavailable")));
+
+        // When
+        Transaction transaction = transactionService.processWithdraw(userId,
+            WithdrawRequest.builder().currency(Currency.USD).amount(amount).build());
+
+        // Then - the work item carries the transaction and writes it once settled
+        assertNotNull(transaction.getId());
+        assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+        InOrder order = inOrder(workItemOutbox, transactionWriteBatcher);
+        order.verify(workItemOutbox).enqueue(transaction);
+        order.verify(transactionWriteBatcher).insert(transaction);
+    }
+
+    @Test
+    void testDeposit_CreditsBalanceOnceCollected() {
+        // Given
+        acknowledgeSaves();
+        Transaction transaction = pending(TransactionType.DEPOSIT);
+        CompletableFuture<Void> collected = new CompletableFuture<>();
+        when(paymentGateway.collect(transaction)).thenReturn(collected);
+
+        // When
+        CompletableFuture<Transaction> deposit = transactionService.deposit(transaction);
+
+        // Then
+        assertFalse(deposit.isDone());
+        verify(accountService, never()).addToBalance(anyString(), any(), any(), anyString());
+
+        collected.complete(null);
+        assertEquals(TransactionStatus.SUCCESS, deposit.join().getStatus());
+        verify(accountService).addToBalance(userId, Currency.USD, amount, "tx-1");
+        verify(transactionWriteBatcher).save(transaction);
+        verify(notificationService).sendDepositNotification(userId, transaction, true, null);
+    }
+
+    @Test
+    void testDeposit_GatewayFails_DoesNotCredit() {
+        // Given
+        acknowledgeSaves();
+        Transaction transaction = pending(TransactionType.DEPOSIT);
+        when(paymentGateway.collect(transaction))
+            .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("Card declined")));
+
+        // When
+        transactionService.deposit(transaction).join();
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        assertEquals("Card declined", transaction.getErrorMessage());
+        verify(accountService, never()).addToBalance(anyString(), any(), any(), anyString());
+        verify(notificationService).sendDepositNotification(userId, transaction, false, "Card declined");
+    }
+
+    @Test
+    void testWithdraw_ReservesBeforePayOut() {
+        // Given
+        acknowledgeSaves();
+        Transaction transaction = pending(TransactionType.WITHDRAW);
+        when(paymentGateway.payOut(transaction)).thenReturn(CompletableFuture.completedFuture(null));
+
+        // When
+        transactionService.withdraw(transaction).join();
+
+        // Then
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        var order = inOrder(accountService, paymentGateway);
+        order.verify(accountService).subtractFromBalance(userId, Currency.USD, amount, "tx-1");
+        order.verify(paymentGateway).payOut(transaction);
+        verify(accountService, never()).addToBalance(anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void testWithdraw_InsufficientFunds_SkipsGateway() {
+        // Given
+        acknowledgeSaves();
+        Transaction transaction = pending(TransactionType.WITHDRAW);
+        doThrow(new InsufficientFundsException("Insufficient funds"))
+            .when(accountService).subtractFromBalance(userId, Currency.USD, amount, "tx-1");
+
+        // When
+        transactionService.withdraw(transaction).join();
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        verifyNoInteractions(paymentGateway);
+        verify(notificationService).sendWithdrawNotification(userId, transaction, false, "Insufficient funds");
+    }
+
+    @Test
+    void testWithdraw_PayOutFails_ReturnsReservedAmount() {
+        // Given
+        acknowledgeSaves();
+        Transaction transaction = pending(TransactionType.WITHDRAW);
+        when(paymentGateway.payOut(transaction))
+            .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("Bank unavailable")));
+
+        // When
+        transactionService.withdraw(transaction).join();
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        verify(accountService).addToBalance(userId, Currency.USD, amount, "tx-1");
+        verify(notificationService).sendWithdrawNotification(userId, transaction, false, "Bank unavailable");
+    }
+
+    @Test
+    void testWithdraw_ReturningReservedAmountFails_LeavesUnsettled() {
+        // Given
+        Transaction transaction = pending(TransactionType.WITHDRAW);
+        when(paymentGateway.payOut(transaction))
+            .thenReturn(CompletableFuture.failedFuture(new PaymentGatewayException("Bank unavailable")));
+        doThrow(new IllegalStateException("Database unavailable"))
+            .when(accountService).addToBalance(userId, Currency.USD, amount, "tx-1");
+
+        // When
+        CompletableFuture<Transaction> withdraw = transactionService.withdraw(transaction);
+
+        // Then
+        assertTrue(withdraw.isCompletedExceptionally());
+        assertEquals(TransactionStatus.PENDING, transaction.getStatus());
+        verify(transactionWriteBatcher, never()).save(any());
+        verifyNoInteractions(notificationService);
+    }
+
+    @Test
+    void testProcess_HoldsAdmissionUntilSettled() {
+        // Given
+        acknowledgeSaves();
+        WorkItem item = workItem(pending(TransactionType.DEPOSIT), 1);
+        CompletableFuture<Void> collected = new CompletableFuture<>();
+        when(paymentGateway.collect(item.getTransaction())).thenReturn(collected);
+        runLanesInline();
+
+        // When
+        CompletableFuture<Transaction> processed = transactionService.process(item);
+
+        // Then
+        assertEquals(1, admissionController.getInFlight(TransactionType.DEPOSIT));
+        assertThrows(OverloadedException.class, () -> transactionService.process(workItem(pending(TransactionType.DEPOSIT), 1)));
+        assertThrows(OverloadedException.class, () -> transactionService.processDeposit(userId,
+            DepositRequest.builder().currency(Currency.USD).amount(amount).build()));
+
+        collected.complete(null);
+        assertEquals(TransactionStatus.SUCCESS, processed.join().getStatus());
+        assertEquals(0, admissionController.getInFlight(TransactionType.DEPOSIT));
+    }
+
+    @Test
+    void testProcess_NextItemOfUser_WaitsForPreviousPipeline() {
+        // Given
+        acknowledgeSaves();
+        WorkItem deposit = workItem(pending(TransactionType.DEPOSIT), 1);
+        Transaction withdrawal = pending(TransactionType.WITHDRAW);
+        withdrawal.setId("tx-2");
+        CompletableFuture<Void> collected = new CompletableFuture<>();
+        when(paymentGateway.collect(deposit.getTransaction())).thenReturn(collected);
+        when(paymentGateway.payOut(withdrawal)).thenReturn(CompletableFuture.completedFuture(null));
+        runLanesInline();
+
+        // When
+        CompletableFuture<Transaction> deposited = transactionService.process(deposit);
+        CompletableFuture<Transaction> withdrawn = transactionService.process(workItem(withdrawal, 1));
+
+        // Then
+        assertFalse(withdrawn.isDone());
+        verify(accountService, never()).subtractFromBalance(anyString(), any(), any(), anyString());
+
+        collected.complete(null);
+        assertEquals(TransactionStatus.SUCCESS, deposited.join().getStatus());
+        assertEquals(TransactionStatus.SUCCESS, withdrawn.join().getStatus());
+        var order = inOrder(accountService);
+        order.verify(accountService).addToBalance(userId, Currency.USD, amount, "tx-1");
+        order.verify(accountService).subtractFromBalance(userId, Currency.USD, amount, "tx-2");
+    }
+
+    @Test
+    void testProcess_PreviousItemOfUserFails_LeavesNextToItsLease() {
+        // Given
+        WorkItem deposit = workItem(pending(TransactionType.DEPOSIT), 1);
+        Transaction withdrawal = pending(TransactionType.WITHDRAW);
+        withdrawal.setId("tx-2");
+        CompletableFuture<Void> collected = new CompletableFuture<>();
+        when(paymentGateway.collect(deposit.getTransaction())).thenReturn(collected);
+        doThrow(new IllegalStateException("Database unavailable"))
+            .when(accountService).addToBalance(userId, Currency.USD, amount, "tx-1");
+        when(transactionWriteBatcher.save(any(Transaction.class)))
+            .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("Database unavailable")));
+        runLanesInline();
+
+        // When
+        CompletableFuture<Transaction> deposited = transactionService.process(deposit);
+        CompletableFuture<Transaction> withdrawn = transactionService.process(workItem(withdrawal, 1));
+        collected.complete(null);
+
+        // Then
+        assertTrue(deposited.isCompletedExceptionally());
+        assertTrue(withdrawn.isCompletedExceptionally());
+        verify(accountService, never()).subtractFromBalance(anyString(), any(), any(), anyString());
+        assertEquals(0, admissionController.getInFlight(TransactionType.WITHDRAW));
+    }
+
+    @Test
+    void testProcess_LaneFull_FreesAdmission() {
+        // Given
+        doThrow(new TaskRejectedException("Lane 0 did not accept task"))
+            .when(transactionExecutor).execute(eq(userId), any(Runnable.class));
+
+        // When & Then
+        assertThrows(TaskRejectedException.class, () -> transactionService.process(workItem(pending(TransactionType.WITHDRAW), 1)));
+        assertEquals(0, admissionController.getInFlight(TransactionType.WITHDRAW));
+    }
+
+    @Test
+    void testProcess_RedeliveredAfterSettlement_DoesNotPayAgain() {
+        // Given
+        Transaction settled = pending(TransactionType.DEPOSIT);
+        settled.setStatus(TransactionStatus.SUCCESS);
+        when(transactionRepository.findById("tx-1")).thenReturn(Optional.of(settled));
+        runLanesInline();
+
+        // When
+        Transaction transaction = transactionService.process(workItem(pending(TransactionType.DEPOSIT), 2)).join();
+
+        // Then
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        verifyNoInteractions(paymentGateway, accountService);
+    }
+
+    @Test
+    void testProcess_RedeliveredAfterCredit_OnlySettles() {
+        // Given - the credit succeeded but storing the outcome failed
+        acknowledgeSaves();
+        WorkItem item = workItem(pending(TransactionType.DEPOSIT), 2);
+        when(transactionRepository.findById("tx-1")).thenReturn(Optional.of(pending(TransactionType.DEPOSIT)));
+        when(accountService.getLedgerEntries(userId, "tx-1")).thenReturn(List.of(entry(10_000L)));
+        runLanesInline();
+
+        // When
+        Transaction transaction = transactionService.process(item).join();
+
+        // Then
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        verifyNoInteractions(paymentGateway);
+        verify(accountService, never()).addToBalance(anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void testProcess_RedeliveredAfterReservation_ResumesAtPayOut() {
+        // Given
+        acknowledgeSaves();
+        WorkItem item = workItem(pending(TransactionType.WITHDRAW), 2);
+        when(transactionRepository.findById("tx-1")).thenReturn(Optional.of(pending(TransactionType.WITHDRAW)));
+        when(accountService.getLedgerEntries(userId, "tx-1")).thenReturn(List.of(entry(-10_000L)));
+        when(paymentGateway.payOut(item.getTransaction())).thenReturn(CompletableFuture.completedFuture(null));
+        runLanesInline();
+
+        // When
+        Transaction transaction = transactionService.process(item).join();
+
+        // Then
+        assertEquals(TransactionStatus.SUCCESS, transaction.getStatus());
+        verify(accountService, never()).subtractFromBalance(anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void testProcess_RedeliveredAfterReturningReservation_OnlySettles() {
+        // Given
+        acknowledgeSaves();
+        WorkItem item = workItem(pending(TransactionType.WITHDRAW), 2);
+        when(transactionRepository.findById("tx-1")).thenReturn(Optional.of(pending(TransactionType.WITHDRAW)));
+        when(accountService.getLedgerEntries(userId, "tx-1")).thenReturn(List.of(entry(-10_000L), entry(10_000L)));
+        runLanesInline();
+
+        // When
+        Transaction transaction = transactionService.process(item).join();
+
+        // Then
+        assertEquals(TransactionStatus.FAILED, transaction.getStatus());
+        verifyNoInteractions(paymentGateway);
+        verify(accountService, never()).subtractFromBalance(anyString(), any(), any(), anyString());
+        verify(accountService, never()).addToBalance(anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void testProcessExchange_WritesBothSettledLegsOnce() {
+        // Given
+        ExchangeRequest request = exchangeRequest();
+        when(exchangeQuoteService.priceExchange(Currency.USD, Currency.TRY, amount)).thenReturn(quote());
+
+        // When
+        TransactionResponse response = transactionService.processExchange(userId, request);
+
+        // Then
+        assertEquals(TransactionStatus.SUCCESS, response.getStatus());
+        List<Transaction> legs = writtenLegs();
+        assertEquals(TransactionType.EXCHANGE_FROM, legs.get(0).getType());
+        assertEquals(TransactionType.EXCHANGE_TO, legs.get(1).getType());
+        assertTrue(legs.stream().allMatch(leg -> leg.getStatus() == TransactionStatus.SUCCESS && leg.getId() != null));
+        assertEquals(legs.get(0).getId(), response.getTransactionId());
+        verify(accountService).exchange(userId, Currency.USD, amount, Currency.TRY, new BigDecimal("3000.00"), legs.get(0).getId());
+        verify(transactionWriteBatcher, never()).insert(any());
+        verify(transactionWriteBatcher, never()).save(any());
+    }
+
+    @Test
+    void testProcessExchange_InsufficientFunds_WritesFailedLegsAndRethrows() {
+        // Given
+        ExchangeRequest request = exchangeRequest();
+        when(exchangeQuoteService.priceExchange(Currency.USD, Currency.TRY, amount)).thenReturn(quote());
+        doThrow(new InsufficientFundsException("Insufficient USD balance"))
+            .when(accountService).exchange(eq(userId), eq(Currency.USD), eq(amount), eq(Currency.TRY), any(), anyString());
+
+        // When & Then
+        assertThrows(InsufficientFundsException.class, () -> transactionService.processExchange(userId, request));
+        List<Transaction> legs = writtenLegs();
+        assertTrue(legs.stream().allMatch(leg -> leg.getStatus() == TransactionStatus.FAILED
+            && "Insufficient funds".equals(leg.getErrorMessage())));
+    }
+
+    private List<Transaction> writtenLegs() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Transaction>> legs = ArgumentCaptor.forClass(List.class);
+        verify(transactionWriteBatcher).insertTogether(legs.capture());
+        assertEquals(2, legs.getValue().size());
+        return legs.getValue();
+    }
+
+    private ExchangeRequest exchangeRequest() {
+        return ExchangeRequest.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(amount)
+            .build();
+    }
+
+    private ExchangeQuote quote() {
+        return ExchangeQuote.builder()
+            .fromCurrency(Currency.USD)
+            .toCurrency(Currency.TRY)
+            .amount(amount)
+            .exchangeRate(new BigDecimal("30.00"))
+            .convertedAmount(new BigDecimal("3000.00"))
+            .build();
+    }
+
+    private void acknowledgeSaves() {
+        when(transactionWriteBatcher.save(any(Transaction.class)))
+            .thenAnswer(invocation -> CompletableFuture.completedFuture(invocation.getArgument(0)));
+    }
+
+    private void runLanesInline() {
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(transactionExecutor).execute(eq(userId), any(Runnable.class));
+    }
+
+    private Transaction pending(TransactionType type) {
+        return Transaction.builder()
+            .id("tx-1")
+            .userId(userId)
+            .type(type)
+            .currency(Currency.USD)
+            .amount(amount)
+            .status(TransactionStatus.PENDING)
+            .build();
+    }
+
+    private LedgerEntry entry(long amountMinor) {
+        return LedgerEntry.pending(userId + ":USD", userId, Map.of(Currency.USD, amountMinor), "tx-1");
+    }
+
+    private static WorkItem workItem(Transaction transaction, int attempts) {
+        return WorkItem.builder()
+            .id(transaction.getId())
+            .transaction(transaction)
+            .claimId("claim-1")
+            .attempts(attempts)
+            .build();
+    }
+}
@@ -0,0 +1,188 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.TransactionStatus;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionWriteBatcherTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TransactionWriteBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new TransactionWriteBatcher(mongoTemplate, meterRegistry, 100, 50, 3, 0);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        batcher.shutdown();
+    }
+
+    @Test
+    void testConcurrentWrites_ShareOneOrderedBulkWrite() throws Exception {
+        // Given
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class)).thenReturn(bulkOperations);
+        Transaction first = Transaction.builder().status(TransactionStatus.PENDING).build();
+        Transaction second = Transaction.builder().id("tx-2").status(TransactionStatus.SUCCESS).build();
+
+        // When
+        CompletableFuture<Transaction> inserted = batcher.insert(first);
+        CompletableFuture<Transaction> saved = batcher.save(second);
+
+        // Then
+        assertSame(first, inserted.get(5, TimeUnit.SECONDS));
+        assertSame(second, saved.get(5, TimeUnit.SECONDS));
+        assertNotNull(first.getId());
+        InOrder order = inOrder(bulkOperations);
+        order.verify(bulkOperations).insert(first);
+        order.verify(bulkOperations).replaceOne(any(Query.class), eq(second), any(FindAndReplaceOptions.class));
+        order.verify(bulkOperations).execute();
+        verify(mongoTemplate, times(1)).bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class);
+        assertEquals(2.0, meterRegistry.get("transaction.write.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testWrite_RejectedWrite_FailsOnlyItsCaller() {
+        // Given
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(bulkWriteFailure(11000, 1)).thenReturn(null);
+        List<TransactionWriteBatcher.PendingWrite> batch = List.of(
+            new TransactionWriteBatcher.PendingWrite(Transaction.builder().id("tx-1").build(), true),
+            new TransactionWriteBatcher.PendingWrite(Transaction.builder().id("tx-2").build(), true),
+            new TransactionWriteBatcher.PendingWrite(Transaction.builder().id("tx-3").build(), false));
+
+        // When
+        batcher.write(batch);
+
+        // Then
+        assertEquals("tx-1", batch.get(0).written().join().getId());
+        assertThrows(CompletionException.class, () -> batch.get(1).written().join());
+        assertEquals("tx-3", batch.get(2).written().join().getId());
+        verify(bulkOperations, times(1)).insert(batch.get(1).transaction());
+        verify(bulkOperations, times(2)).replaceOne(any(Query.class), eq(batch.get(2).transaction()), any(FindAndReplaceOptions.class));
+    }
+
+    @Test
+    void testWrite_TransientFailure_IsRetried() {
+        // Given
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("Connection reset")).thenReturn(null);
+        List<TransactionWriteBatcher.PendingWrite> batch = List.of(
+            new TransactionWriteBatcher.PendingWrite(Transaction.builder().id("tx-1").build(), true),
+            new TransactionWriteBatcher.PendingWrite(Transaction.builder().id("tx-2").build(), false));
+
+        // When
+        batcher.write(batch);
+
+        // Then
+        assertEquals("tx-1", batch.get(0).written().join().getId());
+        assertEquals("tx-2", batch.get(1).written().join().getId());
+        verify(bulkOperations, times(2)).execute();
+    }
+
+    @Test
+    void testWrite_RetriedInsertAlreadyStored_Completes() {
+        // Given - the first attempt stored the insert before the connection was lost
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute())
+            .thenThrow(new DataAccessResourceFailureException("Connection reset"))
+            .thenThrow(bulkWriteFailure(11000, 0));
+        List<TransactionWriteBatcher.PendingWrite> batch = List.of(
+            new TransactionWriteBatcher.PendingWrite(Transaction.builder().id("tx-1").build(), true));
+
+        // When
+        batcher.write(batch);
+
+        // Then
+        assertEquals("tx-1", batch.get(0).written().join().getId());
+    }
+
+    @Test
+    void testWrite_PersistentFailure_FailsAfterAllAttempts() {
+        // Given
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenThrow(new DataAccessResourceFailureException("Connection refused"));
+        List<TransactionWriteBatcher.PendingWrite> batch = List.of(
+            new TransactionWriteBatcher.PendingWrite(Transaction.builder().id("tx-1").build(), true));
+
+        // When
+        batcher.write(batch);
+
+        // Then
+        assertThrows(CompletionException.class, () -> batch.get(0).written().join());
+        verify(bulkOperations, times(3)).execute();
+    }
+
+    @Test
+    void testInsertTogether_WritesAllInOneOrderedBulkWriteOnCaller() {
+        // Given
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, Transaction.class)).thenReturn(bulkOperations);
+        when(bulkOperations.insert(anyList())).thenReturn(bulkOperations);
+        Transaction from = Transaction.builder().id("tx-from").status(TransactionStatus.SUCCESS).build();
+        Transaction to = Transaction.builder().status(TransactionStatus.SUCCESS).build();
+
+        // When
+        batcher.insertTogether(List.of(from, to));
+
+        // Then
+        assertNotNull(to.getId());
+        verify(bulkOperations).insert(List.of(from, to));
+        verify(bulkOperations).execute();
+        assertEquals(2.0, meterRegistry.get("transaction.write.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    void testShutdown_RejectsNewWrites() throws InterruptedException {
+        // When
+        batcher.shutdown();
+
+        // Then
+        assertTrue(batcher.save(new Transaction()).isCompletedExceptionally());
+    }
+
+    private static BulkOperationException bulkWriteFailure(int code, int index) {
+        MongoBulkWriteException cause = new MongoBulkWriteException(BulkWriteResult.unacknowledged(),
+            List.of(new BulkWriteError(code, "write failed", new BsonDocument(), index)), null,
+            new ServerAddress(), Set.of());
+        return new BulkOperationException(cause.getMessage(), cause);
+    }
+}
@@ -0,0 +1,64 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.BalanceValuation;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.exception.ExchangeRateNotAvailableException;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ValuationPipelineTest {
+
+    @Test
+    void convertedMinor_SwitchesOnCurrencyWithMinorUnitFactors() {
+        // When
+        Document expression = ValuationPipeline.convertedMinor("$currency", "$balanceMinor", Currency.USD,
+            Map.of(Currency.TRY, 370_000_000L));
+
+        // Then
+        Document vars = expression.get("$let", Document.class).get("vars", Document.class);
+        Document factor = (Document) vars.get("converted", Document.class).getList("$multiply", Object.class).get(1);
+        List<Document> branches = factor.get("$switch", Document.class).getList("branches", Document.class);
+        assertEquals(1, branches.size());
+        assertEquals(new Document("$eq", List.of("$currency", "TRY")), branches.get(0).get("case"));
+        assertEquals(new BigDecimal("0.0370000000"), ((Decimal128) branches.get(0).get("then")).bigDecimalValue());
+        assertEquals(new Decimal128(BigDecimal.ZERO), factor.get("$switch", Document.class).get("default"));
+    }
+
+    @Test
+    void valuationOf_ReadsResultDocument() {
+        // Given
+        Document result = new Document("_id", "user-1")
+            .append("balances", new Document("USD", 1000_00L).append("TRY", 5000_00))
+            .append("total", 1185_00L)
+            .append("unrated", 0)
+            .append("version", 4);
+
+        // When
+        BalanceValuation valuation = ValuationPipeline.valuationOf(result, Currency.USD);
+
+        // Then
+        assertEquals(new BalanceValuation("user-1", Map.of(Currency.USD, 1000_00L, Currency.TRY, 5000_00L), 1185_00L, 4L),
+            valuation);
+    }
+
+    @Test
+    void valuationOf_UnratedBalance_ThrowsException() {
+        // Given
+        Document result = new Document("_id", "user-1")
+            .append("balances", new Document("USD", 1000_00L).append("TRY", 5000_00))
+            .append("total", 1000_00L)
+            .append("unrated", 1)
+            .append("version", 4);
+
+        // When & Then
+        assertThrows(ExchangeRateNotAvailableException.class, () -> ValuationPipeline.valuationOf(result, Currency.USD));
+    }
+}
@@ -0,0 +1,157 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.BalanceSnapshot;
+import com.currency.currencyapp.domain.Currency;
+import com.currency.currencyapp.domain.LedgerEntry;
+import com.currency.currencyapp.domain.Wallet;
+import com.currency.currencyapp.exception.AccountNotFoundException;
+import com.currency.currencyapp.exception.InsufficientFundsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WalletBalanceStoreTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private WalletBalanceStore balanceStore;
+
+    private Wallet wallet;
+    private final String userId = "test-user-123";
+
+    @BeforeEach
+    void setUp() {
+        balanceStore = new WalletBalanceStore(mongoTemplate, new ConflictRetryPolicy(new SimpleMeterRegistry(), 3, 0, 0));
+
+        Map<Currency, Long> balances = new EnumMap<>(Currency.class);
+        balances.put(Currency.USD, 1000_00L);
+        balances.put(Currency.TRY, 5000_00L);
+        wallet = Wallet.builder()
+            .userId(userId)
+            .balances(balances)
+            .createdAt(LocalDateTime.now())
+            .updatedAt(LocalDateTime.now())
+            .build();
+    }
+
+    @Test
+    void testGetSnapshot_ReadsSingleDocument() {
+        // Given
+        wallet.setVersion(5L);
+        when(mongoTemplate.findOne(any(Query.class), eq(Wallet.class))).thenReturn(wallet);
+
+        // When
+        BalanceSnapshot result = balanceStore.getSnapshot(userId);
+
+        // Then
+        assertEquals(Map.of(Currency.USD, 1000_00L, Currency.TRY, 5000_00L), result.getBalances());
+        assertEquals(Map.of(Currency.USD, 5L, Currency.TRY, 5L), result.getVersions());
+        assertTrue(result.isComplete());
+    }
+
+    @Test
+    void testGetSnapshot_NoWallet_ReturnsEmpty() {
+        // When & Then
+        assertTrue(balanceStore.getSnapshot(userId).getBalances().isEmpty());
+    }
+
+    @Test
+    void testCreateAccounts_IsOneUpsert() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Wallet.class)))
+            .thenReturn(wallet);
+
+        // When
+        balanceStore.createAccounts(userId, List.of(Currency.USD, Currency.TRY));
+
+        // Then
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), update.capture(), options.capture(), eq(Wallet.class));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(0L, inc.get("balances.USD"));
+        assertEquals(0L, inc.get("balances.TRY"));
+        assertTrue(options.getValue().isUpsert());
+    }
+
+    @Test
+    void testCredit() {
+        // Given
+        wallet.getBalances().put(Currency.USD, 1500_00L);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Wallet.class)))
+            .thenReturn(wallet);
+
+        // When
+        BalanceSnapshot result = balanceStore.credit(userId, Currency.USD, 500_00L, "tx-1");
+
+        // Then
+        assertEquals(1500_00L, result.getBalances().get(Currency.USD));
+        assertTrue(result.isComplete());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Wallet.class));
+        assertEquals(500_00L, update.getValue().getUpdateObject().get("$inc", Document.class).get("balances.USD"));
+    }
+
+    @Test
+    void testDebit_InsufficientFunds() {
+        // Given
+        when(mongoTemplate.findOne(any(Query.class), eq(Wallet.class))).thenReturn(wallet);
+
+        // When & Then
+        InsufficientFundsException exception = assertThrows(InsufficientFundsException.class,
+            () -> balanceStore.debit(userId, Currency.USD, 1500_00L, "tx-1"));
+        assertTrue(exception.getMessage().contains("Available: 1000.00"));
+    }
+
+    @Test
+    void testExchange_AppliesBothLegsInOneGuardedUpdate() {
+        // Given
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Wallet.class)))
+            .thenReturn(wallet);
+
+        // When
+        BalanceSnapshot result = balanceStore.exchange(userId, Currency.USD, 100_00L, Currency.TRY, 3251_47L, "tx-1");
+
+        // Then
+        assertEquals(2, result.getBalances().size());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Wallet.class));
+        assertEquals(new Document("$gte", 100_00L), query.getValue().getQueryObject().get("balances.USD"));
+        Document inc = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(-100_00L, inc.get("balances.USD"));
+        assertEquals(3251_47L, inc.get("balances.TRY"));
+        LedgerEntry entry = (LedgerEntry) update.getValue().getUpdateObject().get("$push", Document.class).get("pendingEntries");
+        assertEquals(userId, entry.getStreamId());
+        assertEquals(Map.of(Currency.USD, -100_00L, Currency.TRY, 3251_47L), entry.getAmounts());
+        verify(mongoTemplate, never()).findOne(any(Query.class), eq(Wallet.class));
+    }
+
+    @Test
+    void testExchange_NoWallet_ThrowsAccountNotFound() {
+        // When & Then
+        assertThrows(AccountNotFoundException.class,
+            () -> balanceStore.exchange(userId, Currency.USD, 100_00L, Currency.TRY, 3251_47L, "tx-1"));
+    }
+}
@@ -0,0 +1,134 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.WorkItem;
+import com.currency.currencyapp.exception.OverloadedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkItemDispatcherTest {
+
+    @Mock
+    private WorkItemOutbox workItemOutbox;
+
+    @Mock
+    private TransactionService transactionService;
+
+    private WorkItemDispatcher dispatcher;
+
+    private final WorkItem first = workItem("tx-1", "user-1");
+    private final WorkItem second = workItem("tx-2", "user-2");
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new WorkItemDispatcher(workItemOutbox, transactionService, 2);
+    }
+
+    @Test
+    void testDispatchBatch_FullBatch_AsksForMore() {
+        // Given
+        when(workItemOutbox.claim(2)).thenReturn(List.of(first, second));
+        when(transactionService.process(any(WorkItem.class))).thenReturn(new CompletableFuture<>());
+
+        // When & Then
+        assertTrue(dispatcher.dispatchBatch());
+        verify(workItemOutbox, never()).release(anyCollection());
+    }
+
+    @Test
+    void testDispatchBatch_Saturated_ReleasesDeclinedItems() {
+        // Given
+        when(workItemOutbox.claim(2)).thenReturn(List.of(first, second));
+        when(transactionService.process(first)).thenReturn(CompletableFuture.completedFuture(new Transaction()));
+        when(transactionService.process(second)).thenThrow(new OverloadedException("Too many", Duration.ofSeconds(1)));
+
+        // When
+        boolean more = dispatcher.dispatchBatch();
+
+        // Then
+        assertFalse(more);
+        verify(workItemOutbox).release(List.of(second));
+    }
+
+    @Test
+    void testDispatchBatch_Saturated_ReleasesLaterItemsOfSameUser() {
+        // Given
+        WorkItem later = workItem("tx-3", "user-1");
+        dispatcher = new WorkItemDispatcher(workItemOutbox, transactionService, 3);
+        when(workItemOutbox.claim(3)).thenReturn(List.of(first, second, later));
+        when(transactionService.process(first)).thenThrow(new OverloadedException("Too many", Duration.ofSeconds(1)));
+        when(transactionService.process(second)).thenReturn(new CompletableFuture<>());
+
+        // When
+        dispatcher.dispatchBatch();
+
+        // Then
+        verify(transactionService, never()).process(later);
+        verify(workItemOutbox).release(List.of(first, later));
+    }
+
+    @Test
+    void testDispatchBatch_RemovesItemsProcessedSinceLastBatch() {
+        // Given
+        when(workItemOutbox.claim(2)).thenReturn(List.of(first), List.of());
+        when(transactionService.process(first)).thenReturn(CompletableFuture.completedFuture(new Transaction()));
+        dispatcher.dispatchBatch();
+
+        // When
+        dispatcher.dispatchBatch();
+
+        // Then
+        verify(workItemOutbox).complete(List.of(first));
+    }
+
+    @Test
+    void testDispatchBatch_FailedItem_IsLeftToItsLease() {
+        // Given
+        when(workItemOutbox.claim(2)).thenReturn(List.of(first), List.of());
+        when(transactionService.process(first)).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("down")));
+        dispatcher.dispatchBatch();
+
+        // When
+        dispatcher.dispatchBatch();
+
+        // Then
+        verify(workItemOutbox, times(2)).complete(List.of());
+    }
+
+    @Test
+    void testRenewLeases_RenewsOnlyItemsStillInProgress() {
+        // Given
+        CompletableFuture<Transaction> running = new CompletableFuture<>();
+        CompletableFuture<Transaction> finished = new CompletableFuture<>();
+        when(workItemOutbox.claim(2)).thenReturn(List.of(first, second));
+        when(transactionService.process(first)).thenReturn(running);
+        when(transactionService.process(second)).thenReturn(finished);
+        dispatcher.dispatchBatch();
+        finished.complete(new Transaction());
+
+        // When
+        dispatcher.renewLeases();
+
+        // Then
+        verify(workItemOutbox).renew(List.of(first));
+    }
+
+    private static WorkItem workItem(String transactionId, String userId) {
+        return WorkItem.builder()
+            .id(transactionId)
+            .transaction(Transaction.builder().id(transactionId).userId(userId).build())
+            .claimId("claim-1")
+            .build();
+    }
+}
@@ -0,0 +1,141 @@
+package com.currency.currencyapp.service;
+
+import com.currency.currencyapp.domain.Transaction;
+import com.currency.currencyapp.domain.WorkItem;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WorkItemOutboxTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    private WorkItemOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        outbox = new WorkItemOutbox(mongoTemplate, 60);
+    }
+
+    @Test
+    void testEnqueue_ClaimableRightAway() {
+        // Given
+        when(mongoTemplate.insert(any(WorkItem.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        Transaction transaction = Transaction.builder().id("tx-1").build();
+
+        // When
+        WorkItem item = outbox.enqueue(transaction);
+
+        // Then
+        assertEquals("tx-1", item.getId());
+        assertSame(transaction, item.getTransaction());
+        assertEquals(item.getCreatedAt(), item.getLeaseExpiresAt());
+        assertNull(item.getClaimId());
+    }
+
+    @Test
+    void testClaim_LeasesCandidatesInOneGuardedUpdate() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(WorkItem.class)))
+            .thenReturn(List.of(WorkItem.builder().id("tx-1").build(), WorkItem.builder().id("tx-2").build()))
+            .thenReturn(List.of(WorkItem.builder().id("tx-1").claimId("claim").build()));
+
+        // When
+        List<WorkItem> claimed = outbox.claim(10);
+
+        // Then
+        assertEquals(1, claimed.size());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(WorkItem.class));
+        assertEquals(List.of("tx-1", "tx-2"), query.getValue().getQueryObject().get("_id", Document.class).get("$in"));
+        assertTrue(query.getValue().getQueryObject().containsKey("leaseExpiresAt"));
+        assertEquals(1, update.getValue().getUpdateObject().get("$inc", Document.class).get("attempts"));
+    }
+
+    @Test
+    void testClaim_SkipsUsersWithLeasedItemsAndReadsOldestFirst() {
+        // Given
+        when(mongoTemplate.findDistinct(any(Query.class), eq("transaction.userId"), eq(WorkItem.class), eq(String.class)))
+            .thenReturn(List.of("user-1"));
+        when(mongoTemplate.find(any(Query.class), eq(WorkItem.class)))
+            .thenReturn(List.of(WorkItem.builder().id("tx-1").build()))
+            .thenReturn(List.of(WorkItem.builder().id("tx-1").claimId("claim").build()));
+
+        // When
+        outbox.claim(10);
+
+        // Then
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(queries.capture(), eq(WorkItem.class));
+        Query candidates = queries.getAllValues().get(0);
+        assertEquals(new Document("$nin", List.of("user-1")), candidates.getQueryObject().get("transaction.userId"));
+        for (Query query : queries.getAllValues()) {
+            assertEquals(new Document("createdAt", 1).append("_id", 1), query.getSortObject());
+        }
+    }
+
+    @Test
+    void testClaim_NothingClaimable_WritesNothing() {
+        // Given
+        when(mongoTemplate.find(any(Query.class), eq(WorkItem.class))).thenReturn(List.of());
+
+        // When & Then
+        assertTrue(outbox.claim(10).isEmpty());
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(WorkItem.class));
+    }
+
+    @Test
+    void testComplete_NothingProcessed_WritesNothing() {
+        // When
+        outbox.complete(List.of());
+
+        // Then
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void testRenew_ExtendsLeasesHeldByTheirClaimsInOneWrite() {
+        // Given
+        WorkItem item = WorkItem.builder().id("tx-1").claimId("claim-1").build();
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(WorkItem.class)))
+            .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // When
+        long renewed = outbox.renew(List.of(item));
+
+        // Then
+        assertEquals(1, renewed);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(WorkItem.class));
+        assertEquals(List.of(new Document("_id", "tx-1").append("claimId", "claim-1")), query.getValue().getQueryObject().get("$or"));
+        assertTrue(update.getValue().getUpdateObject().get("$set", Document.class).containsKey("leaseExpiresAt"));
+    }
+
+    @Test
+    void testRenew_NothingInProgress_WritesNothing() {
+        // When
+        outbox.renew(List.of());
+
+        // Then
+        verifyNoInteractions(mongoTemplate);
+    }
+}
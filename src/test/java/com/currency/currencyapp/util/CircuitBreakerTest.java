@@ -0,0 +1,109 @@
+package com.currency.currencyapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    private final MutableClock clock = new MutableClock();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ofSeconds(30), clock);
+
+    @Test
+    void recordFailure_BelowThreshold_StaysClosed() {
+        // When
+        circuitBreaker.recordFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void recordFailure_ThresholdReached_OpensAndRejects() {
+        // When
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_OpenDurationElapsed_AdmitsSingleTrial() {
+        // Given
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        clock.advance(Duration.ofSeconds(30));
+
+        // When & Then
+        assertTrue(circuitBreaker.tryAcquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void recordSuccess_HalfOpenTrial_Closes() {
+        // Given
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        clock.advance(Duration.ofSeconds(30));
+        circuitBreaker.tryAcquire();
+
+        // When
+        circuitBreaker.recordSuccess();
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    void recordFailure_HalfOpenTrial_Reopens() {
+        // Given
+        circuitBreaker.recordFailure();
+        circuitBreaker.recordFailure();
+        clock.advance(Duration.ofSeconds(30));
+        circuitBreaker.tryAcquire();
+
+        // When
+        circuitBreaker.recordFailure();
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant now = Instant.parse("2026-10-16T10:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
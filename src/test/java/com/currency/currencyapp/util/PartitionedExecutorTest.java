@@ -0,0 +1,117 @@
+package com.currency.currencyapp.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartitionedExecutorTest {
+
+    private final PartitionedExecutor executor = new PartitionedExecutor("test-lane-", 4, 2);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void execute_SameKey_RunsInSubmissionOrder() throws InterruptedException {
+        // Given
+        PartitionedExecutor ordered = new PartitionedExecutor("ordered-lane-", 4, 1_000);
+        List<Integer> executed = Collections.synchronizedList(new ArrayList<>());
+
+        // When
+        for (int i = 0; i < 500; i++) {
+            int sequence = i;
+            ordered.execute("user-1", () -> executed.add(sequence));
+        }
+        ordered.shutdown(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(500, executed.size());
+        for (int i = 0; i < 500; i++) {
+            assertEquals(i, executed.get(i));
+        }
+    }
+
+    @Test
+    void execute_DifferentLanes_RunInParallel() throws InterruptedException {
+        // Given
+        String first = "user-1";
+        String second = keyOnOtherLane(first);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        CountDownLatch firstSawSecond = new CountDownLatch(1);
+
+        // When - the first task blocks its lane until the second task has started
+        executor.execute(first, () -> {
+            awaitQuietly(secondStarted);
+            if (secondStarted.getCount() == 0) {
+                firstSawSecond.countDown();
+            }
+        });
+        executor.execute(second, secondStarted::countDown);
+
+        // Then
+        assertTrue(firstSawSecond.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_FullLane_RejectsTask() throws InterruptedException {
+        // Given - one running task and a full queue of two
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute("user-1", () -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        executor.execute("user-1", () -> { });
+        executor.execute("user-1", () -> { });
+
+        // When & Then
+        assertEquals(2, executor.getQueueDepth(executor.laneFor("user-1")));
+        assertThrows(TaskRejectedException.class, () -> executor.execute("user-1", () -> { }));
+        release.countDown();
+    }
+
+    @Test
+    void execute_FailingTask_KeepsLaneRunning() throws InterruptedException {
+        // Given
+        CountDownLatch next = new CountDownLatch(1);
+
+        // When
+        executor.execute("user-1", () -> {
+            throw new IllegalStateException("boom");
+        });
+        executor.execute("user-1", next::countDown);
+
+        // Then
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+    }
+
+    private String keyOnOtherLane(String key) {
+        for (int i = 0; ; i++) {
+            String candidate = "user-" + i;
+            if (executor.laneFor(candidate) != executor.laneFor(key)) {
+                return candidate;
+            }
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.currency.currencyapp.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RingBufferTest {
+
+    @Test
+    void toList_NotFull_ReturnsElementsInInsertionOrder() {
+        // Given
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        buffer.add(1);
+        buffer.add(2);
+
+        // When & Then
+        assertEquals(List.of(1, 2), buffer.toList());
+    }
+
+    @Test
+    void add_Full_EvictsOldest() {
+        // Given
+        RingBuffer<Integer> buffer = new RingBuffer<>(3);
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i);
+        }
+
+        // When & Then
+        assertEquals(List.of(3, 4, 5), buffer.toList());
+        assertEquals(3, buffer.size());
+    }
+}